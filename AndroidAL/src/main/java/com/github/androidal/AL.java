@@ -15,8 +15,6 @@
  */
 package com.github.androidal;
 
-import java.util.Arrays;
-
 public enum AL {
 	/**
 	 * General tokens.
@@ -115,6 +113,11 @@ public enum AL {
 	AL_FORMAT_MONO16(0x1101),
 	AL_FORMAT_STEREO8(0x1102),
 	AL_FORMAT_STEREO16(0x1103),
+	/**
+	 * AL_EXT_FLOAT32 buffer formats.
+	 */
+	AL_FORMAT_MONO_FLOAT32(0x10010),
+	AL_FORMAT_STEREO_FLOAT32(0x10011),
 	/**
 	 * Buffer state.
 	 */
@@ -135,7 +138,27 @@ public enum AL {
 	AL_LINEAR_DISTANCE(0xD003),
 	AL_LINEAR_DISTANCE_CLAMPED(0xD004),
 	AL_EXPONENT_DISTANCE(0xD005),
-	AL_EXPONENT_DISTANCE_CLAMPED(0xD006);
+	AL_EXPONENT_DISTANCE_CLAMPED(0xD006),
+	/**
+	 * AL_SOFT_source_resampler.
+	 */
+	AL_NUM_RESAMPLERS_SOFT(0x1210),
+	AL_DEFAULT_RESAMPLER_SOFT(0x1211),
+	AL_SOURCE_RESAMPLER_SOFT(0x1212),
+	AL_RESAMPLER_NAME_SOFT(0x1213),
+	/**
+	 * AndroidAL buffer attributes.
+	 */
+	AL_SAMPLE_STORAGE_AAL(0x7A10),
+	AL_NATIVE_RATE_AAL(0x7A14),
+	AL_BUFFER_RESAMPLER_AAL(0x7A15),
+	/**
+	 * AndroidAL sample storage.
+	 */
+	AL_STORAGE_FLOAT_AAL(0x7A11),
+	AL_STORAGE_PCM16_AAL(0x7A12),
+	AL_STORAGE_IMA4_AAL(0x7A13),
+	AL_STORAGE_MAPPED_AAL(0x7A16);
 
 	final int _v;
 
@@ -147,8 +170,38 @@ public enum AL {
 		return _v;
 	}
 
-	public static AL getEnum(final Integer v) {
-		return Arrays.stream(AL.values())
-			.filter(o -> o.value() == v).findFirst().orElse(AL.AL_NONE);
+	// Constants by value: open addressing with linear probing over a table a few times the
+	// number of constants, so a lookup is a hash and usually one compare.  Where constants share a
+	// value the first one declared wins.
+	static final int LOOKUP_BITS = 8;
+	static final int LOOKUP_MASK = (1 << LOOKUP_BITS) - 1;
+	static final int[] lookupValues = new int[1 << LOOKUP_BITS];
+	static final AL[] lookupEnums = new AL[1 << LOOKUP_BITS];
+
+	static {
+		for (final AL e : values()) {
+			int i = lookupIndex(e._v);
+			while (lookupEnums[i] != null && lookupValues[i] != e._v) {
+				i = (i + 1) & LOOKUP_MASK;
+			}
+			if (lookupEnums[i] == null) {
+				lookupValues[i] = e._v;
+				lookupEnums[i] = e;
+			}
+		}
+	}
+
+	static int lookupIndex(final int v) {
+		return (v * 0x9E3779B9) >>> (32 - LOOKUP_BITS);
+	}
+
+	/**
+	 * @return The constant with the given value, AL_NONE if there is none.  Does not allocate.
+	 */
+	public static AL getEnum(final int v) {
+		for (int i = lookupIndex(v); lookupEnums[i] != null; i = (i + 1) & LOOKUP_MASK) {
+			if (lookupValues[i] == v) { return lookupEnums[i]; }
+		}
+		return AL_NONE;
 	}
 }
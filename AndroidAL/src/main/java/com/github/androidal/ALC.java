@@ -15,8 +15,6 @@
  */
 package com.github.androidal;
 
-import java.util.Arrays;
-
 public enum ALC {
 	/**
 	 * General tokens.
@@ -67,7 +65,20 @@ public enum ALC {
 	/**
 	 * Integer queries.
 	 */
-	ALC_CAPTURE_SAMPLES(0x312);
+	ALC_CAPTURE_SAMPLES(0x312),
+	/**
+	 * AndroidAL context creation attributes.
+	 */
+	ALC_MIXER_MODE_AAL(0x7A01),
+	/**
+	 * AndroidAL mixer modes.
+	 */
+	ALC_MIXER_POLLED_AAL(0x7A02),
+	ALC_MIXER_DEVICE_AAL(0x7A03),
+	/**
+	 * AndroidAL context creation attributes.
+	 */
+	ALC_MIXER_THREADS_AAL(0x7A04);
 
 	final int _v;
 
@@ -79,8 +90,38 @@ public enum ALC {
 		return _v;
 	}
 
-	public static ALC getEnum(final Integer v) {
-		return Arrays.stream(ALC.values())
-			.filter(o -> o.value() == v).findFirst().orElse(ALC_FALSE);
+	// Constants by value: open addressing with linear probing over a table a few times the
+	// number of constants, so a lookup is a hash and usually one compare.  Where constants share a
+	// value the first one declared wins.
+	static final int LOOKUP_BITS = 7;
+	static final int LOOKUP_MASK = (1 << LOOKUP_BITS) - 1;
+	static final int[] lookupValues = new int[1 << LOOKUP_BITS];
+	static final ALC[] lookupEnums = new ALC[1 << LOOKUP_BITS];
+
+	static {
+		for (final ALC e : values()) {
+			int i = lookupIndex(e._v);
+			while (lookupEnums[i] != null && lookupValues[i] != e._v) {
+				i = (i + 1) & LOOKUP_MASK;
+			}
+			if (lookupEnums[i] == null) {
+				lookupValues[i] = e._v;
+				lookupEnums[i] = e;
+			}
+		}
+	}
+
+	static int lookupIndex(final int v) {
+		return (v * 0x9E3779B9) >>> (32 - LOOKUP_BITS);
+	}
+
+	/**
+	 * @return The constant with the given value, ALC_FALSE if there is none.  Does not allocate.
+	 */
+	public static ALC getEnum(final int v) {
+		for (int i = lookupIndex(v); lookupEnums[i] != null; i = (i + 1) & LOOKUP_MASK) {
+			if (lookupValues[i] == v) { return lookupEnums[i]; }
+		}
+		return ALC_FALSE;
 	}
 }
@@ -18,8 +18,19 @@ package com.github.androidal;
 import android.annotation.SuppressLint;
 import android.util.Log;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.File;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Concrete implementation of an OpenAL audio implementation for Android Applications.<br>
@@ -39,7 +50,22 @@ public class AndroidAL {
 	static final String AL_RENDERER = "AndroidAL";
 	static final String AL_VENDOR = "bmcclint";
 	static final String AL_VERSION = "0.1";
-	static final String AL_EXTENSIONS = "NONE";
+	static final String AL_EXTENSIONS = "AL_SOFT_source_resampler AL_EXT_FLOAT32";
+
+	// Device specifiers for alcOpenDevice
+	/** Android AudioTrack hardware output (default) */
+	public static final String ALC_DEVICE_AUDIO_TRACK = "AudioTrack";
+	/** Output that discards all samples, renders as fast as possible */
+	public static final String ALC_DEVICE_NULL = "Null";
+	/** Output recorded to a WAVE file, append the file path e.g. "Wave:/sdcard/out.wav" */
+	public static final String ALC_DEVICE_WAVE = "Wave:";
+
+	/** Floats per source passed to alSourceTransformsAAL: position, velocity and direction */
+	public static final int TRANSFORM_STRIDE = 9;
+
+	/** Threads converting alBufferDataAsyncAAL and alBufferDataBatchAAL data, a core is left for the render and mixing threads */
+	public static final int LOADER_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+	static final long LOADER_KEEP_ALIVE_SECONDS = 5;
 
 	// Error states
 	AL alErrorState = AL.AL_NO_ERROR;
@@ -49,9 +75,12 @@ public class AndroidAL {
 	String alcErrorDescr = "";
 
 	// Simulated hardware object trackers
-	final Map<Integer, AudioDevice> devices; // Object where samples are written
-	final Map<Integer, AudioContext> contexts; // Context Ids per Device
-	final Map<Integer, AudioBuffer> buffers; // Sounds data managed by the driver
+	final HandleTable<AudioDevice> devices; // Object where samples are written
+	final HandleTable<AudioContext> contexts; // Context Ids per Device
+	final HandleTable<AudioBuffer> buffers; // Sounds data managed by the driver
+
+	ExecutorService loader; // Loader threads, created on the first background load, guarded by this
+	volatile SampleCache sampleCache; // Converted buffers kept on disk, null unless alBufferCacheAAL enabled it
 
 	// Currently active 'simulated hardware' objects.
 	AudioDevice device;
@@ -65,9 +94,9 @@ public class AndroidAL {
 	 * Default constructor.
 	 */
 	public AndroidAL() {
-		this.devices = new HashMap<>();
-		this.contexts = new HashMap<>();
-		this.buffers = new HashMap<>();
+		this.devices = new HandleTable<>();
+		this.contexts = new HandleTable<>();
+		this.buffers = new HandleTable<>();
 
 		Log.i(TAG, String.format("New AndroidAudio::AudioTrack"));
 	}
@@ -75,15 +104,48 @@ public class AndroidAL {
 	// -------------------------------------------------------------------------
 	// Device / Context methods
 
+	/**
+	 * Opens a device by name.
+	 *
+	 * <p>The device specifier selects where the mixed output is written: {@link #ALC_DEVICE_AUDIO_TRACK} (or null)
+	 * for the Android AudioTrack, {@link #ALC_DEVICE_NULL} to discard the output, or {@link #ALC_DEVICE_WAVE}
+	 * followed by a file path to record the output to a WAVE file.</p>
+	 *
+	 * @param buffer device specifier as a String or null for the default device
+	 * @return device Id or -1 on failure
+	 */
 	public long alcOpenDevice(Object buffer) {
+		final String specifier = (buffer == null) ? ALC_DEVICE_AUDIO_TRACK : buffer.toString();
 		try {
-			device = new AudioDevice();
-			devices.put(device.id, device);
+			AudioSink sink;
+			if (specifier.equals(ALC_DEVICE_AUDIO_TRACK)) {
+				sink = new AudioTrackSink();
+			} else if (specifier.equals(ALC_DEVICE_NULL)) {
+				sink = new NullSink();
+			} else if (specifier.startsWith(ALC_DEVICE_WAVE) && specifier.length() > ALC_DEVICE_WAVE.length()) {
+				sink = new WaveFileSink(new File(specifier.substring(ALC_DEVICE_WAVE.length())));
+			} else {
+				alcErrorState = ALC.ALC_INVALID_VALUE;
+				alcErrorDescr = "The specified device does not exist: " + specifier;
+				Log.e(TAG, alcErrorDescr);
+				return -1;
+			}
+
+			final int deviceId = devices.reserve();
+			if (deviceId == 0) {
+				sink.release();
+				alcErrorState = ALC.ALC_OUT_OF_MEMORY;
+				alcErrorDescr = "Too many devices are open";
+				Log.e(TAG, alcErrorDescr);
+				return -1;
+			}
+			device = new AudioDevice(deviceId, specifier, sink);
+			devices.set(deviceId, device);
 
-			Log.i(TAG, String.format("Android AudioTrack sound system initialized: %d", device.id));
+			Log.i(TAG, String.format("%s sound system initialized: %d", specifier, device.id));
 			return device.id;
 		} catch (Exception ex) {
-			Log.e(TAG, String.format("Android AudioTrack sound system exception: %s", ex.getMessage()));
+			Log.e(TAG, String.format("%s sound system exception: %s", specifier, ex.getMessage()));
 			return -1;
 		}
 	}
@@ -92,20 +154,39 @@ public class AndroidAL {
 		// NOTE: attributes is an array of ALenum and int value.
 		// ALC_FREQUENCY      - output frequency (output rate in Hz)
 		// ALC_REFRESH        - update / refresh rate (how often to update the mixing buffer)
-		// ALC_MONO_SOURCES   - requested MONO sources
-		// ALC_STEREO_SOURCES - requested STEREO sources
+		// ALC_MONO_SOURCES   - requested MONO sources, with stereo the most voices mixed at once (default unlimited),
+		//                      the least audible playing sources past that are virtual and only keep time
+		// ALC_STEREO_SOURCES - requested STEREO sources, added to the mono ones (default 0)
 		// ALC_SYNC           - AL_TRUE | AL_FALSE (default this to false???)
-
-		if (devices.containsKey((int) deviceId)) {
-			AudioDevice device = devices.get(deviceId);
+		// ALC_MIXER_MODE_AAL - ALC_MIXER_POLLED_AAL (default) sleeps between passes,
+		//                      ALC_MIXER_DEVICE_AAL blocks on the output device
+		// ALC_MIXER_THREADS_AAL - threads mixing each pass, 1 (default) mixes on the mixing thread only
+
+		final AudioDevice device = devices.get(deviceId);
+		if (device != null) {
+			int contextId = contexts.reserve();
+			if (contextId == 0) {
+				alcErrorState = ALC.ALC_OUT_OF_MEMORY;
+				alcErrorDescr = "Too many contexts for device Id: " + deviceId;
+				Log.e(TAG, alcErrorDescr);
+				return -1;
+			}
+			AudioContext newContext = new AudioContext(deviceId, contextId);
+			String invalidAttribute = newContext.setAttributes(attributes);
+			if (invalidAttribute != null) {
+				contexts.remove(contextId);
+				alcErrorState = ALC.ALC_INVALID_VALUE;
+				alcErrorDescr = invalidAttribute;
+				Log.e(TAG, alcErrorDescr);
+				return -1;
+			}
 
 			// Make a mixing buffer the size of the minimum buffer adjusted to floats.
 			// The buffer used to mix data where even indexes are left channel and odd is right.
-			audioMixer = new AudioMixer(device.defaultMinBufferSizeInBytes, device.defaultOutputSampleRate, device.audioTrack, buffers);
+			audioMixer = new AudioMixer(device.defaultMinBufferSizeInBytes, device.defaultOutputSampleRate, device.sink, newContext.mixerThreads, newContext.maxVoices());
 
-			int contextId = ++AudioContext.nextContextId;
-			context = new AudioContext(deviceId, contextId);
-			contexts.put(contextId, context);
+			context = newContext;
+			contexts.set(contextId, context);
 
 			Log.i(TAG, String.format("Created context %d for device Id: %d", contextId, deviceId));
 			return contextId;
@@ -116,24 +197,21 @@ public class AndroidAL {
 	}
 
 	public final boolean alcMakeContextCurrent(final long contextId) {
-		if (contextId > 0 && contexts.containsKey((int) contextId)) {
-			context = contexts.get((int) contextId);
-			if (context == null) {
-				Log.e(TAG, String.format("Device Id for Context Id %d was NULL", contextId));
-				return false;
-			}
+		final AudioContext current = contexts.get((int) contextId);
+		if (current != null) {
+			context = current;
 
 			// Start the audio track processing data...
 			AudioDevice device = devices.get(context.deviceId);
 			if (device != null) {
-				device.audioTrack.play(); // Actually doesn't start until data is written
+				device.sink.play(); // Actually doesn't start until data is written
 				audioMixer.setContext(context);
 				audioMixer.mixingThread.start();
 
-				Log.i(TAG, String.format("Started mixing thread @ %d Hz", audioMixer.mixingHz));
+				Log.i(TAG, String.format("Started %s mixing thread @ %d Hz", context.mixerMode, context.refresh));
 				return true;
 			} else {
-				Log.w(TAG, String.format("No AudioTrack for deviceId: %d", device.id));
+				Log.w(TAG, String.format("No device for deviceId: %d", context.deviceId));
 				return false;
 			}
 		} else {
@@ -145,13 +223,23 @@ public class AndroidAL {
 	public final int alcGetCurrentContext() { return context.contextId; }
 
 	public void alcDestroyContext(final long contextId) {
-		if (contexts.containsKey((int) contextId)) {
+		if (contexts.valid((int) contextId)) {
+			// The mixer reads the sources and buffers torn down below, it is stopped first
 			if (audioMixer.mixingThread != null) {
-				audioMixer.mixingThread.interrupt();
+				final Thread mixingThread = audioMixer.mixingThread;
+				mixingThread.interrupt();
+				AudioMixer.join(mixingThread);
 				audioMixer.mixingThread = null;
 				Log.i(TAG, String.format("Stopping mixing thread"));
 			}
+			audioMixer.stopWorkers();
 
+			for (int index = 0; index < context.sources.used; index++) {
+				final AudioSource source = context.sources.valueAt(index);
+				if (source != null) {
+					detachBuffers(source);
+				}
+			}
 			context.sources.clear();
 
 			contexts.remove((int) contextId);
@@ -161,22 +249,17 @@ public class AndroidAL {
 	}
 
 	public final boolean alcCloseDevice(final long deviceId) {
-		if (devices.containsKey((int) deviceId)) {
-			AudioDevice device = devices.get((int) deviceId);
-			if (device == null) {
-				Log.e(TAG, String.format("AudioTrack for device Id %d was NULL", deviceId));
-				return false;
-			}
-
-			device.audioTrack.stop();
-			device.audioTrack.flush();
-			device.audioTrack.release();
+		final AudioDevice device = devices.get((int) deviceId);
+		if (device != null) {
+			device.sink.stop();
+			device.sink.flush();
+			device.sink.release();
 
 			buffers.clear();
 
 			devices.remove((int) deviceId);
 
-			Log.i(TAG, String.format("Stopping AudioTrack"));
+			Log.i(TAG, String.format("Stopping %s", device.specifier));
 			return true;
 		} else {
 			Log.i(TAG, String.format("alcCloseDevice::device not found: %d", deviceId));
@@ -185,8 +268,8 @@ public class AndroidAL {
 	}
 
 	public int alcGetContextsDevice(int contextId) {
-		if (contexts.containsKey((int) contextId)) {
-			AudioContext context = contexts.get(contextId);
+		final AudioContext context = contexts.get(contextId);
+		if (context != null) {
 			return context.deviceId;
 		} else {
 			Log.w(TAG, String.format("No context for contextId: %d", contextId));
@@ -204,15 +287,24 @@ public class AndroidAL {
 	 */
 	public void alGenBuffers(final int[] bufferIds) {
 		if (bufferIds != null && bufferIds.length > 0) {
-			for (int i = 0; i < bufferIds.length; i++) {
-				bufferIds[i] = ++AudioBuffer.nextBufferId;
+			synchronized (this) {
+				for (int i = 0; i < bufferIds.length; i++) {
+					final int bufferId = buffers.reserve();
+					if (bufferId == 0) {
+						alErrorState = AL.AL_OUT_OF_MEMORY;
+						alErrorDescr = "There is not enough memory available to generate all the buffers requested.";
+						Log.e(TAG, alErrorDescr);
+						return;
+					}
+					buffers.set(bufferId, new AudioBuffer(bufferId));
+					bufferIds[i] = bufferId;
+				}
 			}
 		} else {
 			alErrorState = AL.AL_INVALID_VALUE;
 			alErrorDescr = "The buffer array isn't large enough to hold the number of buffers requested.";
 			Log.e(TAG, alErrorDescr);
 		}
-		// Not implemented: AL_OUT_OF_MEMORY - There is not enough memory available to generate all the buffers requested.
 	}
 
 	/**
@@ -222,14 +314,22 @@ public class AndroidAL {
 	 */
 	public void alDeleteBuffers(final int[] bufferIds) {
 		if (bufferIds != null && bufferIds.length > 0) {
-			for (int id = 0; id < bufferIds.length; id++) {
-				if (buffers.containsKey(id)) {
+			synchronized (this) {
+				for (final int id : bufferIds) {
+					final AudioBuffer buffer = buffers.get(id);
+					if (buffer == null) {
+						alErrorState = AL.AL_INVALID_NAME;
+						alErrorDescr = "A buffer name is invalid: " + id;
+						Log.i(TAG, alErrorDescr + ": NOTE: some buffers deleted.");
+						return;
+					}
+					if (buffer.attachments > 0 || buffer.loading) {
+						alErrorState = AL.AL_INVALID_OPERATION;
+						alErrorDescr = "The buffer is still in use and can not be deleted: " + id;
+						Log.i(TAG, alErrorDescr + ": NOTE: some buffers deleted.");
+						return;
+					}
 					buffers.remove(id);
-				} else {
-					alErrorState = AL.AL_INVALID_NAME;
-					alErrorDescr = "A buffer name is invalid: " + id;
-					Log.i(TAG, alErrorDescr + ": NOTE: some buffers deleted.");
-					return;
 				}
 			}
 		} else {
@@ -237,7 +337,6 @@ public class AndroidAL {
 			alErrorDescr = "Call to delete buffers with NULL or empty request.";
 			Log.e(TAG, alErrorDescr);
 		}
-		// Not implemented: AL_INVALID_OPERATION - The buffer is still in use and can not be deleted.
 	}
 
 	/**
@@ -247,7 +346,7 @@ public class AndroidAL {
 	 * @return AL_TRUE if valid and AL_FALSE if not.
 	 */
 	public final boolean alIsBuffer(final int bufferId) {
-		return buffers.containsKey(bufferId);
+		return buffers.valid(bufferId);
 	}
 
 	/**
@@ -261,63 +360,501 @@ public class AndroidAL {
 	 * <p>16-bit data is expressed as a signed value over the range -32768 to 32767, 0 being an audio output level of zero. Byte order for 16-bit values is
 	 * determined by the native format of the CPU.</p>
 	 *
+	 * <p>AL_EXT_FLOAT32: AL_FORMAT_MONO_FLOAT32 and AL_FORMAT_STEREO_FLOAT32 data is expressed as 32 bit floats, -1.0 to 1.0.</p>
+	 *
+	 * <p>IMPLEMENTATION SPECIFIC: the data is a byte[], or a heap or direct ByteBuffer, ShortBuffer (16 bit formats) or FloatBuffer
+	 * (float formats) read in place from its position to its limit without moving the position.  Bytes hold 16 and 32 bit samples
+	 * in the CPU's native byte order, typed buffers in their own order.</p>
+	 *
 	 * <p>Stereo data is expressed in an interleaved format, left channel sample followed by the right channel sample.</p>
 	 *
 	 * <p>Buffers containing audio data with more than one channel will be played without 3D spatialization features – these formats are normally used for
 	 * background music.</p>
 	 *
-	 * <p>IMPLEMENTATION SPECIFIC: samples are converted to floats -1.0 to 1.0 and normalized to max values of -1.0 or 1.0.</p>
+	 * <p>IMPLEMENTATION SPECIFIC: stereo buffers are mixed by a dedicated kernel, each channel scaled by the source gain only, ignoring
+	 * position, distance attenuation and doppler.  Every buffer queued on a source must have the same channels.</p>
+	 *
+	 * <p>IMPLEMENTATION SPECIFIC: samples are converted to floats -1.0 to 1.0 and normalized to max values of -1.0 or 1.0, then
+	 * kept in the storage selected with AL_SAMPLE_STORAGE_AAL (32 bit float by default).  Samples are resampled to the output
+	 * rate, with the buffer's AL_BUFFER_RESAMPLER_AAL (nearest by default), unless AL_NATIVE_RATE_AAL is set, then they are kept
+	 * at the data frequency and resampled as they are mixed.</p>
+	 *
+	 * <p>IMPLEMENTATION SPECIFIC: the conversion runs on the calling thread, see {@link #alBufferDataAsyncAAL} and
+	 * {@link #alBufferDataBatchAAL} to convert on background threads.</p>
 	 *
 	 * @param bufferId  the buffer to modify
 	 * @param format    the data format
-	 * @param buffer      the sample data
+	 * @param buffer    the sample data
 	 * @param frequency the data frequency
 	 */
-	@SuppressLint("DefaultLocale")
 	public void alBufferData(final int bufferId, final int format, final Object buffer, final int frequency) {
-		byte[] data = (byte[]) buffer;
-		if (!buffers.containsKey(bufferId)) {
-			float[] sampleData; // Re-sampled float data
-			AL param = AL.getEnum(format);
-
-			// Build the buffer
-			AudioBuffer audioBuffer = new AudioBuffer(bufferId);
-			audioBuffer.frequency = frequency;
-			audioBuffer.size = data.length;
-			switch (param) {
-				case AL_FORMAT_MONO8:
-					audioBuffer.channels = 1;
-					audioBuffer.bits = 8;
-					sampleData = AudioUtilities.resample8bit(data, frequency, device.defaultOutputSampleRate);
-					break;
-				case AL_FORMAT_MONO16:
-					audioBuffer.channels = 1;
-					audioBuffer.bits = 16;
-					sampleData = AudioUtilities.resample16bit(data, frequency, device.defaultOutputSampleRate);
-					break;
-				case AL_FORMAT_STEREO8:
-				case AL_FORMAT_STEREO16:
-				default:
-					alErrorState = AL.AL_INVALID_ENUM;
-					alErrorDescr = "The specified format does not exist or unhandled: " + param;
+		final int outputRate = device.defaultOutputSampleRate;
+		final AudioBuffer audioBuffer;
+		synchronized (this) {
+			audioBuffer = reserveBufferData(bufferId, buffer);
+		}
+		if (audioBuffer == null) { return; }
+
+		final BufferLoad load = new BufferLoad(1);
+		loadBufferData(load, audioBuffer, format, buffer, frequency, outputRate);
+		if (load.error != AL.AL_NO_ERROR) {
+			alErrorState = load.error;
+			alErrorDescr = load.errorDescr;
+		}
+	}
+
+	/**
+	 * Sets the sample data of the specified buffer from a RIFF/WAVE file, see {@link #alBufferData}.
+	 *
+	 * <p>IMPLEMENTATION SPECIFIC: the file is memory mapped and its samples are converted from the mapping, never read into a
+	 * byte[].  8 and 16 bit PCM and 32 bit float, mono or stereo, are supported.  16 bit files loaded into a buffer with
+	 * AL_NATIVE_RATE_AAL set are not converted at all, the mixer reads them in place (AL_STORAGE_MAPPED_AAL) and the OS pages
+	 * them in as they play, so long music and ambience cost no heap.  They are not read ahead to be normalized, they play at the
+	 * level they were recorded.  The file must not be modified while mapped.</p>
+	 *
+	 * @param bufferId the buffer to modify
+	 * @param path     the file to load
+	 */
+	public void alBufferWaveAAL(final int bufferId, final String path) {
+		final WaveFile wave;
+		try {
+			wave = (path == null) ? null : WaveFile.map(new File(path));
+		} catch (IOException ex) {
+			alErrorState = AL.AL_INVALID_VALUE;
+			alErrorDescr = "The file can't be read: " + ex.getMessage();
+			Log.e(TAG, alErrorDescr);
+			return;
+		}
+		if (wave == null) {
+			alErrorState = AL.AL_INVALID_VALUE;
+			alErrorDescr = "The file is not a supported RIFF/WAVE file: " + path;
+			Log.e(TAG, alErrorDescr);
+			return;
+		}
+		alBufferData(bufferId, wave.format.value(), wave, wave.frequency);
+	}
+
+	/**
+	 * Generates a buffer for every sound of a sound bank, already filled.  Banks are packed on the host at build time by
+	 * the tools module's SoundBankPacker (gradle :tools:packSoundBank).
+	 *
+	 * <p>IMPLEMENTATION SPECIFIC: the bank is memory mapped once and every buffer plays its samples in place from the
+	 * mapping (AL_STORAGE_MAPPED_AAL), nothing is converted or copied.  The buffers are deleted with alDeleteBuffers like
+	 * any other and can be refilled with alBufferData, the mapping is released once none of them view it.  The file must
+	 * not be modified while mapped.</p>
+	 *
+	 * @param path the bank to load
+	 * @return the buffer Ids, in the order the sounds were packed, null if the bank can't be loaded (see alGetError)
+	 */
+	public int[] alLoadSoundBankAAL(final String path) {
+		final SoundBank bank;
+		try {
+			bank = (path == null) ? null : SoundBank.map(new File(path));
+		} catch (IOException ex) {
+			alErrorState = AL.AL_INVALID_VALUE;
+			alErrorDescr = "The file can't be read: " + ex.getMessage();
+			Log.e(TAG, alErrorDescr);
+			return null;
+		}
+		if (bank == null) {
+			alErrorState = AL.AL_INVALID_VALUE;
+			alErrorDescr = "The file is not a valid sound bank: " + path;
+			Log.e(TAG, alErrorDescr);
+			return null;
+		}
+
+		final int[] bufferIds = new int[bank.size()];
+		synchronized (this) {
+			for (int i = 0; i < bufferIds.length; i++) {
+				final int bufferId = buffers.reserve();
+				if (bufferId == 0) {
+					for (int j = 0; j < i; j++) {
+						buffers.remove(bufferIds[j]);
+					}
+					alErrorState = AL.AL_OUT_OF_MEMORY;
+					alErrorDescr = "There is not enough memory available to generate all the buffers of the bank.";
 					Log.e(TAG, alErrorDescr);
-					return;
+					return null;
+				}
+				final AudioBuffer audioBuffer = new AudioBuffer(bufferId);
+				bank.assign(i, audioBuffer);
+				buffers.set(bufferId, audioBuffer);
+				bufferIds[i] = bufferId;
+			}
+		}
+		return bufferIds;
+	}
+
+	/**
+	 * Keep the samples alBufferData converts in a directory, so later runs load them instead of converting again.
+	 *
+	 * <p>IMPLEMENTATION SPECIFIC: entries are filed under a SHA-256 of the data, format, frequency and the buffer's
+	 * AL_SAMPLE_STORAGE_AAL, AL_NATIVE_RATE_AAL and AL_BUFFER_RESAMPLER_AAL, plus the output rate for buffers resampled
+	 * to it.  Data found in the cache is hashed and memory mapped back instead of converted.  Entries are never evicted,
+	 * the application owns the directory (e.g. under Context.getCacheDir()).  Applies to the buffers that start converting
+	 * after the call, on the calling or the loader threads.</p>
+	 *
+	 * @param directory the cache directory, created if needed, null to stop caching
+	 */
+	public void alBufferCacheAAL(final String directory) {
+		if (directory == null) {
+			sampleCache = null;
+			return;
+		}
+		final File file = new File(directory);
+		if (!file.isDirectory() && !file.mkdirs()) {
+			alErrorState = AL.AL_INVALID_VALUE;
+			alErrorDescr = "The cache directory can't be created: " + directory;
+			Log.e(TAG, alErrorDescr);
+			return;
+		}
+		sampleCache = new SampleCache(file);
+	}
+
+	/**
+	 * Sets the sample data of the specified buffer on a background loader thread, see {@link #alBufferData}.
+	 *
+	 * <p>IMPLEMENTATION SPECIFIC: the conversion runs on one of {@link #LOADER_THREADS} loader threads, the call only checks
+	 * the buffer and returns.  Until the returned load is done the buffer can't be attached, queued, refilled or deleted
+	 * (AL_INVALID_OPERATION), and the data must not be modified.  Conversion errors are reported by the load, not alGetError.</p>
+	 *
+	 * @param bufferId  the buffer to modify
+	 * @param format    the data format
+	 * @param buffer    the sample data
+	 * @param frequency the data frequency
+	 * @return the load's completion handle, null if the buffer can't be loaded (see alGetError)
+	 */
+	public BufferLoad alBufferDataAsyncAAL(final int bufferId, final int format, final Object buffer, final int frequency) {
+		return alBufferDataBatchAAL(new int[] { bufferId }, new int[] { format }, new Object[] { buffer }, new int[] { frequency });
+	}
+
+	/**
+	 * Sets the sample data of many buffers, converted in parallel on the background loader threads.  Element i of each
+	 * array describes one buffer, as the arguments of {@link #alBufferDataAsyncAAL}.
+	 *
+	 * <p>Nothing is loaded unless every buffer can be.  The load is done once every buffer is, buffers are published one
+	 * by one as they finish.</p>
+	 *
+	 * @param bufferIds   the buffers to modify, each at most once
+	 * @param formats     the data formats
+	 * @param buffers     the sample data
+	 * @param frequencies the data frequencies
+	 * @return the load's completion handle, null if a buffer can't be loaded (see alGetError)
+	 */
+	public BufferLoad alBufferDataBatchAAL(final int[] bufferIds, final int[] formats, final Object[] buffers, final int[] frequencies) {
+		if (bufferIds == null || formats == null || buffers == null || frequencies == null || bufferIds.length == 0
+			|| formats.length != bufferIds.length || buffers.length != bufferIds.length || frequencies.length != bufferIds.length) {
+			alErrorState = AL.AL_INVALID_VALUE;
+			alErrorDescr = "Call to load buffers with NULL, empty or mismatched arrays.";
+			Log.e(TAG, alErrorDescr);
+			return null;
+		}
+
+		final int outputRate = device.defaultOutputSampleRate;
+		final AudioBuffer[] targets = new AudioBuffer[bufferIds.length];
+		final ExecutorService executor;
+		synchronized (this) {
+			for (int i = 0; i < bufferIds.length; i++) {
+				targets[i] = reserveBufferData(bufferIds[i], buffers[i]);
+				if (targets[i] == null) {
+					for (int j = 0; j < i; j++) {
+						targets[j].loading = false;
+					}
+					return null;
+				}
 			}
+			if (loader == null) {
+				loader = createLoader();
+			}
+			executor = loader;
+		}
 
-			// TODO: This maybe can be optional
-			AudioUtilities.normalizeAudio(sampleData); // Make source at 100% volume
-			audioBuffer.data = sampleData;
+		final BufferLoad load = new BufferLoad(bufferIds.length);
+		for (int i = 0; i < targets.length; i++) {
+			final AudioBuffer target = targets[i];
+			final int format = formats[i];
+			final Object data = buffers[i];
+			final int frequency = frequencies[i];
+			executor.execute(() -> loadBufferData(load, target, format, data, frequency, outputRate));
+		}
+		return load;
+	}
 
-			// Create a new sound buffer object and track.
+	/**
+	 * Check a buffer can take new data and mark it loading.  Called holding the lock.
+	 *
+	 * @return The buffer, or null with the error set.
+	 */
+	AudioBuffer reserveBufferData(final int bufferId, final Object data) {
+		final AudioBuffer audioBuffer = buffers.get(bufferId);
+		if (audioBuffer == null) {
+			alErrorState = AL.AL_INVALID_NAME;
+			alErrorDescr = "The specified buffer name is not valid: " + bufferId;
+			Log.e(TAG, alErrorDescr);
+			return null;
+		}
+		if (audioBuffer.loading) {
+			alErrorState = AL.AL_INVALID_OPERATION;
+			alErrorDescr = "The buffer is still loading: " + bufferId;
+			Log.e(TAG, alErrorDescr);
+			return null;
+		}
+		// Refilled once unqueued, for streaming.  The mixer reads the buffer of an attached source
+		// without the lock, even an empty one, so it is never filled while attached.
+		if (audioBuffer.attachments > 0) {
+			alErrorState = AL.AL_INVALID_OPERATION;
+			alErrorDescr = "The buffer is attached to or queued on a source: " + bufferId;
+			Log.e(TAG, alErrorDescr);
+			return null;
+		}
+		if (data == null) {
+			alErrorState = AL.AL_INVALID_VALUE;
+			alErrorDescr = "The size parameter is not valid for the format specified, or the data is a NULL pointer.";
+			Log.e(TAG, alErrorDescr);
+			return null;
+		}
+		audioBuffer.loading = true;
+		return audioBuffer;
+	}
+
+	/**
+	 * Convert data for a reserved buffer into a staging copy, then publish it to the buffer under the lock.  Runs on the
+	 * calling thread for alBufferData and on a loader thread otherwise, the load is always counted down.
+	 */
+	void loadBufferData(final BufferLoad load, final AudioBuffer audioBuffer, final int format, final Object data, final int frequency, final int outputRate) {
+		AudioBuffer staging = audioBuffer.staging();
+		final SampleCache cache = sampleCache;
+		try {
+			final String key = (cache == null) ? null : SampleCache.key(staging, format, data, frequency, outputRate);
+			if (key != null && cache.load(key, staging)) {
+				// Converted by an earlier run
+			} else if (!convertBufferData(load, staging, format, data, frequency, outputRate)) {
+				staging = null;
+			} else if (key != null) {
+				cache.store(key, staging);
+			}
+		} catch (OutOfMemoryError ex) {
+			staging = null;
+			load.fail(AL.AL_OUT_OF_MEMORY, "There is not enough memory available to load the buffer: " + audioBuffer.id);
+		} catch (RuntimeException ex) {
+			staging = null;
+			load.fail(AL.AL_INVALID_VALUE, "The data is not valid for the format specified: " + ex);
+		} finally {
 			synchronized (this) {
-				buffers.put(bufferId, audioBuffer);
+				if (staging != null) {
+					audioBuffer.assign(staging);
+				}
+				audioBuffer.loading = false;
 			}
+			load.buffered();
+		}
+	}
+
+	/**
+	 * Decode, resample, normalize and store data into an unnamed staging buffer.  Touches nothing shared, so any
+	 * number of buffers convert in parallel.
+	 *
+	 * @return true once the staging buffer is filled, false with the load failed.
+	 */
+	static boolean convertBufferData(final BufferLoad load, final AudioBuffer staging, final int format, final Object buffer, final int frequency, final int outputRate) {
+		final AL param = AL.getEnum(format);
+		switch (param) {
+			case AL_FORMAT_MONO8:
+				staging.channels = 1;
+				staging.bits = 8;
+				break;
+			case AL_FORMAT_MONO16:
+				staging.channels = 1;
+				staging.bits = 16;
+				break;
+			case AL_FORMAT_MONO_FLOAT32:
+				staging.channels = 1;
+				staging.bits = 32;
+				break;
+			case AL_FORMAT_STEREO8:
+				staging.channels = 2;
+				staging.bits = 8;
+				break;
+			case AL_FORMAT_STEREO16:
+				staging.channels = 2;
+				staging.bits = 16;
+				break;
+			case AL_FORMAT_STEREO_FLOAT32:
+				staging.channels = 2;
+				staging.bits = 32;
+				break;
+			default:
+				load.fail(AL.AL_INVALID_ENUM, "The specified format does not exist or unhandled: " + param);
+				return false;
+		}
+		if (buffer instanceof WaveFile && ((WaveFile) buffer).playsInPlace(staging)) {
+			// Played from the mapping, paged in by the OS as the mixer reads it
+			final WaveFile wave = (WaveFile) buffer;
+			staging.frequency = frequency;
+			staging.size = wave.samples.remaining();
+			staging.rate = frequency;
+			SampleStorage.map(staging, wave.samples.asShortBuffer(), SampleStorage.PCM16_SCALE);
+			return true;
+		}
+		final Buffer samples = (buffer instanceof WaveFile)
+			? sampleView(((WaveFile) buffer).samples, staging.bits, ByteOrder.LITTLE_ENDIAN)
+			: sampleView(buffer, staging.bits, ByteOrder.nativeOrder());
+		if (samples == null) {
+			load.fail(AL.AL_INVALID_VALUE, "The data type can't hold the format specified: " + buffer.getClass().getSimpleName() + ", " + param);
+			return false;
+		}
+
+		float[] sampleData; // Re-sampled float data
+		final int rate = staging.nativeRate ? frequency : outputRate;
+		// Nearest is done while converting, the other resamplers run on the converted samples
+		final int convertRate = (staging.resampler == Resampler.POINT) ? rate : frequency;
+
+		// Fill the buffer
+		staging.frequency = frequency;
+		staging.size = samples.remaining() * (staging.bits / 8);
+		switch (staging.bits) {
+			case 8:
+				sampleData = AudioUtilities.resample8bit((ByteBuffer) samples, frequency, convertRate, staging.channels);
+				break;
+			case 16:
+				sampleData = AudioUtilities.resample16bit((ShortBuffer) samples, frequency, convertRate, staging.channels);
+				break;
+			default:
+				sampleData = AudioUtilities.resampleFloat((FloatBuffer) samples, frequency, convertRate, staging.channels);
+				break;
+		}
+
+		if (convertRate != rate) {
+			sampleData = AudioUtilities.resample(sampleData, frequency, rate, staging.resampler, staging.channels);
+		}
+
+		// TODO: This maybe can be optional
+		AudioUtilities.normalizeAudio(sampleData); // Make source at 100% volume
+		staging.rate = rate;
+		staging.store(sampleData);
+		return true;
+	}
+
+	/**
+	 * View alBufferData data as samples of the format's size, read in place.  Data already typed (ShortBuffer,
+	 * FloatBuffer) keeps its own byte order, bytes (byte[], heap or direct ByteBuffer) are read in the order given.
+	 *
+	 * @param data  byte[], ByteBuffer, ShortBuffer or FloatBuffer, buffers from their position to their limit
+	 * @param bits  8, 16 or 32 (float)
+	 * @param order Byte order of 16 and 32 bit samples held as bytes
+	 * @return ByteBuffer (8 bit), ShortBuffer (16 bit) or FloatBuffer (32 bit) positioned at 0, null if the data
+	 * can't hold samples of that size
+	 */
+	static Buffer sampleView(final Object data, final int bits, final ByteOrder order) {
+		final ByteBuffer bytes;
+		if (data instanceof byte[]) {
+			bytes = ByteBuffer.wrap((byte[]) data);
+		} else if (data instanceof ByteBuffer) {
+			bytes = ((ByteBuffer) data).slice(); // Own position and order, the caller's are left alone
+		} else if (data instanceof ShortBuffer) {
+			return (bits == 16) ? ((ShortBuffer) data).slice() : null;
+		} else if (data instanceof FloatBuffer) {
+			return (bits == 32) ? ((FloatBuffer) data).slice() : null;
 		} else {
-			alErrorState = AL.AL_INVALID_VALUE;
-			alErrorDescr = "The size parameter is not valid for the format specified, the buffer is in use, or the data is a NULL pointer.";
+			return null;
+		}
+		switch (bits) {
+			case 8:
+				return bytes;
+			case 16:
+				return bytes.order(order).asShortBuffer();
+			default:
+				return bytes.order(order).asFloatBuffer();
+		}
+	}
+
+	/**
+	 * @return Executor of the loader threads, daemons that end after a few idle seconds.
+	 */
+	static ExecutorService createLoader() {
+		final AtomicInteger count = new AtomicInteger();
+		final ThreadPoolExecutor executor = new ThreadPoolExecutor(LOADER_THREADS, LOADER_THREADS,
+			LOADER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+				final Thread thread = new Thread(runnable, "AndroidAL loader " + count.incrementAndGet());
+				thread.setDaemon(true);
+				thread.setPriority(Thread.NORM_PRIORITY - 1); // Behind the render and mixing threads
+				return thread;
+			});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/**
+	 * Sets the integer value of a buffer parameter.
+	 *
+	 * <p>AL_SAMPLE_STORAGE_AAL selects how the samples of the next alBufferData are kept: AL_STORAGE_FLOAT_AAL (default),
+	 * AL_STORAGE_PCM16_AAL at half the memory or AL_STORAGE_IMA4_AAL (IMA ADPCM) at about an eighth.  Samples already in
+	 * the buffer are kept as they are.</p>
+	 *
+	 * <p>AL_NATIVE_RATE_AAL set to AL_TRUE makes the next alBufferData keep the data at its own frequency instead of resampling
+	 * it to the output rate, the mixer folds the rate into the source's pitch.  Loading is a conversion without resampling and
+	 * the buffer takes no more frames than the data.</p>
+	 *
+	 * <p>AL_BUFFER_RESAMPLER_AAL selects the resampler, by AL_SOURCE_RESAMPLER_SOFT index, the next alBufferData converts to the
+	 * output rate with.  Nearest (0) by default, the sinc resamplers avoid aliasing at the cost of load time.</p>
+	 *
+	 * @param bufferId the buffer to modify
+	 * @param param    the parameter to modify
+	 * @param value    the parameter value
+	 */
+	public void alBufferi(final int bufferId, final AL param, final int value) {
+		final AudioBuffer buffer;
+		synchronized (this) {
+			buffer = buffers.get(bufferId);
+		}
+		if (buffer == null) {
+			alErrorState = AL.AL_INVALID_NAME;
+			alErrorDescr = "The specified buffer name is not valid: " + bufferId;
 			Log.e(TAG, alErrorDescr);
+			return;
 		}
-		// Not implemented: AL_OUT_OF_MEMORY - There is not enough memory available to create this buffer.
+		switch (param) {
+			case AL_SAMPLE_STORAGE_AAL:
+				final SampleStorage storage = SampleStorage.of(value);
+				if (storage == null) {
+					alErrorState = AL.AL_INVALID_VALUE;
+					alErrorDescr = "The specified sample storage is not valid: " + value;
+					Log.e(TAG, alErrorDescr);
+					break;
+				}
+				buffer.storageRequested = storage;
+				break;
+			case AL_NATIVE_RATE_AAL:
+				if (value != AL.AL_TRUE.value() && value != AL.AL_FALSE.value()) {
+					alErrorState = AL.AL_INVALID_VALUE;
+					alErrorDescr = "AL_NATIVE_RATE_AAL must be AL_TRUE or AL_FALSE: " + value;
+					Log.e(TAG, alErrorDescr);
+					break;
+				}
+				buffer.nativeRate = value == AL.AL_TRUE.value();
+				break;
+			case AL_BUFFER_RESAMPLER_AAL:
+				if (value < 0 || value >= Resampler.ALL.length) {
+					alErrorState = AL.AL_INVALID_VALUE;
+					alErrorDescr = "The specified resampler is not valid: " + value;
+					Log.e(TAG, alErrorDescr);
+					break;
+				}
+				buffer.resampler = Resampler.ALL[value];
+				break;
+			default:
+				alErrorState = AL.AL_INVALID_ENUM;
+				alErrorDescr = "The specified parameter does not exist or unhandled: " + param;
+				Log.e(TAG, alErrorDescr);
+				break;
+		}
+	}
+
+	/**
+	 * alBufferi taking the parameter as its OpenAL value, decoded without allocating.
+	 */
+	public void alBufferi(final int bufferId, final int param, final int value) {
+		alBufferi(bufferId, AL.getEnum(param), value);
 	}
 
 	/**
@@ -329,16 +866,11 @@ public class AndroidAL {
 	 */
 	@SuppressLint("DefaultLocale")
 	public void alGetBufferi(final int bufferId, final AL param, final int[] value) {
-		if (!buffers.containsKey(bufferId)) {
-			// Build the buffer
-			AudioBuffer buffer = buffers.get(bufferId);
-			if (buffer == null) {
-				alErrorState = AL.AL_INVALID_NAME;
-				alErrorDescr = "The specified buffer name is not valid: " + bufferId;
-				Log.e(TAG, alErrorDescr);
-				return;
-			}
-
+		final AudioBuffer buffer;
+		synchronized (this) {
+			buffer = buffers.get(bufferId);
+		}
+		if (buffer != null) {
 			switch (param) {
 				case AL_FREQUENCY:
 					value[0] = buffer.frequency;
@@ -352,6 +884,16 @@ public class AndroidAL {
 				case AL_SIZE:
 					value[0] = buffer.size;
 					break;
+				case AL_SAMPLE_STORAGE_AAL:
+					// A mapped buffer reports it plays in place, the requested storage applies to its next data
+					value[0] = (buffer.storage == SampleStorage.MAPPED ? buffer.storage : buffer.storageRequested).token.value();
+					break;
+				case AL_NATIVE_RATE_AAL:
+					value[0] = buffer.nativeRate ? AL.AL_TRUE.value() : AL.AL_FALSE.value();
+					break;
+				case AL_BUFFER_RESAMPLER_AAL:
+					value[0] = buffer.resampler.ordinal();
+					break;
 				//case AL_DATA:
 				default:
 					alErrorState = AL.AL_INVALID_ENUM;
@@ -378,15 +920,25 @@ public class AndroidAL {
 	public void alGenSources(final int[] sourceIds) {
 		if (sourceIds != null && sourceIds.length > 0) {
 			for (int i = 0; i < sourceIds.length; i++) {
-				sourceIds[i] = ++AudioContext.nextSourceId;
-				context.sources.put(sourceIds[i], new AudioSource(sourceIds[i]));
+				final int sourceId = context.sources.reserve();
+				if (sourceId == 0) {
+					alErrorState = AL.AL_OUT_OF_MEMORY;
+					alErrorDescr = "There is not enough memory available to generate all the sources requested.";
+					Log.e(TAG, alErrorDescr);
+					break;
+				}
+				// The id's index is also the slot of the mixer's copy
+				final AudioSource source = new AudioSource(sourceId, HandleTable.index(sourceId));
+				context.sources.set(sourceId, source);
+				audioMixer.commands.sourceAdd(source);
+				sourceIds[i] = sourceId;
 			}
+			audioMixer.commands.publish();
 		} else {
 			alErrorState = AL.AL_INVALID_VALUE;
 			alErrorDescr = "The source array isn't large enough to hold the number of buffers requested.";
 			Log.e(TAG, alErrorDescr);
 		}
-		// Not implemented: AL_OUT_OF_MEMORY - There is not enough memory available to generate all the sources requested.
 	}
 
 	/**
@@ -396,16 +948,18 @@ public class AndroidAL {
 	 */
 	public void alDeleteSources(final int[] sourceIds) {
 		if (sourceIds != null && sourceIds.length > 0) {
-			for (int id = 0; id < sourceIds.length; id++) {
-				if (context.sources.containsKey(id)) {
-					context.sources.remove(id);
-				} else {
+			for (final int id : sourceIds) {
+				final AudioSource source = context.sources.remove(id);
+				if (source == null) {
 					alErrorState = AL.AL_INVALID_NAME;
 					alErrorDescr = "A source name is invalid: " + id;
 					Log.i(TAG, alErrorDescr + ": NOTE: some buffers deleted.");
-					return;
+					break;
 				}
+				detachBuffers(source);
+				audioMixer.commands.source(CommandRing.SOURCE_REMOVE, source.slot);
 			}
+			audioMixer.commands.publish();
 		} else {
 			alErrorState = AL.AL_INVALID_VALUE;
 			alErrorDescr = "Call to delete sources with NULL or empty request.";
@@ -415,75 +969,160 @@ public class AndroidAL {
 	}
 
 	/**
-	 * Verifies whether the specified object name is a source name.
+	 * Queues buffers onto a source, they are played in sequence after the buffers already queued,
+	 * without a gap between them.  A source with buffers queued is AL_STREAMING.
 	 *
-	 * @param sourceId the source to query
-	 * @return AL_TRUE if valid and AL_FALSE if not.
+	 * @param sourceId  the source to queue the buffers on
+	 * @param bufferIds the buffers to queue, in play order
 	 */
-	public final boolean alIsSource(final int sourceId) {
-		return context.sources.containsKey(sourceId);
+	public void alSourceQueueBuffers(final int sourceId, final int[] bufferIds) {
+		final AudioSource source = context.sources.get(sourceId);
+		if (source == null) {
+			alErrorState = AL.AL_INVALID_NAME;
+			alErrorDescr = "source is not defined or null.";
+			Log.e(TAG, alErrorDescr);
+			return;
+		}
+		if (bufferIds == null) {
+			alErrorState = AL.AL_INVALID_VALUE;
+			alErrorDescr = "Call to queue buffers with NULL request.";
+			Log.e(TAG, alErrorDescr);
+			return;
+		}
+		if (source.sourceType == AL.AL_STATIC) {
+			alErrorState = AL.AL_INVALID_OPERATION;
+			alErrorDescr = "The source has a buffer attached with AL_BUFFER: " + sourceId;
+			Log.e(TAG, alErrorDescr);
+			return;
+		}
+
+		final AudioBuffer[] queued = new AudioBuffer[bufferIds.length];
+		synchronized (this) {
+			// Nothing is queued unless every buffer can be
+			for (int i = 0; i < bufferIds.length; i++) {
+				queued[i] = buffers.get(bufferIds[i]);
+				if (queued[i] == null) {
+					alErrorState = AL.AL_INVALID_NAME;
+					alErrorDescr = "A buffer name is invalid: " + bufferIds[i];
+					Log.e(TAG, alErrorDescr);
+					return;
+				}
+				if (queued[i].loading) {
+					alErrorState = AL.AL_INVALID_OPERATION;
+					alErrorDescr = "A buffer is still loading: " + bufferIds[i];
+					Log.e(TAG, alErrorDescr);
+					return;
+				}
+				if (queued[i].frames == 0) {
+					alErrorState = AL.AL_INVALID_VALUE;
+					alErrorDescr = "A buffer has no data: " + bufferIds[i];
+					Log.e(TAG, alErrorDescr);
+					return;
+				}
+				// The mixer reads across queued buffers at one rate and channel layout
+				final AudioBuffer head = (source.queue.size() > 0) ? source.queue.get(source.queue.first) : queued[0];
+				if (queued[i].rate != head.rate || queued[i].channels != head.channels) {
+					alErrorState = AL.AL_INVALID_OPERATION;
+					alErrorDescr = "A buffer's sample rate or format differs from the buffers queued: " + bufferIds[i];
+					Log.e(TAG, alErrorDescr);
+					return;
+				}
+			}
+			for (final AudioBuffer buffer : queued) {
+				source.queue.add(buffer);
+				buffer.attachments++;
+			}
+		}
+		if (queued.length == 0) { return; }
+
+		source.sourceType = AL.AL_STREAMING;
+		for (final AudioBuffer buffer : queued) {
+			audioMixer.commands.sourceQueue(source.slot, buffer);
+		}
+		audioMixer.commands.publish();
 		// Not implemented: AL_INVALID_OPERATION - There is no current context.
 	}
 
 	/**
-	 * Sets the float value of a source parameter.
+	 * Removes processed buffers from the front of a source's queue, the buffers can then be
+	 * refilled with alBufferData and queued again.
 	 *
-	 * @param sourceId the source to modify
-	 * @param param    the parameter to modify.
-	 * @param value    the parameter value
+	 * @param sourceId  the source to unqueue the buffers from
+	 * @param bufferIds receives the names of the buffers unqueued, its length is the number of buffers to unqueue
 	 */
-	public void alSourcef(final int sourceId, final AL param, final float value) {
-		if (context.sources.containsKey(sourceId)) {
-			AudioSource source = context.sources.get(sourceId);
-			if (source == null) {
-				alErrorState = AL.AL_INVALID_NAME;
-				alErrorDescr = "The specified source name is not valid: " + sourceId;
-				Log.e(TAG, alErrorDescr);
-				return;
+	public void alSourceUnqueueBuffers(final int sourceId, final int[] bufferIds) {
+		final AudioSource source = context.sources.get(sourceId);
+		if (source == null) {
+			alErrorState = AL.AL_INVALID_NAME;
+			alErrorDescr = "source is not defined or null.";
+			Log.e(TAG, alErrorDescr);
+			return;
+		}
+		if (bufferIds == null || bufferIds.length > source.buffersProcessed()) {
+			alErrorState = AL.AL_INVALID_VALUE;
+			alErrorDescr = "Not that many buffers have been processed: " + ((bufferIds == null) ? "NULL" : bufferIds.length);
+			Log.e(TAG, alErrorDescr);
+			return;
+		}
+		if (bufferIds.length == 0) { return; }
+
+		final BufferQueue queue = source.queue;
+		synchronized (this) {
+			for (int i = 0; i < bufferIds.length; i++) {
+				final AudioBuffer buffer = queue.get(queue.first + i);
+				bufferIds[i] = buffer.id;
+				buffer.attachments--;
 			}
+		}
+		queue.removeFirst(bufferIds.length);
+		audioMixer.commands.sourceUnqueue(source.slot, bufferIds.length);
+		audioMixer.commands.publish();
+		// Not implemented: AL_INVALID_OPERATION - There is no current context.
+	}
 
-			switch (param) {
-				case AL_PITCH:
-					source.pitch = value;
-					break;
-				case AL_GAIN:
-					if (value > 0) {
-						source.gain = value;
-					} else {
-						alErrorState = AL.AL_INVALID_VALUE;
-						alErrorDescr = "The value parameter is invalid: " + value;
-						Log.e(TAG, alErrorDescr);
-					}
-					break;
-				case AL_MIN_GAIN:
-					source.gainMin = value;
-					break;
-				case AL_MAX_GAIN:
-					source.gainMax = value;
-					break;
-				case AL_MAX_DISTANCE:
-					source.maxDistance = value;
-					break;
-				case AL_ROLLOFF_FACTOR:
-					source.rollOffFactor = value;
-					break;
-				case AL_CONE_OUTER_GAIN:
-					source.coneOuterGain = value;
-					break;
-				case AL_CONE_INNER_ANGLE:
-					source.coneInnerAngle = value;
-					break;
-				case AL_CONE_OUTER_ANGLE:
-					source.coneOuterAngle = value;
-					break;
-				case AL_REFERENCE_DISTANCE:
-					source.referenceDistance = value;
-					break;
-				default:
-					alErrorState = AL.AL_INVALID_ENUM;
-					alErrorDescr = "The specified parameter does not exist or unhandled: " + param;
-					Log.e(TAG, alErrorDescr);
-					break;
+	/**
+	 * Release the buffers attached to or queued on a source and empty its queue.
+	 */
+	synchronized void detachBuffers(final AudioSource source) {
+		final BufferQueue queue = source.queue;
+		for (int number = queue.first; number != queue.end; number++) {
+			queue.get(number).attachments--;
+		}
+		queue.clear();
+	}
+
+	/**
+	 * Verifies whether the specified object name is a source name.
+	 *
+	 * @param sourceId the source to query
+	 * @return AL_TRUE if valid and AL_FALSE if not.
+	 */
+	public final boolean alIsSource(final int sourceId) {
+		return context.sources.valid(sourceId);
+		// Not implemented: AL_INVALID_OPERATION - There is no current context.
+	}
+
+	/**
+	 * Sets the float value of a source parameter.
+	 *
+	 * @param sourceId the source to modify
+	 * @param param    the parameter to modify.
+	 * @param value    the parameter value
+	 */
+	public void alSourcef(final int sourceId, final AL param, final float value) {
+		final AudioSource source = context.sources.get(sourceId);
+		if (source != null) {
+			if (param == AL.AL_GAIN && !(value > 0)) {
+				alErrorState = AL.AL_INVALID_VALUE;
+				alErrorDescr = "The value parameter is invalid: " + value;
+				Log.e(TAG, alErrorDescr);
+			} else if (source.setFloat(param, value)) {
+				audioMixer.commands.sourceFloat(source.slot, param, value);
+				audioMixer.commands.publish();
+			} else {
+				alErrorState = AL.AL_INVALID_ENUM;
+				alErrorDescr = "The specified parameter does not exist or unhandled: " + param;
+				Log.e(TAG, alErrorDescr);
 			}
 		} else {
 			alErrorState = AL.AL_INVALID_OPERATION;
@@ -492,6 +1131,13 @@ public class AndroidAL {
 		}
 	}
 
+	/**
+	 * alSourcef taking the parameter as its OpenAL value, decoded without allocating.
+	 */
+	public void alSourcef(final int sourceId, final int param, final float value) {
+		alSourcef(sourceId, AL.getEnum(param), value);
+	}
+
 	/**
 	 * Sets the 3D float values of a source parameter.
 	 *
@@ -501,36 +1147,15 @@ public class AndroidAL {
 	 * @param v3    the third value
 	 */
 	public void alSource3f(final int sourceId, final AL param, final float v1, final float v2, final float v3) {
-		if (context.sources.containsKey(sourceId)) {
-			AudioSource source = context.sources.get(sourceId);
-			if (source == null) {
-				alErrorState = AL.AL_INVALID_NAME;
-				alErrorDescr = "The specified source name is not valid: " + sourceId;
+		final AudioSource source = context.sources.get(sourceId);
+		if (source != null) {
+			if (source.setVector(param, v1, v2, v3)) {
+				audioMixer.commands.sourceVector(source.slot, param, v1, v2, v3);
+				audioMixer.commands.publish();
+			} else {
+				alErrorState = AL.AL_INVALID_ENUM;
+				alErrorDescr = "The specified parameter does not exist or unhandled: " + param;
 				Log.e(TAG, alErrorDescr);
-				return;
-			}
-
-			switch (param) {
-				case AL_POSITION:
-					source.position[0] = v1;
-					source.position[1] = v2;
-					source.position[2] = v3;
-					break;
-				case AL_VELOCITY:
-					source.velocity[0] = v1;
-					source.velocity[1] = v2;
-					source.velocity[2] = v3;
-					break;
-				case AL_DIRECTION:
-					source.direction[0] = v1;
-					source.direction[1] = v2;
-					source.direction[2] = v3;
-					break;
-				default:
-					alErrorState = AL.AL_INVALID_ENUM;
-					alErrorDescr = "The specified parameter does not exist or unhandled: " + param;
-					Log.e(TAG, alErrorDescr);
-					break;
 			}
 		} else {
 			alErrorState = AL.AL_INVALID_OPERATION;
@@ -541,6 +1166,13 @@ public class AndroidAL {
 		// Not implemented: AL_INVALID_OPERATION - There is no current context.
 	}
 
+	/**
+	 * alSource3f taking the parameter as its OpenAL value, decoded without allocating.
+	 */
+	public void alSource3f(final int sourceId, final int param, final float v1, final float v2, final float v3) {
+		alSource3f(sourceId, AL.getEnum(param), v1, v2, v3);
+	}
+
 	/**
 	 * Sets the 3 dimensional values of a source parameter.
 	 *
@@ -555,30 +1187,15 @@ public class AndroidAL {
 			return;
 		}
 
-		if (context.sources.containsKey(sourceId)) {
-			AudioSource source = context.sources.get(sourceId);
-			if (source == null) {
-				alErrorState = AL.AL_INVALID_NAME;
-				alErrorDescr = "The specified source name is not valid: " + sourceId;
+		final AudioSource source = context.sources.get(sourceId);
+		if (source != null) {
+			if (source.setVector(param, values[0], values[1], values[2])) {
+				audioMixer.commands.sourceVector(source.slot, param, values[0], values[1], values[2]);
+				audioMixer.commands.publish();
+			} else {
+				alErrorState = AL.AL_INVALID_ENUM;
+				alErrorDescr = "The specified parameter does not exist or unhandled: " + param;
 				Log.e(TAG, alErrorDescr);
-				return;
-			}
-
-			switch (param) {
-				case AL_DIRECTION:
-					System.arraycopy(values, 0, source.direction, 0, 3);
-					break;
-				case AL_POSITION:
-					System.arraycopy(values, 0, source.position, 0, 3);
-					break;
-				case AL_VELOCITY:
-					System.arraycopy(values, 0, source.velocity, 0, 3);
-					break;
-				default:
-					alErrorState = AL.AL_INVALID_ENUM;
-					alErrorDescr = "The specified parameter does not exist or unhandled: " + param;
-					Log.e(TAG, alErrorDescr);
-					break;
 			}
 		} else {
 			alErrorState = AL.AL_INVALID_OPERATION;
@@ -589,36 +1206,106 @@ public class AndroidAL {
 	}
 
 	/**
-	 * Sets the integer value of a source parameter.
+	 * alSourcefv taking the parameter as its OpenAL value, decoded without allocating.
+	 */
+	public void alSourcefv(final int sourceId, final int param, final float[] values) {
+		alSourcefv(sourceId, AL.getEnum(param), values);
+	}
+
+	/**
+	 * Sets the position, velocity and direction of a number of sources in one call, for syncing
+	 * emitters with the scene every frame.  The mixer picks up the whole batch in the same pass,
+	 * batches larger than the command ring ({@value CommandRing#CAPACITY} sources) are split.
+	 * If any source name is invalid no source is modified.
 	 *
-	 * @param sourceId the source to modify
-	 * @param param    the parameter to modify.
-	 * @param value    the parameter value
+	 * @param sourceIds  the sources to modify
+	 * @param transforms {@link #TRANSFORM_STRIDE} floats per source in the order of sourceIds:
+	 *                   position x, y, z, velocity x, y, z and direction x, y, z
 	 */
-	public void alSourcei(final int sourceId, final AL param, final int value) {
-		if (context.sources.containsKey(sourceId)) {
-			AudioSource source = context.sources.get(sourceId);
-			if (source == null) {
+	public void alSourceTransformsAAL(final int[] sourceIds, final float[] transforms) {
+		if (sourceIds == null || transforms == null || transforms.length < sourceIds.length * TRANSFORM_STRIDE) {
+			alErrorState = AL.AL_INVALID_VALUE;
+			alErrorDescr = "The transform array isn't large enough for the number of sources.";
+			Log.e(TAG, alErrorDescr);
+			return;
+		}
+
+		final HandleTable<AudioSource> sources = context.sources;
+		for (final int id : sourceIds) {
+			if (!sources.valid(id)) {
 				alErrorState = AL.AL_INVALID_NAME;
-				alErrorDescr = "The specified source name is not valid: " + sourceId;
+				alErrorDescr = "A source name is invalid: " + id;
 				Log.e(TAG, alErrorDescr);
 				return;
 			}
+		}
+
+		final CommandRing commands = audioMixer.commands;
+		for (int i = 0; i < sourceIds.length; i++) {
+			if (i % CommandRing.CAPACITY == 0) {
+				commands.reserve(Math.min(CommandRing.CAPACITY, sourceIds.length - i));
+			}
+			final AudioSource source = sources.get(sourceIds[i]);
+			source.setTransform(transforms, i * TRANSFORM_STRIDE);
+			commands.sourceTransform(source.slot, transforms, i * TRANSFORM_STRIDE);
+		}
+		commands.publish();
+	}
 
+	/**
+	 * Sets the integer value of a source parameter.
+	 *
+	 * @param sourceId the source to modify
+	 * @param param    the parameter to modify.
+	 * @param value    the parameter value
+	 */
+	public void alSourcei(final int sourceId, final AL param, final int value) {
+		final AudioSource source = context.sources.get(sourceId);
+		if (source != null) {
 			switch (param) {
 				case AL_BUFFER:
+					final AudioBuffer buffer;
+					synchronized (this) {
+						buffer = buffers.get(value);
+						if (buffer == null && value != 0) {
+							alErrorState = AL.AL_INVALID_VALUE;
+							alErrorDescr = "The specified buffer name is not valid: " + value;
+							Log.e(TAG, alErrorDescr);
+							break;
+						}
+						if (buffer != null && buffer.loading) {
+							alErrorState = AL.AL_INVALID_OPERATION;
+							alErrorDescr = "The buffer is still loading: " + value;
+							Log.e(TAG, alErrorDescr);
+							break;
+						}
+						// Replaces the queue, a streaming source becomes static
+						detachBuffers(source);
+						if (buffer != null) {
+							source.queue.add(buffer);
+							buffer.attachments++;
+						}
+					}
 					source.bufferId = value;
+					source.sourceType = (buffer != null) ? AL.AL_STATIC : AL.AL_UNDETERMINED;
+					audioMixer.commands.sourceBuffer(source.slot, buffer);
+					audioMixer.commands.publish();
 					break;
 				case AL_SOURCE_STATE:
-					source.state = AL.getEnum(value);
+					changeSourceState(source, AL.getEnum(value), false);
 					break;
-				case AL_LOOPING:
-					source.looping = (value == 1);
+				case AL_SOURCE_RESAMPLER_SOFT:
+					if (value < 0 || value >= Resampler.ALL.length) {
+						alErrorState = AL.AL_INVALID_VALUE;
+						alErrorDescr = "The specified resampler is not valid: " + value;
+						Log.e(TAG, alErrorDescr);
+						break;
+					}
+					Resampler.ALL[value].prepare(); // Tables are built here, never on the mixing thread
+					setSourceInt(source, param, value);
 					break;
 				default:
-					alErrorState = AL.AL_INVALID_ENUM;
-					alErrorDescr = "The specified parameter does not exist or unhandled: " + param;
-					Log.e(TAG, alErrorDescr);
+					setSourceInt(source, param, value);
 					break;
 			}
 		} else {
@@ -628,6 +1315,27 @@ public class AndroidAL {
 		}
 	}
 
+	/**
+	 * alSourcei taking the parameter as its OpenAL value, decoded without allocating.
+	 */
+	public void alSourcei(final int sourceId, final int param, final int value) {
+		alSourcei(sourceId, AL.getEnum(param), value);
+	}
+
+	/**
+	 * Set a plain integer source parameter and hand it to the mixer, AL_INVALID_ENUM if the source has no such parameter.
+	 */
+	void setSourceInt(final AudioSource source, final AL param, final int value) {
+		if (source.setInt(param, value)) {
+			audioMixer.commands.sourceInt(source.slot, param, value);
+			audioMixer.commands.publish();
+		} else {
+			alErrorState = AL.AL_INVALID_ENUM;
+			alErrorDescr = "The specified parameter does not exist or unhandled: " + param;
+			Log.e(TAG, alErrorDescr);
+		}
+	}
+
 	/**
 	 * Returns the float value of the specified source parameter.
 	 *
@@ -643,15 +1351,8 @@ public class AndroidAL {
 			return;
 		}
 
-		if (context.sources.containsKey(sourceId)) {
-			AudioSource source = context.sources.get(sourceId);
-			if (source == null) {
-				alErrorState = AL.AL_INVALID_NAME;
-				alErrorDescr = "The specified source name is not valid: " + sourceId;
-				Log.e(TAG, alErrorDescr);
-				return;
-			}
-
+		final AudioSource source = context.sources.get(sourceId);
+		if (source != null) {
 			switch (param) {
 				case AL_PITCH:
 					value[0] = source.pitch;
@@ -697,6 +1398,13 @@ public class AndroidAL {
 		// Not implemented: AL_INVALID_OPERATION - There is no current context.
 	}
 
+	/**
+	 * alGetSourcef taking the parameter as its OpenAL value, decoded without allocating.
+	 */
+	public void alGetSourcef(final int sourceId, final int param, final float[] value) {
+		alGetSourcef(sourceId, AL.getEnum(param), value);
+	}
+
 	/**
 	 * Returns the integer value of the specified source parameter.
 	 *
@@ -712,15 +1420,8 @@ public class AndroidAL {
 			return;
 		}
 
-		if (context.sources.containsKey(sourceId)) {
-			AudioSource source = context.sources.get(sourceId);
-			if (source == null) {
-				alErrorState = AL.AL_INVALID_NAME;
-				alErrorDescr = "The specified source name is not valid: " + sourceId;
-				Log.e(TAG, alErrorDescr);
-				return;
-			}
-
+		final AudioSource source = context.sources.get(sourceId);
+		if (source != null) {
 			switch (param) {
 				case AL_BUFFER:
 					value[0] = source.bufferId;
@@ -729,10 +1430,20 @@ public class AndroidAL {
 					value[0] = source.sourceRelative ? AL.AL_TRUE.value() : AL.AL_FALSE.value();
 					break;
 				case AL_SOURCE_STATE:
-					value[0] = source.state.value();
+					value[0] = source.currentState().value();
+					break;
+				case AL_SOURCE_RESAMPLER_SOFT:
+					value[0] = source.resampler.ordinal();
+					break;
+				case AL_SOURCE_TYPE:
+					value[0] = source.sourceType.value();
 					break;
-				case AL_BUFFERS_PROCESSED:
 				case AL_BUFFERS_QUEUED:
+					value[0] = source.queue.size();
+					break;
+				case AL_BUFFERS_PROCESSED:
+					value[0] = source.buffersProcessed();
+					break;
 				default:
 					alErrorState = AL.AL_INVALID_ENUM;
 					alErrorDescr = "The specified parameter does not exist or unhandled: " + param;
@@ -747,6 +1458,122 @@ public class AndroidAL {
 		// Not implemented: AL_INVALID_OPERATION - There is no current context.
 	}
 
+	/**
+	 * alGetSourcei taking the parameter as its OpenAL value, decoded without allocating.
+	 */
+	public void alGetSourcei(final int sourceId, final int param, final int[] value) {
+		alGetSourcei(sourceId, AL.getEnum(param), value);
+	}
+
+	/**
+	 * Returns the state, and optionally the playback offset, of a number of sources in one call.
+	 * Values come from the snapshot the mixer publishes at the end of every pass, so they are
+	 * consistent with each other, state changes made since then are reported as made.
+	 * If any source name is invalid the arrays are left partly filled.
+	 *
+	 * @param sourceIds the sources to query
+	 * @param states    receives the state (AL_INITIAL, AL_PLAYING, …) of each source
+	 * @param offsets   receives the playback position of each source in sample frames (AL_SAMPLE_OFFSET), may be null
+	 */
+	public void alGetSourceStatesAAL(final int[] sourceIds, final int[] states, final int[] offsets) {
+		if (sourceIds == null || states == null || states.length < sourceIds.length
+			|| (offsets != null && offsets.length < sourceIds.length)) {
+			alErrorState = AL.AL_INVALID_VALUE;
+			alErrorDescr = "The state arrays aren't large enough for the number of sources.";
+			Log.e(TAG, alErrorDescr);
+			return;
+		}
+
+		final int invalid = readSourceStates(sourceIds, sourceIds.length, states, offsets);
+		if (invalid >= 0) {
+			alErrorState = AL.AL_INVALID_NAME;
+			alErrorDescr = "A source name is invalid: " + sourceIds[invalid];
+			Log.e(TAG, alErrorDescr);
+		}
+	}
+
+	/**
+	 * Returns the state, and optionally the playback offset, of every source of the current context
+	 * in one call, see {@link #alGetSourceStatesAAL(int[], int[], int[])}.
+	 *
+	 * @param sourceIds receives the name of each source
+	 * @param states    receives the state of each source
+	 * @param offsets   receives the playback position of each source in sample frames, may be null
+	 * @return the number of sources returned, 0 if the arrays are too small
+	 */
+	public int alGetAllSourceStatesAAL(final int[] sourceIds, final int[] states, final int[] offsets) {
+		final HandleTable<AudioSource> sources = context.sources;
+		final int count = sources.size();
+		if (sourceIds == null || states == null || sourceIds.length < count || states.length < count
+			|| (offsets != null && offsets.length < count)) {
+			alErrorState = AL.AL_INVALID_VALUE;
+			alErrorDescr = "The state arrays aren't large enough for the number of sources: " + count;
+			Log.e(TAG, alErrorDescr);
+			return 0;
+		}
+
+		int written = 0;
+		for (int index = 0; index < sources.used; index++) {
+			final AudioSource source = sources.valueAt(index);
+			if (source != null) {
+				sourceIds[written++] = source.id;
+			}
+		}
+		readSourceStates(sourceIds, written, states, offsets);
+		return written;
+	}
+
+	/**
+	 * Read the mixer's snapshot for source ids, retrying when the mixer publishes meanwhile.
+	 * A source the snapshot is behind on reports the state set through the API, and offset 0 if it
+	 * was rewound since.
+	 *
+	 * @return Index of the first invalid source id, -1 if all are valid.
+	 */
+	int readSourceStates(final int[] sourceIds, final int count, final int[] states, final int[] offsets) {
+		final HandleTable<AudioSource> sources = context.sources;
+		final AtomicInteger snapshotVersion = audioMixer.pool.snapshotVersion;
+		for (;;) {
+			final int version = snapshotVersion.get();
+			if ((version & 1) != 0) {
+				Thread.yield(); // The mixer is publishing
+				continue;
+			}
+
+			final AtomicLongArray snapshot = audioMixer.pool.snapshot;
+			for (int i = 0; i < count; i++) {
+				final AudioSource source = sources.get(sourceIds[i]);
+				if (source == null) { return i; }
+				final int slot = source.slot;
+				long position = 0;
+				long status = 0;
+				if (slot * 2 + 1 < snapshot.length()) {
+					position = snapshot.get(slot * 2);
+					status = snapshot.get(slot * 2 + 1);
+				}
+
+				final boolean published = (int) (position >>> 32) == source.id;
+				final int serial = (int) (status >>> 32);
+				final int state;
+				int offset = 0;
+				if (published && serial == source.stateSerial) {
+					state = (int) status;
+					offset = (int) position;
+				} else {
+					state = source.state.value(); // Changed since the snapshot
+					if (published && serial - source.rewindSerial >= 0) {
+						offset = (int) position; // Not rewound since
+					}
+				}
+				states[i] = state;
+				if (offsets != null) {
+					offsets[i] = offset;
+				}
+			}
+			if (snapshotVersion.get() == version) { return -1; }
+		}
+	}
+
 	/**
 	 * Returns float values of a source parameter.
 	 *
@@ -761,15 +1588,8 @@ public class AndroidAL {
 			return;
 		}
 
-		if (context.sources.containsKey(sourceId)) {
-			AudioSource source = context.sources.get(sourceId);
-			if (source == null) {
-				alErrorState = AL.AL_INVALID_NAME;
-				alErrorDescr = "The specified source name is not valid: " + sourceId;
-				Log.e(TAG, alErrorDescr);
-				return;
-			}
-
+		final AudioSource source = context.sources.get(sourceId);
+		if (source != null) {
 			switch (param) {
 				case AL_DIRECTION:
 					System.arraycopy(source.direction, 0, values, 0, 3);
@@ -794,6 +1614,13 @@ public class AndroidAL {
 		// Not implemented: AL_INVALID_OPERATION - There is no current context.
 	}
 
+	/**
+	 * alGetSourcefv taking the parameter as its OpenAL value, decoded without allocating.
+	 */
+	public void alGetSourcefv(final int sourceId, final int param, final float[] values) {
+		alGetSourcefv(sourceId, AL.getEnum(param), values);
+	}
+
 	/**
 	 * Sets the source state to AL_PLAYING.
 	 *
@@ -806,19 +1633,9 @@ public class AndroidAL {
 	 * @param sourceId the source to play
 	 */
 	public void alSourcePlay(final int sourceId) {
-		if (context.sources.containsKey(sourceId)) {
-			AudioSource source = context.sources.get(sourceId);
-			if (source == null) {
-				alErrorState = AL.AL_INVALID_NAME;
-				alErrorDescr = "The specified source name is not valid: " + sourceId;
-				Log.e(TAG, alErrorDescr);
-				return;
-			}
-
-			if (!source.state.equals(AL.AL_PAUSED)) {
-				source.byteOffset = 0;
-			}
-			source.state = AL.AL_PLAYING;
+		final AudioSource source = context.sources.get(sourceId);
+		if (source != null) {
+			changeSourceState(source, AL.AL_PLAYING, !source.currentState().equals(AL.AL_PAUSED));
 		} else {
 			alErrorState = AL.AL_INVALID_NAME;
 			alErrorDescr = "source is not defined or null.";
@@ -837,16 +1654,9 @@ public class AndroidAL {
 	 * @param sourceId the source to pause
 	 */
 	public void alSourcePause(final int sourceId) {
-		if (context.sources.containsKey(sourceId)) {
-			AudioSource source = context.sources.get(sourceId);
-			if (source == null) {
-				alErrorState = AL.AL_INVALID_NAME;
-				alErrorDescr = "The specified source name is not valid: " + sourceId;
-				Log.e(TAG, alErrorDescr);
-				return;
-			}
-
-			source.state = AL.AL_PAUSED;
+		final AudioSource source = context.sources.get(sourceId);
+		if (source != null) {
+			changeSourceState(source, AL.AL_PAUSED, false);
 		} else {
 			alErrorState = AL.AL_INVALID_NAME;
 			alErrorDescr = "source is not defined or null.";
@@ -865,16 +1675,9 @@ public class AndroidAL {
 	 * @param sourceId the source to stop
 	 */
 	public void alSourceStop(final int sourceId) {
-		if (context.sources.containsKey(sourceId)) {
-			AudioSource source = context.sources.get(sourceId);
-			if (source == null) {
-				alErrorState = AL.AL_INVALID_NAME;
-				alErrorDescr = "The specified source name is not valid: " + sourceId;
-				Log.e(TAG, alErrorDescr);
-				return;
-			}
-
-			source.state = AL.AL_STOPPED;
+		final AudioSource source = context.sources.get(sourceId);
+		if (source != null) {
+			changeSourceState(source, AL.AL_STOPPED, false);
 		} else {
 			alErrorState = AL.AL_INVALID_NAME;
 			alErrorDescr = "source is not defined or null.";
@@ -894,17 +1697,9 @@ public class AndroidAL {
 	 * @param sourceId the source to rewind
 	 */
 	public void alSourceRewind(final int sourceId) {
-		if (context.sources.containsKey(sourceId)) {
-			AudioSource source = context.sources.get(sourceId);
-			if (source == null) {
-				alErrorState = AL.AL_INVALID_NAME;
-				alErrorDescr = "The specified source name is not valid: " + sourceId;
-				Log.e(TAG, alErrorDescr);
-				return;
-			}
-
-			source.state = AL.AL_STOPPED;
-			source.byteOffset = 0;
+		final AudioSource source = context.sources.get(sourceId);
+		if (source != null) {
+			changeSourceState(source, AL.AL_STOPPED, true);
 		} else {
 			alErrorState = AL.AL_INVALID_NAME;
 			alErrorDescr = "source is not defined or null.";
@@ -913,6 +1708,23 @@ public class AndroidAL {
 		// Not implemented: AL_INVALID_OPERATION - There is no current context.
 	}
 
+	/**
+	 * Change the state of a source and forward the change to its voice in the mixer.
+	 *
+	 * @param source the source to change
+	 * @param state  the new state
+	 * @param rewind true to move the playback position back to the start
+	 */
+	void changeSourceState(final AudioSource source, final AL state, final boolean rewind) {
+		source.state = state;
+		source.stateSerial++;
+		if (rewind) {
+			source.rewindSerial = source.stateSerial;
+		}
+		audioMixer.commands.sourceState(source.slot, state, source.stateSerial, rewind);
+		audioMixer.commands.publish();
+	}
+
 	// - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -
 	// AL listener
 
@@ -927,7 +1739,9 @@ public class AndroidAL {
 			switch (param) {
 				case AL_GAIN:
 					if (value > 0) {
-						context.listener.gain = value;
+						context.listener.setFloat(param, value);
+						audioMixer.commands.listenerFloat(param, value);
+						audioMixer.commands.publish();
 					} else {
 						alErrorState = AL.AL_INVALID_VALUE;
 						alErrorDescr = "The value parameter is invalid: " + value;
@@ -948,6 +1762,13 @@ public class AndroidAL {
 		// Not implemented: AL_INVALID_OPERATION - There is no current context.
 	}
 
+	/**
+	 * alListenerf taking the parameter as its OpenAL value, decoded without allocating.
+	 */
+	public void alListenerf(final int param, final float value) {
+		alListenerf(AL.getEnum(param), value);
+	}
+
 	/**
 	 * Sets the float value of a listener parameter.
 	 *
@@ -963,11 +1784,15 @@ public class AndroidAL {
 					context.listener.position[0] = v1;
 					context.listener.position[1] = v2;
 					context.listener.position[2] = v3;
+					audioMixer.commands.listenerVector(param, context.listener.position);
+					audioMixer.commands.publish();
 					break;
 				case AL_VELOCITY:
 					context.listener.velocity[0] = v1;
 					context.listener.velocity[1] = v2;
 					context.listener.velocity[2] = v3;
+					audioMixer.commands.listenerVector(param, context.listener.velocity);
+					audioMixer.commands.publish();
 					break;
 				default:
 					alErrorState = AL.AL_INVALID_ENUM;
@@ -984,6 +1809,13 @@ public class AndroidAL {
 		// Not implemented: AL_INVALID_OPERATION - There is no current context.
 	}
 
+	/**
+	 * alListener3f taking the parameter as its OpenAL value, decoded without allocating.
+	 */
+	public void alListener3f(final int param, final float v1, final float v2, final float v3) {
+		alListener3f(AL.getEnum(param), v1, v2, v3);
+	}
+
 	/**
 	 * Gets the float values of a listener parameter.
 	 *
@@ -1002,9 +1834,9 @@ public class AndroidAL {
 			switch (param) {
 				case AL_ORIENTATION:
 					if (values.length == 6) {
-						System.arraycopy(values, 0, context.listener.orientAt, 0, 3);
-						System.arraycopy(values, 3, context.listener.orientUp, 0, 3);
-						Utilities.crossProduct(context.listener.orientAt, context.listener.orientUp, context.listener.orientRt);
+						context.listener.setOrientation(values, 0);
+						audioMixer.commands.listenerOrientation(values);
+						audioMixer.commands.publish();
 					} else {
 						alErrorState = AL.AL_INVALID_VALUE;
 						alErrorDescr = "The values parameter length is invalid or null: " + values.length;
@@ -1013,7 +1845,9 @@ public class AndroidAL {
 					break;
 				case AL_POSITION:
 					if (values.length == 3) {
-						System.arraycopy(values, 0, context.listener.position, 0, 3);
+						context.listener.setVector(param, values, 0);
+						audioMixer.commands.listenerVector(param, values);
+						audioMixer.commands.publish();
 					} else {
 						alErrorState = AL.AL_INVALID_VALUE;
 						alErrorDescr = "The values parameter length is invalid or null: " + values.length;
@@ -1022,7 +1856,9 @@ public class AndroidAL {
 					break;
 				case AL_VELOCITY:
 					if (values.length == 3) {
-						System.arraycopy(values, 0, context.listener.velocity, 0, 3);
+						context.listener.setVector(param, values, 0);
+						audioMixer.commands.listenerVector(param, values);
+						audioMixer.commands.publish();
 					} else {
 						alErrorState = AL.AL_INVALID_VALUE;
 						alErrorDescr = "The values parameter length is invalid or null: " + values.length;
@@ -1043,6 +1879,13 @@ public class AndroidAL {
 		// Not implemented: AL_INVALID_OPERATION - There is no current context.
 	}
 
+	/**
+	 * alListenerfv taking the parameter as its OpenAL value, decoded without allocating.
+	 */
+	public void alListenerfv(final int param, final float[] values) {
+		alListenerfv(AL.getEnum(param), values);
+	}
+
 	/**
 	 * Gets the float value of a listener parameter.
 	 *
@@ -1076,6 +1919,13 @@ public class AndroidAL {
 		// Not implemented: AL_INVALID_OPERATION - There is no current context.
 	}
 
+	/**
+	 * alGetListenerf taking the parameter as its OpenAL value, decoded without allocating.
+	 */
+	public void alGetListenerf(final int param, final float[] value) {
+		alGetListenerf(AL.getEnum(param), value);
+	}
+
 	/**
 	 * Returns float values of a listener parameter.
 	 *
@@ -1134,6 +1984,13 @@ public class AndroidAL {
 		// Not implemented: AL_INVALID_OPERATION - There is no current context.
 	}
 
+	/**
+	 * alGetListenerfv taking the parameter as its OpenAL value, decoded without allocating.
+	 */
+	public void alGetListenerfv(final int param, final float[] values) {
+		alGetListenerfv(AL.getEnum(param), values);
+	}
+
 	// - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -
 	// State properties
 
@@ -1151,6 +2008,10 @@ public class AndroidAL {
 				return context.AL_SPEED_OF_SOUND;
 			case AL_DISTANCE_MODEL:
 				return context.AL_DISTANCE_MODEL.value();
+			case AL_NUM_RESAMPLERS_SOFT:
+				return Resampler.ALL.length;
+			case AL_DEFAULT_RESAMPLER_SOFT:
+				return Resampler.DEFAULT.ordinal();
 			default:
 				alErrorState = AL.AL_INVALID_ENUM;
 				alErrorDescr = "The specified parameter does not exist or unhandled: " + param;
@@ -1183,6 +2044,29 @@ public class AndroidAL {
 		}
 	}
 
+	/**
+	 * Returns the string value of the specified indexed parameter (AL_SOFT_source_resampler).
+	 *
+	 * @param param the parameter to query, AL_RESAMPLER_NAME_SOFT
+	 * @param index index of the value to query
+	 * @return NULL terminated String
+	 */
+	public final String alGetStringi(final AL param, final int index) {
+		if (param != AL.AL_RESAMPLER_NAME_SOFT) {
+			alErrorState = AL.AL_INVALID_ENUM;
+			alErrorDescr = "The specified parameter does not exist or unhandled: " + param;
+			Log.e(TAG, alErrorDescr);
+			return null;
+		}
+		if (index < 0 || index >= Resampler.ALL.length) {
+			alErrorState = AL.AL_INVALID_VALUE;
+			alErrorDescr = "The specified resampler is not valid: " + index;
+			Log.e(TAG, alErrorDescr);
+			return null;
+		}
+		return Resampler.ALL[index].description;
+	}
+
 	/**
 	 * Sets the doppler effect factor.
 	 *
@@ -1190,7 +2074,9 @@ public class AndroidAL {
 	 */
 	public void alDopplerFactor(final float value) {
 		if (value >= 0) {
-			context.AL_DOPPLER_FACTOR = value;
+			context.setFloat(AL.AL_DOPPLER_FACTOR, value);
+			audioMixer.commands.contextFloat(AL.AL_DOPPLER_FACTOR, value);
+			audioMixer.commands.publish();
 		} else {
 			alErrorState = AL.AL_INVALID_VALUE;
 			alErrorDescr = "The specified value is not valid: " + value;
@@ -1206,7 +2092,9 @@ public class AndroidAL {
 	 */
 	public void alSpeedOfSound(final float value) {
 		if (value >= 0) {
-			context.AL_SPEED_OF_SOUND = value;
+			context.setFloat(AL.AL_SPEED_OF_SOUND, value);
+			audioMixer.commands.contextFloat(AL.AL_SPEED_OF_SOUND, value);
+			audioMixer.commands.publish();
 		} else {
 			alErrorState = AL.AL_INVALID_VALUE;
 			alErrorDescr = "The specified value is not valid: " + value;
@@ -1240,6 +2128,8 @@ public class AndroidAL {
 			case AL_EXPONENT_DISTANCE_CLAMPED:
 			case AL_NONE:
 				context.AL_DISTANCE_MODEL = modelName;
+				audioMixer.commands.contextDistanceModel(modelName);
+				audioMixer.commands.publish();
 				break;
 			default:
 				alErrorState = AL.AL_INVALID_ENUM;
@@ -1265,11 +2155,14 @@ public class AndroidAL {
 	 * @return NULL terminated String
 	 */
 	public final String alcGetString(final long deviceId, final ALC param) {
-		if (devices.containsKey((int) deviceId)) {
+		final AudioDevice device = devices.get((int) deviceId);
+		if (device != null) {
 			switch (param) {
-				case ALC_EXTENSIONS:
 				case ALC_DEVICE_SPECIFIER:
+					return device.specifier;
 				case ALC_DEFAULT_DEVICE_SPECIFIER:
+					return ALC_DEVICE_AUDIO_TRACK;
+				case ALC_EXTENSIONS:
 				case ALC_CAPTURE_DEVICE_SPECIFIER:
 				case ALC_CAPTURE_DEFAULT_DEVICE_SPECIFIER:
 					return "NONE";
@@ -1295,13 +2188,23 @@ public class AndroidAL {
 	 * @param value    integer value
 	 */
 	public void alcGetIntegerv(final int deviceId, final ALC param, final int[] value) {
-		if (devices.containsKey(deviceId)) {
-//			AudioTrack audioTrack = devices.get(deviceId);
+		final AudioDevice device = devices.get(deviceId);
+		if (device != null) {
 			switch (param) {
-				case ALC_MAJOR_VERSION:
-				case ALC_MINOR_VERSION:
 				case ALC_FREQUENCY: // output frequency
+					value[0] = device.defaultOutputSampleRate;
+					break;
 				case ALC_REFRESH:   // update rate of context processing
+					value[0] = (context != null) ? context.refresh : AudioMixer.mixingHz;
+					break;
+				case ALC_MONO_SOURCES: // real voice budget
+					value[0] = (context != null) ? context.monoSources : Integer.MAX_VALUE;
+					break;
+				case ALC_STEREO_SOURCES:
+					value[0] = (context != null) ? context.stereoSources : 0;
+					break;
+				case ALC_MAJOR_VERSION:
+				case ALC_MINOR_VERSION:
 				case ALC_SYNC:      // flag indicating a synchronous context
 					value[0] = 0;
 					break;
@@ -15,14 +15,19 @@
  */
 package com.github.androidal;
 
+import java.nio.ShortBuffer;
+
 /**
  * Simulate an OpenAL (READ-ONLY) buffer object.  This houses the data and length information.
  * <p>
+ * The data is only replaced while the buffer is not attached to or queued on any source, the
+ * mixer reads it without locking.  alBufferData converts into a staging copy, see {@link #staging()},
+ * which is assigned to the named buffer under the AndroidAL lock, so neither the mixer nor the API
+ * ever sees a half converted buffer.
+ * <p>
  * This is a package private class as its only needed in this class.
  */
 class AudioBuffer {
-	static int nextBufferId = 0; // Static tracker to mimic driver Ids
-
 	/**
 	 * the ID of the attached buffer : Access via AL_BUFFER
 	 */
@@ -44,9 +49,57 @@ class AudioBuffer {
 	 */
 	int size;
 	/**
-	 * original location where data was copied from : Access via ?? AL_DATA ??
+	 * number of frames of converted samples, 0 until the buffer is filled
+	 */
+	int frames;
+	/**
+	 * sample rate of the converted samples in Hz, the output rate unless kept at the buffer's frequency
+	 */
+	int rate;
+	/**
+	 * the next alBufferData keeps the data at its frequency, resampled as it is mixed : Access via AL_NATIVE_RATE_AAL
+	 */
+	boolean nativeRate;
+	/**
+	 * resampler converting the next alBufferData to the output rate : Access via AL_BUFFER_RESAMPLER_AAL
+	 */
+	Resampler resampler = Resampler.POINT;
+	/**
+	 * how the converted samples are kept, see {@link SampleStorage#read}
+	 */
+	SampleStorage storage = SampleStorage.DEFAULT;
+	/**
+	 * storage the next alBufferData converts to : Access via AL_SAMPLE_STORAGE_AAL
+	 */
+	SampleStorage storageRequested = SampleStorage.DEFAULT;
+	/**
+	 * converted samples when stored as FLOAT, otherwise null
 	 */
 	float[] data;
+	/**
+	 * converted samples when stored as PCM16, otherwise null
+	 */
+	short[] pcm;
+	/**
+	 * converted samples when stored as IMA4, otherwise null
+	 */
+	byte[] adpcm;
+	/**
+	 * samples read in place when MAPPED, otherwise null
+	 */
+	ShortBuffer mapped;
+	/**
+	 * normalizing scale of the MAPPED samples
+	 */
+	float mappedScale;
+	/**
+	 * number of sources the buffer is attached to or queued on, guarded by the AndroidAL instance
+	 */
+	int attachments;
+	/**
+	 * alBufferData is converting data for the buffer, it can't be attached, queued, refilled or deleted, guarded by the AndroidAL instance
+	 */
+	boolean loading;
 
 	// -------------------------------------------------------------------------
 	// Constructors
@@ -59,4 +112,53 @@ class AudioBuffer {
 	AudioBuffer(final int bufferId) {
 		this.id = bufferId;
 	}
+
+	/**
+	 * @return An unnamed buffer with this buffer's conversion settings, alBufferData fills it off the lock.
+	 */
+	AudioBuffer staging() {
+		final AudioBuffer staging = new AudioBuffer(id);
+		staging.nativeRate = nativeRate;
+		staging.resampler = resampler;
+		staging.storageRequested = storageRequested;
+		return staging;
+	}
+
+	/**
+	 * Take the data of a filled staging buffer, the settings for the next alBufferData are kept.
+	 *
+	 * @param converted Buffer returned by {@link #staging()} and filled
+	 */
+	void assign(final AudioBuffer converted) {
+		frequency = converted.frequency;
+		bits = converted.bits;
+		channels = converted.channels;
+		size = converted.size;
+		rate = converted.rate;
+		storage = converted.storage;
+		data = converted.data;
+		pcm = converted.pcm;
+		adpcm = converted.adpcm;
+		mapped = converted.mapped;
+		mappedScale = converted.mappedScale;
+		frames = converted.frames;
+	}
+
+	/**
+	 * Replace the samples, converted to the requested storage.
+	 *
+	 * @param samples Converted samples, {@link #channels} interleaved, normalized to -1.0 to 1.0
+	 */
+	void store(final float[] samples) {
+		storageRequested.store(this, samples);
+		storage = storageRequested;
+		frames = samples.length / channels;
+	}
+
+	/**
+	 * Decode frames as floats, see {@link SampleStorage#read}.
+	 */
+	void read(final int first, final float[] dst, final int dstIndex, final int count) {
+		storage.read(this, first, dst, dstIndex, count);
+	}
 }
@@ -15,15 +15,9 @@
  */
 package com.github.androidal;
 
-import java.util.HashMap;
-import java.util.Map;
-
 class AudioContext {
 	static final String TAG = "AndroidAL";
 
-	static int nextContextId = 0; // Static tracker to mimic driver Ids
-	static int nextSourceId = 0; // Static tracker to mimic driver Ids
-
 	final int deviceId;
 	final int contextId;
 
@@ -36,17 +30,94 @@ class AudioContext {
 	float AL_SPEED_OF_SOUND = 343.3f; // meters per second
 	AL AL_DISTANCE_MODEL = AL.AL_INVERSE_DISTANCE_CLAMPED;
 
+	// Context creation attributes
+	int refresh = AudioMixer.mixingHz; // ALC_REFRESH - mixing passes per second
+	ALC mixerMode = ALC.ALC_MIXER_POLLED_AAL; // ALC_MIXER_MODE_AAL - how the mixer is clocked
+	int mixerThreads = 1; // ALC_MIXER_THREADS_AAL - threads sharing the voices of a pass
+	int monoSources = Integer.MAX_VALUE; // ALC_MONO_SOURCES - real voice budget, unlimited unless given
+	int stereoSources = 0; // ALC_STEREO_SOURCES - added to the real voice budget, none unless given
+
 	// Driver variables for processing...WIP
 	final AudioListener listener;
 
-	// Sources for this context
-	final Map<Integer, AudioSource> sources; // Configured sources
+	// Sources for this context, the API copies, the mixer keeps its own voices at each source's index
+	final HandleTable<AudioSource> sources; // Configured sources
 
 	AudioContext(final int deviceId, final int contextId) {
 		this.deviceId = deviceId;
 		this.contextId = contextId;
 
-		this.sources = new HashMap<>();
+		this.sources = new HandleTable<>();
 		this.listener = new AudioListener();
 	}
+
+	/**
+	 * Apply the context creation attributes, an array of ALC enum and value pairs optionally terminated by 0.
+	 *
+	 * @param attributes Attribute pairs, may be null.
+	 * @return null if all attributes were applied, otherwise a description of the invalid attribute.
+	 */
+	String setAttributes(final int[] attributes) {
+		if (attributes == null) { return null; }
+
+		for (int i = 0; i + 1 < attributes.length && attributes[i] != 0; i += 2) {
+			final int value = attributes[i + 1];
+			switch (ALC.getEnum(attributes[i])) {
+				case ALC_REFRESH:
+					if (value <= 0) { return "ALC_REFRESH must be positive: " + value; }
+					refresh = value;
+					break;
+				case ALC_MIXER_MODE_AAL:
+					final ALC mode = ALC.getEnum(value);
+					if (mode != ALC.ALC_MIXER_POLLED_AAL && mode != ALC.ALC_MIXER_DEVICE_AAL) {
+						return "ALC_MIXER_MODE_AAL is not a mixer mode: " + value;
+					}
+					mixerMode = mode;
+					break;
+				case ALC_MIXER_THREADS_AAL:
+					if (value < 1) { return "ALC_MIXER_THREADS_AAL must be positive: " + value; }
+					mixerThreads = value;
+					break;
+				case ALC_MONO_SOURCES:
+					if (value < 0) { return "ALC_MONO_SOURCES must not be negative: " + value; }
+					monoSources = value;
+					break;
+				case ALC_STEREO_SOURCES:
+					if (value < 0) { return "ALC_STEREO_SOURCES must not be negative: " + value; }
+					stereoSources = value;
+					break;
+				case ALC_FREQUENCY: // Output rate is fixed by the device
+				case ALC_SYNC:
+					break;
+				default:
+					return "The specified attribute is not valid: " + attributes[i];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return Most voices the mixer fully mixes at once, the quietest playing sources past this are virtual.
+	 */
+	int maxVoices() {
+		return (int) Math.min(Integer.MAX_VALUE, (long) monoSources + stereoSources);
+	}
+
+	/**
+	 * Set a float parameter, values are validated by the caller.
+	 *
+	 * @return false if the parameter is not a float context parameter.
+	 */
+	boolean setFloat(final AL param, final float value) {
+		switch (param) {
+			case AL_DOPPLER_FACTOR:
+				AL_DOPPLER_FACTOR = value;
+				return true;
+			case AL_SPEED_OF_SOUND:
+				AL_SPEED_OF_SOUND = value;
+				return true;
+			default:
+				return false;
+		}
+	}
 }
@@ -51,4 +51,45 @@ class AudioListener {
 	 */
 	AudioListener() {
 	}
+
+	// -------------------------------------------------------------------------
+	// Parameters, shared by the API copy and the mixer's copy
+
+	/**
+	 * Set a float parameter, values are validated by the caller.
+	 *
+	 * @return false if the parameter is not a float listener parameter.
+	 */
+	boolean setFloat(final AL param, final float value) {
+		if (param != AL.AL_GAIN) { return false; }
+		gain = value;
+		return true;
+	}
+
+	/**
+	 * Set a 3D float parameter from values[offset..offset+2].
+	 *
+	 * @return false if the parameter is not a vector listener parameter.
+	 */
+	boolean setVector(final AL param, final float[] values, final int offset) {
+		switch (param) {
+			case AL_POSITION:
+				System.arraycopy(values, offset, position, 0, 3);
+				return true;
+			case AL_VELOCITY:
+				System.arraycopy(values, offset, velocity, 0, 3);
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * Set the orientation from the "at" vector in values[offset..offset+2] followed by the "up" vector.
+	 */
+	void setOrientation(final float[] values, final int offset) {
+		System.arraycopy(values, offset, orientAt, 0, 3);
+		System.arraycopy(values, offset + 3, orientUp, 0, 3);
+		Utilities.crossProduct(orientAt, orientUp, orientRt);
+	}
 }
@@ -15,11 +15,11 @@
  */
 package com.github.androidal;
 
-import android.media.AudioTrack;
 import android.util.Log;
 
 import java.util.Arrays;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 class AudioMixer {
 	static final String TAG = "AndroidAL";
@@ -33,37 +33,267 @@ class AudioMixer {
 	long estimatedPlaybackHeadPosition = 0; //
 	float[] mixingBuffer; // Mixing buffer to be sent to hardware
 	static final int mixingHz = 46; // Default to a 46Hz update cycle
+	static final float maxPitch = 8.0f; // Pitch (including doppler and the buffer rate) is clamped to this, bounds the scratch buffer
+	static final int quantumFrames = 128; // Frames rendered between evaluations of source gain, pan and pitch
+	static final float inaudibleGain = 0.00001f; // Voices no louder than this (-100dB) are always virtual
+	float[] sourceScratch; // Source frames gathered for the resampler, reused by every source, sized for stereo
 	Thread mixingThread = null;
 
 	int defaultOutputSampleRate;
 	AudioContext context;
 
-	final Map<Integer, AudioBuffer> buffers; // Sounds data managed by the driver
-
-	AudioMixer(final int defaultMinBufferSizeInBytes, final int defaultOutputSampleRate, final AudioTrack audioTrack, final Map<Integer, AudioBuffer> buffers) {
+	// Mixer owned state, only changed through commands from the API thread
+	final CommandRing commands = new CommandRing(this);
+	final AudioContext mixContext = new AudioContext(0, 0); // Listener, distance and doppler parameters
+	final SourcePool pool = new SourcePool(); // Every source's parameters and mixing state, by slot
+	int[] voices = new int[16]; // Dense list of the playing voices' slots, the only ones a pass visits
+	int voiceCount = 0;
+	int realCount = 0; // Real voices come first in the list, the rest are virtual
+
+	// Voice budget (ALC_MONO_SOURCES + ALC_STEREO_SOURCES), past it the least audible voices are virtual
+	final int maxVoices;
+	float[] ranking = new float[16]; // Audibility of the audible voices, reordered to find the budget's quietest
+
+	// Parallel mixing (ALC_MIXER_THREADS_AAL), the thread running the pass mixes share 0 itself
+	MixWorker[] workers = null; // Helper threads, null when mixing on one thread
+	final AtomicInteger sharesPending = new AtomicInteger();
+	volatile Thread passThread = null; // Thread waiting on the workers
+	int passFrames = 0; // Frames in the pass handed to the workers
+	int passVoices = 0; // Voices in the pass handed to the workers
+
+	AudioMixer(final int defaultMinBufferSizeInBytes, final int defaultOutputSampleRate, final AudioSink sink, final int mixerThreads, final int maxVoices) {
 		this.defaultOutputSampleRate = defaultOutputSampleRate;
-		this.buffers = buffers;
+		this.maxVoices = maxVoices;
 
 		mixingBuffer = new float[defaultMinBufferSizeInBytes / Float.BYTES];
+		sourceScratch = new float[((int) (quantumFrames * maxPitch) + Resampler.MAX_PADDING * 2 + 2) * 2];
 		Log.i(TAG, String.format("Mixing buffer size: %d bytes / %d samples", defaultMinBufferSizeInBytes, mixingBuffer.length));
 
+		// More threads than cores only adds hand off cost.
+		final int threads = Math.min(mixerThreads, Runtime.getRuntime().availableProcessors());
+		if (threads > 1) {
+			workers = new MixWorker[threads - 1];
+			for (int i = 0; i < workers.length; i++) {
+				workers[i] = new MixWorker(this, i + 1, mixingBuffer.length, sourceScratch.length);
+				workers[i].thread.start();
+			}
+			Log.i(TAG, String.format("Mixing on %d threads", threads));
+		}
+
 		// Setup the mixing thread so audio is mixed OFF of the render thread.
-		mixingThread = new Thread(() -> mix(audioTrack));
+		mixingThread = new Thread(() -> mix(sink));
 	}
 
 	void setContext(final AudioContext context) { this.context = context; }
 
+	/**
+	 * @return true while the mixing thread is running and consuming commands.
+	 */
+	boolean isMixing() {
+		final Thread thread = mixingThread;
+		return thread != null && thread.isAlive();
+	}
+
+	/**
+	 * Apply the commands the API thread has published, in order.  Called at the start of every
+	 * pass, or on the API thread when the ring is full and the mixer is not running.
+	 * NOTE: Runs in the mixing pass, nothing here may allocate (other than growing the voice list).
+	 */
+	void processCommands() {
+		final CommandRing ring = commands;
+		final SourcePool pool = this.pool;
+		final long end = ring.tail.get();
+		for (long command = ring.head.get(); command < end; command++) {
+			final int slot = (int) (command & CommandRing.MASK);
+			final int source = ring.targets[slot];
+			final AL param = ring.params[slot];
+			final int ints = slot * CommandRing.INTS;
+			final int floats = slot * CommandRing.FLOATS;
+			switch (ring.ops[slot]) {
+				case CommandRing.SOURCE_ADD:
+					pool.reset(source, (AudioSource) ring.refs[slot]);
+					break;
+				case CommandRing.SOURCE_REMOVE:
+					removeVoice(source);
+					pool.owner[source] = null;
+					pool.queue[source].clear();
+					pool.buffer[source] = null;
+					break;
+				case CommandRing.SOURCE_FLOAT:
+					pool.setFloat(source, param, ring.floats[floats]);
+					break;
+				case CommandRing.SOURCE_VECTOR:
+					pool.setVector(source, param, ring.floats[floats], ring.floats[floats + 1], ring.floats[floats + 2]);
+					break;
+				case CommandRing.SOURCE_TRANSFORM:
+					pool.setTransform(source, ring.floats, floats);
+					break;
+				case CommandRing.SOURCE_INT:
+					pool.setInt(source, param, ring.ints[ints]);
+					break;
+				case CommandRing.SOURCE_BUFFER:
+					pool.setBuffer(source, (AudioBuffer) ring.refs[slot]);
+					break;
+				case CommandRing.SOURCE_QUEUE:
+					pool.queueBuffer(source, (AudioBuffer) ring.refs[slot]);
+					break;
+				case CommandRing.SOURCE_UNQUEUE:
+					pool.unqueueBuffers(source, ring.ints[ints]);
+					break;
+				case CommandRing.SOURCE_STATE:
+					pool.state[source] = param.value();
+					pool.stateSerial[source] = ring.ints[ints];
+					if (ring.ints[ints + 1] != 0) {
+						pool.selectBuffer(source, pool.queue[source].first);
+						pool.playbackPosition[source] = 0;
+						pool.rampValid[source] = false;
+					} else if (param == AL.AL_STOPPED) {
+						pool.selectBuffer(source, pool.queue[source].end); // Every buffer is processed
+					}
+					if (param == AL.AL_PLAYING) {
+						addVoice(source);
+					} else {
+						removeVoice(source);
+					}
+					pool.publishState(source);
+					pool.snapshotChanged(source);
+					break;
+				case CommandRing.LISTENER_FLOAT:
+					mixContext.listener.setFloat(param, ring.floats[floats]);
+					break;
+				case CommandRing.LISTENER_VECTOR:
+					mixContext.listener.setVector(param, ring.floats, floats);
+					break;
+				case CommandRing.LISTENER_ORIENTATION:
+					mixContext.listener.setOrientation(ring.floats, floats);
+					break;
+				case CommandRing.CONTEXT_FLOAT:
+					mixContext.setFloat(param, ring.floats[floats]);
+					break;
+				case CommandRing.CONTEXT_DISTANCE_MODEL:
+					mixContext.AL_DISTANCE_MODEL = param;
+					break;
+				default:
+					break;
+			}
+			ring.refs[slot] = null;
+		}
+		ring.head.lazySet(end);
+	}
+
+	/**
+	 * Add a voice to the playing list, if it is not already on it.
+	 */
+	void addVoice(final int slot) {
+		if (pool.mixIndex[slot] >= 0) { return; }
+		if (voiceCount == voices.length) {
+			voices = Arrays.copyOf(voices, voices.length * 2);
+			ranking = new float[voices.length];
+		}
+		pool.mixIndex[slot] = voiceCount;
+		voices[voiceCount++] = slot;
+	}
+
+	/**
+	 * Take a voice off the playing list, if it is on it.
+	 */
+	void removeVoice(final int slot) {
+		final int index = pool.mixIndex[slot];
+		if (index < 0) { return; }
+
+		// Swap the last voice into the hole to keep the list dense.
+		final int last = voices[--voiceCount];
+		voices[index] = last;
+		pool.mixIndex[last] = index;
+		pool.mixIndex[slot] = -1;
+	}
+
+	/**
+	 * Swap two entries of the playing list.
+	 */
+	void swapVoices(final int index1, final int index2) {
+		final int slot1 = voices[index1];
+		final int slot2 = voices[index2];
+		voices[index1] = slot2;
+		voices[index2] = slot1;
+		pool.mixIndex[slot2] = index1;
+		pool.mixIndex[slot1] = index2;
+	}
+
 	/**
 	 * Mixing thread method
 	 *
-	 * @param _audioTrack Android AudioTrack for audio output
+	 * @param sink Output the mixed samples are written to
+	 */
+	void mix(final AudioSink sink) {
+		if (context.mixerMode == ALC.ALC_MIXER_DEVICE_AAL) {
+			mixDevice(sink);
+		} else {
+			mixPolled(sink);
+		}
+	}
+
+	/**
+	 * Mixing loop clocked by the output device (ALC_MIXER_DEVICE_AAL).<br>
+	 * Fixed size periods are rendered and written with blocking writes, so the output's buffer
+	 * depth sets the latency and the write returning is the clock.  Samples the output did not
+	 * accept are carried over to the next write, nothing is dropped or rendered twice.
+	 *
+	 * @param sink Output the mixed samples are written to
 	 */
-	void mix(final AudioTrack _audioTrack) {
-		/** Reference to AudioTrack */
-		AudioTrack audioTrack = _audioTrack;
+	void mixDevice(final AudioSink sink) {
+		// One period per refresh, never more than the mixing buffer holds.
+		final int periodFrames = Math.max(1, Math.min(mixingBuffer.length / 2, defaultOutputSampleRate / context.refresh));
+		final int periodSamples = periodFrames * 2;
+
+		int pendingOffset = 0; // Where the unwritten part of the current period starts
+		int pendingSamples = 0; // How much of the current period the output has not accepted yet
+
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				if (pendingSamples == 0) {
+					renderPeriod(periodFrames);
+					pendingOffset = 0;
+					pendingSamples = periodSamples;
+				}
 
+				final int samplesWritten = sink.write(mixingBuffer, pendingOffset, pendingSamples, true);
+				if (samplesWritten < 0) {
+					Log.e(TAG, "mixDevice: output write failed: " + samplesWritten);
+					return;
+				}
+				if (samplesWritten == 0) {
+					Thread.sleep(1); // Output is not consuming (paused or stopping), don't spin
+				}
+				pendingOffset += samplesWritten;
+				pendingSamples -= samplesWritten;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			Log.e(TAG, "mixingThread::Exception: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Render one period of frames into the start of the mixing buffer.
+	 *
+	 * @param frames Number of stereo frames to render.
+	 */
+	void renderPeriod(final int frames) {
+		Arrays.fill(mixingBuffer, 0, frames * 2, 0.0f);
+		mixActiveSounds(frames);
+	}
+
+	/**
+	 * Mixing loop clocked by sleeping for the refresh interval (ALC_MIXER_POLLED_AAL).<br>
+	 * The amount to write each pass is estimated from the time slept and the playback head position.
+	 *
+	 * @param sink Output the mixed samples are written to
+	 */
+	void mixPolled(final AudioSink sink) {
 		// Determine the sleep delay to nano second resolution
-		double rateMills =  1000.0 / mixingHz;
+		double rateMills =  1000.0 / context.refresh;
 		int partMills = (int) rateMills;
 		int partNanos = (int) ((rateMills - partMills) * 1_000_000);
 
@@ -93,7 +323,7 @@ class AudioMixer {
 				// next frame going to the hardware seams up with the current playback position.  Maybe
 				// experiment with pause and play with the steam OR a deeper hardware analysis.  For now,
 				// 2024.01.06, this will suffice as a 'working' OpenAL supplement using native Android calls.
-				currentPlaybackHeadPosition = Integer.toUnsignedLong(audioTrack.getPlaybackHeadPosition());
+				currentPlaybackHeadPosition = sink.getPlaybackHeadPosition();
 //				currentPlaybackCount = currentPlaybackHeadPosition - lastPlaybackHeadPosition;
 				if (currentPlaybackHeadPosition != lastPlaybackHeadPosition || lastPlaybackHeadPosition == 0) {
 					if (currentPlaybackHeadPosition != estimatedPlaybackHeadPosition && lastPlaybackHeadPosition != 0) {
@@ -111,8 +341,8 @@ class AudioMixer {
 
 					// Only fill the buffer once we have gone through once
 					if (lastThreadSleepTime != 0) {
-						samplesWritten = this.fillBuffer(audioTrack, samplesToWrite); // Actual off thread mixing
-						lastPlaybackHeadPosition = Integer.toUnsignedLong(audioTrack.getPlaybackHeadPosition());
+						samplesWritten = this.fillBuffer(sink, samplesToWrite); // Actual off thread mixing
+						lastPlaybackHeadPosition = sink.getPlaybackHeadPosition();
 						estimatedPlaybackHeadPosition += samplesToWrite;
 					}
 
@@ -120,7 +350,7 @@ class AudioMixer {
 //					thisThreadProcessingTime = (thisThreadProcessingTime * 0.9f) + (((System.nanoTime() - thisThreadWakeupTime) * nanoToMicro) * 0.1f);
 //					Log.i(TAG, String.format("Mixing: sleeping: %fms, processing: %fms; writing: %d @ %d - wrote: %d / %d",
 //						thisThreadPausedTime * nanoToMicro, thisThreadProcessingTime,
-//						samplesToWrite, audioTrack.getPlaybackHeadPosition(), samplesWritten, currentPlaybackCount
+//						samplesToWrite, sink.getPlaybackHeadPosition(), samplesWritten, currentPlaybackCount
 //					));
 				}
 
@@ -130,10 +360,10 @@ class AudioMixer {
 				Thread.sleep(partMills, partNanos); // Sleep for the desiredRefresh Hz rate in millis
 			}
 		} catch (InterruptedException e) {
-			Log.e(TAG, String.format("mixingThread::InterruptedException: %s", e.getMessage()));
-			mixingThread.interrupt();
+			Log.e(TAG, "mixingThread::InterruptedException: " + e.getMessage());
+			Thread.currentThread().interrupt();
 		} catch (Exception e) {
-			Log.e(TAG, String.format("mixingThread::Exception: %s", e.getMessage()));
+			Log.e(TAG, "mixingThread::Exception: " + e.getMessage());
 		}
 	}
 
@@ -141,9 +371,9 @@ class AudioMixer {
 	 * Fill the mixing buffer with enough data for the next frame.<br>
 	 * NOTE: Always delayed by the initial frame time (1/60sec ~16ms)
 	 *
-	 * @param audioTrack Android AudioTrack for audio output
+	 * @param sink Output the mixed samples are written to
 	 */
-	int fillBuffer(final AudioTrack audioTrack, final int samplesToWrite) {
+	int fillBuffer(final AudioSink sink, final int samplesToWrite) {
 		try {
 			if (samplesToWrite < 0) { return 0; } // Sometimes we get here with negative samples count...
 
@@ -154,100 +384,503 @@ class AudioMixer {
 			Arrays.fill(mixingBuffer, 0, totalToWrite, 0.0f);
 
 			// Mix the active sounds into the sound buffer.
-			mixActiveSounds(samplesToWrite, totalToWrite);
+			mixActiveSounds(totalToWrite / 2);
 
-			// Write the written mixing buffer to the hardware...
-			return audioTrack.write(mixingBuffer, 0, totalToWrite, AudioTrack.WRITE_NON_BLOCKING);
+			// Write the written mixing buffer to the output...
+			return sink.write(mixingBuffer, 0, totalToWrite, false);
 		} catch (Exception ex) {
-			Log.e(TAG, String.format("fillBuffer: : %s", ex.getMessage()));
+			Log.e(TAG, "fillBuffer: " + ex.getMessage());
 			return -1;
 		}
 	}
 
 	/**
-	 * Mix any sounds that are active into the mix buffer from their respective source positions
-	 * and writing totalToWrite samples to the buffer but tracking samplesToWrite advancement.
+	 * Mix any sounds that are active into the mix buffer from their respective source positions.<br>
+	 * The pass is rendered in quanta of {@link #quantumFrames}, source gain, pan, distance and pitch
+	 * are evaluated once per quantum and ramped linearly across it from the previous quantum's values.
+	 * The sources' states and offsets are published to the pool's snapshot once the pass is mixed.
+	 *
+	 * @param frames How many stereo frames are we processing this pass.
+	 */
+	void mixActiveSounds(final int frames) {
+		processCommands();
+		selectVoices(frames);
+
+		if (workers == null) {
+			mixVoices(0, realCount, mixingBuffer, sourceScratch, frames);
+		} else {
+			mixParallel(frames);
+		}
+		pool.publishSnapshot(voices, voiceCount);
+	}
+
+	/**
+	 * Decide which playing voices are real this pass.  Voices are ranked by audibility, their gain
+	 * times distance attenuation, the loudest {@link #maxVoices} are mixed and the rest are virtual:
+	 * their playback position keeps advancing at their pitch but nothing is resampled or mixed.
+	 * A voice losing its real voice fades out over one quantum, one regaining it fades back in.
+	 * Voices that stopped during the last pass are dropped from the playing list first, the real
+	 * voices are moved to the front of the list and the virtual ones are advanced for the whole pass.
+	 * NOTE: Runs in the mixing pass, nothing here may allocate.
 	 *
-	 * @param samplesToWrite How many samples are we processing this pass.
-	 * @param totalToWrite   How many samples are we writing to the buffer (go long)
+	 * @param frames How many stereo frames are we processing this pass.
 	 */
-	void mixActiveSounds(final int samplesToWrite, final int totalToWrite) {
-		if (context.listener == null) { return; }
+	void selectVoices(final int frames) {
+		final SourcePool pool = this.pool;
+		for (int i = 0; i < voiceCount; i++) {
+			if (pool.state[voices[i]] != SourcePool.PLAYING) {
+				removeVoice(voices[i]);
+				i--; // The last voice was swapped in here
+			}
+		}
 
-		try {
-			for (final AudioSource source : context.sources.values()) {
-				if (!source.state.equals(AL.AL_PLAYING)) { continue; }
+		final int[] slots = voices;
+		final float[] ranked = ranking;
+		AudioUtilities.computeDistanceRolloff(mixContext, mixContext.listener, pool, slots, 0, voiceCount);
+		int audible = 0;
+		for (int i = 0; i < voiceCount; i++) {
+			final int slot = slots[i];
+			final AudioBuffer buffer = pool.buffer[slot];
+			final float audibility = (buffer != null && buffer.channels != 1) ? pool.gain[slot] : pool.gain[slot] * pool.distanceGain[slot];
+			pool.audibility[slot] = audibility;
+			if (audibility > inaudibleGain) { ranked[audible++] = audibility; }
+		}
 
-				// Locate the buffer associated with the source.
-				AudioBuffer buffer = buffers.get(source.bufferId);
-				if (buffer == null) {
-					Log.e(TAG, String.format("Unable to locate buffer with Id: %d", source.bufferId));
-					continue;
+		// Voices louder than the threshold are real, voices exactly as loud share what is left of the
+		// budget in list order.
+		float threshold = inaudibleGain;
+		int ties = 0;
+		if (audible > maxVoices) {
+			if (maxVoices == 0) {
+				threshold = Float.POSITIVE_INFINITY;
+			} else {
+				threshold = selectDescending(ranked, audible, maxVoices - 1);
+				ties = maxVoices;
+				for (int i = 0; i < audible; i++) {
+					if (ranked[i] > threshold) { ties--; }
 				}
+			}
+		}
 
-				// Capture the initial, panning and distance gains
-				final float gainInit = source.gain;
-
-				// If a listener is defined compute panning and distance gains
-				float[] gainLR = AudioUtilities.computeLeftRightGains(context, context.listener, source);
-				float	gainDist = AudioUtilities.computeDistanceRolloff(context, context.listener, source);
-				float dopplerPitch = AudioUtilities.computeDopplerShift(context, context.listener, source);
-
-				// Compute the source pitch by the computed doppler pitch shift.
-				float pitch = source.pitch * dopplerPitch;
-//				Log.i(TAG, String.format("%d) %s, %s, %s, %f, %f",
-//					source.id, Arrays.toString(listener.position),
-//					Arrays.toString(source.position),
-//					Arrays.toString(gainLR),
-//					gainDist, pitch);
-
-				// Compute the overall gain from initial, distance and panning
-				gainLR[0] *= (gainInit * gainDist);
-				gainLR[1] *= (gainInit * gainDist);
-
-				// NOTE: Skip 2 samples in mixing buffer for stereo mixing
-				// NOTE: This writes the 'totalToWrite' which runs longer than the interval
-				int startOffset = source.byteOffset;
-				float readOffset = 0.0f;
-				for (int mixBufferIndex = 0; mixBufferIndex < totalToWrite; mixBufferIndex += 2) {
-					int bufferPosition = startOffset + (int)readOffset;
-					if (bufferPosition == buffer.data.length) {
-						if (source.looping) { // Wrap
-							startOffset = 0; readOffset = 0; bufferPosition = 0;
-						} else {
-							break; // End of sound...transition to stop
-						}
-					}
+		for (int i = 0; i < voiceCount; i++) {
+			final int slot = slots[i];
+			final float audibility = pool.audibility[slot];
+			boolean real = audibility > threshold;
+			if (!real && audibility == threshold && ties > 0) {
+				real = true;
+				ties--;
+			}
 
+			if (real) {
+				if (!pool.real[slot]) {
+					pool.real[slot] = true;
+					pool.rampValid[slot] = false;
+					pool.fadeIn[slot] = true;
+				}
+				pool.demoting[slot] = false;
+			} else if (pool.real[slot]) {
+				// A source that has not been mixed yet has nothing to fade out.
+				if (pool.rampValid[slot]) {
+					pool.demoting[slot] = true;
+				} else {
+					pool.real[slot] = false;
+				}
+			}
+		}
 
-					// Sum all samples together methodology
-//					float before = mixingBuffer[mixBufferIndex];
-//					float sample = buffer.data[bufferPosition];
-					mixingBuffer[mixBufferIndex] += (buffer.data[bufferPosition] * gainLR[0]); // left
-					mixingBuffer[mixBufferIndex + 1] += (buffer.data[bufferPosition] * gainLR[1]); // right
-//					float after = mixingBuffer[mixBufferIndex];
+		// Real voices, including those fading out, to the front.
+		int real = 0;
+		for (int i = 0; i < voiceCount; i++) {
+			if (pool.real[slots[i]]) {
+				swapVoices(i, real++);
+			}
+		}
+		realCount = real;
+
+		// Virtual voices only keep time.
+		AudioUtilities.computeDopplerShift(mixContext, mixContext.listener, pool, slots, realCount, voiceCount);
+		for (int i = realCount; i < voiceCount; i++) {
+			final int slot = slots[i];
+			if (voiceBuffer(slot) != null) {
+				advance(slot, pool.playbackPosition[slot] + pitchStep(slot) * frames);
+			}
+		}
+	}
 
-//					Log.i(TAG, String.format("%d / %d / %d = %f / %f / %f",
-//						mixBufferIndex, totalToWrite, bufferPosition,
-//						before, sample, after);
+	/**
+	 * Partially sort values[0..count) into descending order far enough to find the k-th largest.
+	 *
+	 * @return The value that would be at index k if values were sorted in descending order.
+	 */
+	static float selectDescending(final float[] values, final int count, final int k) {
+		int left = 0;
+		int right = count - 1;
+		while (left < right) {
+			final float pivot = values[(left + right) >>> 1];
+			int i = left;
+			int j = right;
+			while (i <= j) {
+				while (values[i] > pivot) { i++; }
+				while (values[j] < pivot) { j--; }
+				if (i <= j) {
+					final float swap = values[i];
+					values[i++] = values[j];
+					values[j--] = swap;
+				}
+			}
+			if (k <= j) {
+				right = j;
+			} else if (k >= i) {
+				left = i;
+			} else {
+				break;
+			}
+		}
+		return values[k];
+	}
+
+	/**
+	 * @return Fixed point source frames per output frame, the source pitch shifted by the doppler
+	 * shift last computed for it (mono buffers only), scaled by the rate of the buffer playing over
+	 * the output rate and clamped to [0, {@link #maxPitch}].
+	 */
+	long pitchStep(final int slot) {
+		final AudioBuffer buffer = pool.buffer[slot];
+		final float rate = (float) buffer.rate / defaultOutputSampleRate;
+		final float doppler = (buffer.channels == 1) ? pool.dopplerShift[slot] : 1.0f;
+		float pitch = Math.min(pool.pitch[slot] * doppler * rate, maxPitch);
+		if (!(pitch > 0.0f)) { pitch = 0.0f; } // Negative or NaN holds the source in place
+		return (long) (pitch * Resampler.FRACTION_ONE);
+	}
+
+	/**
+	 * @return The buffer the voice is playing, or null after stopping the voice if it has no samples.
+	 */
+	AudioBuffer voiceBuffer(final int slot) {
+		// The buffers were resolved by the API thread when they were attached or queued.
+		final AudioBuffer buffer = pool.buffer[slot];
+		if (buffer == null) {
+			Log.e(TAG, "No buffer queued on source, stopping: " + pool.owner[slot].id);
+		} else if (buffer.frames != 0) {
+			return buffer;
+		}
+		pool.state[slot] = SourcePool.STOPPED;
+		pool.publishState(slot);
+		return null;
+	}
+
+	/**
+	 * Split the voices into one share per thread, mix share 0 here while the workers mix theirs,
+	 * then add the workers' buffers into the mix buffer in worker order.
+	 *
+	 * @param frames How many stereo frames are we processing this pass.
+	 */
+	void mixParallel(final int frames) {
+		passFrames = frames;
+		passVoices = realCount;
+		passThread = Thread.currentThread();
+		sharesPending.set(workers.length);
+		for (final MixWorker worker : workers) {
+			worker.signal();
+		}
+
+		mixVoices(0, shareStart(1), mixingBuffer, sourceScratch, frames);
+
+		while (sharesPending.get() != 0) {
+			if (passThread.isInterrupted()) {
+				return; // Stopping, park would return at once and spin, the pass is dropped
+			}
+			LockSupport.park(this);
+		}
+
+		final int samples = frames * 2;
+		for (final MixWorker worker : workers) {
+			final float[] buffer = worker.buffer;
+			for (int i = 0; i < samples; i++) {
+				mixingBuffer[i] += buffer[i];
+			}
+		}
+	}
 
-					// Advance offset (adjusting for pitch)
-					readOffset += pitch;
+	/**
+	 * @param share Share of the voices.
+	 * @return Index of the first voice of the share in this pass.
+	 */
+	int shareStart(final int share) {
+		return (int) ((long) passVoices * share / (workers.length + 1));
+	}
+
+	/**
+	 * Mix a worker's share of the pass into its own buffer, runs on the worker's thread.
+	 *
+	 * @param worker Worker mixing the share.
+	 */
+	void mixShare(final MixWorker worker) {
+		Arrays.fill(worker.buffer, 0, passFrames * 2, 0.0f);
+		mixVoices(shareStart(worker.share), shareStart(worker.share + 1), worker.buffer, worker.scratch, passFrames);
+	}
+
+	/**
+	 * Called by a worker when its share is mixed, the last one wakes the thread running the pass.
+	 */
+	void shareDone() {
+		if (sharesPending.decrementAndGet() == 0) {
+			LockSupport.unpark(passThread);
+		}
+	}
+
+	/**
+	 * Stop the parallel mixing workers and wait for them, call once the mixing thread has stopped.
+	 */
+	void stopWorkers() {
+		if (workers == null) { return; }
+		for (final MixWorker worker : workers) {
+			worker.thread.interrupt();
+		}
+		for (final MixWorker worker : workers) {
+			join(worker.thread);
+		}
+	}
+
+	/**
+	 * Wait for a mixing thread to end, keeping the caller's interrupt for later.
+	 */
+	static void join(final Thread thread) {
+		boolean interrupted = false;
+		while (thread.isAlive()) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Mix a range of voices quantum by quantum.
+	 *
+	 * @param from    First voice.
+	 * @param to      End of the voices (exclusive).
+	 * @param out     Buffer the voices are added into.
+	 * @param scratch Source frames scratch for the resampler.
+	 * @param frames  How many stereo frames are we processing this pass.
+	 */
+	void mixVoices(final int from, final int to, final float[] out, final float[] scratch, final int frames) {
+		for (int frame = 0; frame < frames; frame += quantumFrames) {
+			mixQuantum(from, to, out, scratch, frame * 2, Math.min(quantumFrames, frames - frame));
+		}
+	}
+
+	/**
+	 * Mix one quantum of a range of voices.<br>
+	 * Each source advances its fixed point playback position by its pitch every output frame, so
+	 * pitched and doppler shifted sources stay continuous across quanta and passes.
+	 *
+	 * @param from      First voice.
+	 * @param to        End of the voices (exclusive).
+	 * @param out       Buffer the voices are added into.
+	 * @param scratch   Source frames scratch for the resampler.
+	 * @param mixOffset First sample of the quantum in the buffer.
+	 * @param frames    Number of stereo frames in the quantum, at most {@link #quantumFrames}.
+	 */
+	void mixQuantum(final int from, final int to, final float[] out, final float[] scratch, final int mixOffset, final int frames) {
+		try {
+			// NOTE: Nothing in this loop may allocate, it runs every quantum for every source.
+			final SourcePool pool = this.pool;
+			final int[] slots = voices;
+
+			// Panning, distance and doppler for the whole range first, tight loops over the pool.
+			AudioUtilities.computeLeftRightGains(mixContext, mixContext.listener, pool, slots, from, to);
+			AudioUtilities.computeDistanceRolloff(mixContext, mixContext.listener, pool, slots, from, to);
+			AudioUtilities.computeDopplerShift(mixContext, mixContext.listener, pool, slots, from, to);
+
+			for (int sourceIndex = from; sourceIndex < to; sourceIndex++) {
+				final int slot = slots[sourceIndex];
+				if (pool.state[slot] != SourcePool.PLAYING) { continue; }
+
+				final AudioBuffer buffer = voiceBuffer(slot);
+				if (buffer == null) { continue; }
+				final boolean stereo = buffer.channels != 1;
+
+				// Faded out earlier this pass, keeps time at the step it faded out on.
+				if (!pool.real[slot]) {
+					advance(slot, pool.playbackPosition[slot] + pool.rampStep[slot] * frames);
+					continue;
 				}
 
-				// Adjust and wrap the source position if looping, otherwise stop the source.
-				// NOTE: This adjusts the position by the 'samplesToWrite' which is the preferred step.
-				source.byteOffset += samplesToWrite;
-				if (source.byteOffset >= buffer.data.length) {
-					if (source.looping) { // Wrap
-						source.byteOffset %= buffer.data.length;
-					} else {
-						source.state = AL.AL_STOPPED;
-					}
+				// Capture the initial, panning and distance gains, a voice turning virtual fades to silence
+				final float gainInit = pool.demoting[slot] ? 0.0f : pool.gain[slot];
+				final float gainDist = pool.distanceGain[slot];
+
+				// Compute the source pitch by the computed doppler pitch shift, as fixed point frames per output frame.
+				final long step = pitchStep(slot);
+
+				// Compute the overall gain from initial, distance and panning, stereo buffers are not positioned
+				final float gainL = stereo ? gainInit : pool.panningGain[slot * 2] * gainInit * gainDist;
+				final float gainR = stereo ? gainInit : pool.panningGain[slot * 2 + 1] * gainInit * gainDist;
+
+				// Ramp from where the last quantum ended, a source just started begins at its targets
+				// and a voice that was virtual fades in from silence.
+				final float[] rampGain = pool.rampGain;
+				if (!pool.rampValid[slot]) {
+					rampGain[slot * 2] = pool.fadeIn[slot] ? 0.0f : gainL;
+					rampGain[slot * 2 + 1] = pool.fadeIn[slot] ? 0.0f : gainR;
+					pool.rampStep[slot] = step;
+					pool.rampValid[slot] = true;
+					pool.fadeIn[slot] = false;
+				}
+				final float gainLDelta = (gainL - rampGain[slot * 2]) / frames;
+				final float gainRDelta = (gainR - rampGain[slot * 2 + 1]) / frames;
+				final long stepDelta = (step - pool.rampStep[slot]) / frames;
+				final long stepStart = pool.rampStep[slot] + stepDelta;
+
+				// Gather the frames this quantum reads, plus the resampler padding, then resample them into the mix.
+				// NOTE: Frames past the buffer playing come from the buffers queued after it, past the end
+				// of the queue of a source that is not looping the scratch holds silence.
+				final Resampler resampler = Resampler.ALL[pool.resampler[slot]];
+				final long position = pool.playbackPosition[slot];
+				final long cursor = (position & Resampler.FRACTION_MASK) + ((long) resampler.padding << Resampler.FRACTION_BITS);
+				final int first = (int) (position >>> Resampler.FRACTION_BITS) - resampler.padding;
+				final int count = (int) ((cursor + rampAdvance(stepStart, stepDelta, frames - 1)) >>> Resampler.FRACTION_BITS) + resampler.padding + 1;
+				fetchFrames(pool.queue[slot], pool.bufferIndex[slot], pool.looping[slot], first, count, scratch, buffer.channels);
+				if (!stereo) {
+					resampler.mix(scratch, cursor, stepStart, stepDelta, out, mixOffset, frames,
+						rampGain[slot * 2] + gainLDelta, rampGain[slot * 2 + 1] + gainRDelta, gainLDelta, gainRDelta);
+				} else if (stepStart == Resampler.FRACTION_ONE && stepDelta == 0 && (cursor & Resampler.FRACTION_MASK) == 0) {
+					// Unity step on a frame boundary, the frames are copied straight into the mix.
+					Resampler.POINT.mixStereo(scratch, cursor, stepStart, 0, out, mixOffset, frames,
+						rampGain[slot * 2] + gainLDelta, rampGain[slot * 2 + 1] + gainRDelta, gainLDelta, gainRDelta);
+				} else {
+					resampler.mixStereo(scratch, cursor, stepStart, stepDelta, out, mixOffset, frames,
+						rampGain[slot * 2] + gainLDelta, rampGain[slot * 2 + 1] + gainRDelta, gainLDelta, gainRDelta);
+				}
+
+				rampGain[slot * 2] = gainL;
+				rampGain[slot * 2 + 1] = gainR;
+				pool.rampStep[slot] = stepStart + stepDelta * (frames - 1);
+				if (pool.demoting[slot]) {
+					pool.demoting[slot] = false;
+					pool.real[slot] = false;
+					pool.rampValid[slot] = false;
 				}
+
+				advance(slot, position + rampAdvance(stepStart, stepDelta, frames));
 			}
 		} catch (Exception ex) {
-			Log.e(TAG, String.format("mixActiveSounds: %s", ex.getMessage()));
+			Log.e(TAG, "mixActiveSounds: " + ex.getMessage());
+		}
+	}
+
+	/**
+	 * Move a source to its new playback position, moving on through its queue past the end of the
+	 * buffer playing.  Past the end of the queue the source wraps to the first buffer if looping,
+	 * otherwise it stops with every buffer processed.
+	 *
+	 * @param slot     Slot of the source being advanced.
+	 * @param position New fixed point playback position in the buffer playing.
+	 */
+	void advance(final int slot, final long position) {
+		long end = (long) pool.buffer[slot].frames << Resampler.FRACTION_BITS;
+		pool.playbackPosition[slot] = position;
+		if (position < end) { return; }
+
+		final BufferQueue queue = pool.queue[slot];
+		final boolean looping = pool.looping[slot];
+		if (looping && queue.size() == 1) {
+			pool.playbackPosition[slot] %= end;
+			return;
+		}
+
+		// NOTE: Queued buffers are never empty, so this ends.
+		long remaining = position;
+		int number = pool.bufferIndex[slot];
+		while (remaining >= end) {
+			remaining -= end;
+			if (++number == queue.end) {
+				if (!looping) {
+					pool.playbackPosition[slot] = 0;
+					pool.rampValid[slot] = false;
+					pool.state[slot] = SourcePool.STOPPED;
+					pool.selectBuffer(slot, queue.end);
+					pool.publishState(slot);
+					return;
+				}
+				number = queue.first;
+			}
+			end = (long) queue.get(number).frames << Resampler.FRACTION_BITS;
+		}
+		pool.playbackPosition[slot] = remaining;
+		pool.selectBuffer(slot, number);
+	}
+
+	/**
+	 * Fixed point distance covered by frames output frames when the step starts at stepStart and
+	 * changes by stepDelta every frame.
+	 */
+	static long rampAdvance(final long stepStart, final long stepDelta, final int frames) {
+		return stepStart * frames + stepDelta * ((long) frames * (frames - 1) / 2);
+	}
+
+	/**
+	 * Decode count source frames starting at first into dst.  Frames before or past the buffer playing
+	 * come from the buffers queued before or after it, wrapping around the queue when looping and
+	 * reading silence outside of it otherwise.
+	 *
+	 * @param queue    Buffers queued on the source
+	 * @param number   Number of the buffer playing, first is relative to its start
+	 * @param looping  Wrap instead of padding with silence
+	 * @param first    First frame to copy, may be negative or past the end
+	 * @param count    Number of frames to copy
+	 * @param dst      Destination, starting at index 0, channels interleaved
+	 * @param channels Channels of the queued buffers
+	 */
+	static void fetchFrames(final BufferQueue queue, final int number, final boolean looping, final int first, final int count, final float[] dst, final int channels) {
+		int current = number;
+		AudioBuffer buffer = queue.get(current);
+		if (first >= 0 && first + count <= buffer.frames) { // All in the buffer playing
+			buffer.read(first, dst, 0, count);
+			return;
+		}
+
+		// Walk back to the buffer holding the first frame.
+		int index = first;
+		int dstIndex = 0;
+		while (index < 0) {
+			if (current - queue.first > 0) {
+				current--;
+			} else if (looping) {
+				current = queue.end - 1;
+			} else { // Before the start of the queue
+				dstIndex = Math.min(count, -index);
+				Arrays.fill(dst, 0, dstIndex * channels, 0.0f);
+				index = 0;
+				break;
+			}
+			buffer = queue.get(current);
+			index += buffer.frames;
+		}
+
+		while (dstIndex < count) {
+			if (index < buffer.frames) {
+				final int copied = Math.min(count - dstIndex, buffer.frames - index);
+				buffer.read(index, dst, dstIndex, copied);
+				dstIndex += copied;
+				index += copied;
+				continue;
+			}
+			index -= buffer.frames;
+			if (++current == queue.end) {
+				if (looping) {
+					current = queue.first;
+				} else {
+					Arrays.fill(dst, dstIndex * channels, count * channels, 0.0f);
+					return;
+				}
+			}
+			buffer = queue.get(current);
 		}
 	}
 
@@ -267,7 +900,9 @@ class AudioMixer {
 		updateNanoTime = thisNanoTime;
 
 		StringBuilder states = new StringBuilder();
-		for (AudioSource source : context.sources.values()) {
+		for (int index = 0; index < context.sources.used; index++) {
+			final AudioSource source = context.sources.valueAt(index);
+			if (source == null) { continue; }
 			switch (source.state) {
 				case AL_INITIAL:
 					states.append("I");
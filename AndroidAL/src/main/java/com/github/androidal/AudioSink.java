@@ -0,0 +1,75 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+/**
+ * Output endpoint the mixer renders into.  Samples are interleaved stereo floats in the -1.0 to 1.0
+ * range where even indexes are the left channel and odd indexes the right channel.
+ * <p>
+ * This is a package private interface as its only needed in this library.
+ */
+interface AudioSink {
+	/**
+	 * @return Audio session of the sink, or 0 if the sink is not backed by hardware.
+	 */
+	int getSessionId();
+
+	/**
+	 * @return Output sample rate in Hz.
+	 */
+	int getSampleRate();
+
+	/**
+	 * @return Size of the output buffer in bytes.
+	 */
+	int getBufferSizeInBytes();
+
+	/**
+	 * @return Number of frames consumed by the output since it started playing.
+	 */
+	long getPlaybackHeadPosition();
+
+	/**
+	 * Write samples to the output.
+	 *
+	 * @param data     Interleaved stereo samples.
+	 * @param offset   Offset in data to start at.
+	 * @param length   Number of samples (not frames) to write.
+	 * @param blocking Wait until the output has room for all the samples, otherwise write what fits.
+	 * @return Number of samples written, which may be less than length, or a negative value on error.
+	 */
+	int write(float[] data, int offset, int length, boolean blocking);
+
+	/**
+	 * Start consuming samples.
+	 */
+	void play();
+
+	/**
+	 * Stop consuming samples.
+	 */
+	void stop();
+
+	/**
+	 * Discard any samples written but not yet consumed.
+	 */
+	void flush();
+
+	/**
+	 * Release any resources held by the sink.
+	 */
+	void release();
+}
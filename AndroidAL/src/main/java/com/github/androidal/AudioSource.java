@@ -18,14 +18,30 @@ package com.github.androidal;
 /**
  * Simulate an OpenAL source object.  This houses the data and length information for playing audio.
  * <p>
+ * This is the copy the API reads and writes, the mixer keeps its own copy in its {@link SourcePool}
+ * at {@link #slot}.  Every change is forwarded to the pool through the mixer's {@link CommandRing},
+ * the mixer publishes the state back through {@link #status}.
+ * <p>
  * This is a package private class as its only needed in this class.
  */
 class AudioSource {
 	int id = 0;
+	/**
+	 * slot of the mixer's copy in its SourcePool
+	 */
+	final int slot;
 	/**
 	 * the ID of the attached buffer : Access via AL_BUFFER
 	 */
 	int bufferId = 0;
+	/**
+	 * the buffers attached or queued, in play order : Access via AL_BUFFERS_QUEUED
+	 */
+	final BufferQueue queue = new BufferQueue();
+	/**
+	 * number of the queued buffer the mixer is playing, the buffers before it are processed : Access via AL_BUFFERS_PROCESSED
+	 */
+	volatile int buffersPlayed = 0;
 	/**
 	 * the state of the source (AL_STOPPED, AL_PLAYING, …) : Access via AL_SOURCE_STATE
 	 */
@@ -93,15 +109,25 @@ class AudioSource {
 	/**
 	 * the source type – AL_UNDETERMINED, AL_STATIC, or AL_STREAMING : Access via AL_SOURCE_TYPE
 	 */
-	AL sourceType = AL.AL_STATIC;
+	AL sourceType = AL.AL_UNDETERMINED;
+	/**
+	 * interpolation used when playing back at a pitch : Access via AL_SOURCE_RESAMPLER_SOFT
+	 */
+	Resampler resampler = Resampler.DEFAULT;
 	/**
-	 * the playback position, expressed in bytes : Access via AL_BYTE_OFFSET
+	 * serial of the last state change, incremented by the API and carried to the mixer with the change
 	 */
-	int byteOffset = 0;
+	int stateSerial = 0;
+	/**
+	 * serial of the last state change that rewound the source
+	 */
+	int rewindSerial = 0;
+	/**
+	 * state serial (high 32 bits) and state value (low 32 bits) last applied by the mixer
+	 */
+	volatile long status = AL.AL_INITIAL.value();
 	//	AL_SEC_OFFSET f, fv, i, iv the playback position, expressed in seconds
 	//	AL_SAMPLE_OFFSET f, fv, i, iv the playback position, expressed in samples
-	//	AL_BUFFERS_QUEUED* i, iv the number of buffers queued on this source
-	//	AL_BUFFERS_PROCESSED* i, iv the number of buffers in the queue that have been processed
 
 	// -------------------------------------------------------------------------
 	// Constructors
@@ -110,8 +136,149 @@ class AudioSource {
 	 * Create a new source.
 	 *
 	 * @param sourceId Id of the source created..
+	 * @param slot     Slot of the mixer's copy.
 	 */
-	AudioSource(final int sourceId) {
+	AudioSource(final int sourceId, final int slot) {
 		this.id = sourceId;
+		this.slot = slot;
+	}
+
+	// -------------------------------------------------------------------------
+	// Parameters
+
+	/**
+	 * Set a float parameter.
+	 *
+	 * @param param the parameter to modify.
+	 * @param value the parameter value
+	 * @return false if the parameter is not a float source parameter.
+	 */
+	boolean setFloat(final AL param, final float value) {
+		switch (param) {
+			case AL_PITCH:
+				pitch = value;
+				return true;
+			case AL_GAIN:
+				gain = value;
+				return true;
+			case AL_MIN_GAIN:
+				gainMin = value;
+				return true;
+			case AL_MAX_GAIN:
+				gainMax = value;
+				return true;
+			case AL_MAX_DISTANCE:
+				maxDistance = value;
+				return true;
+			case AL_ROLLOFF_FACTOR:
+				rollOffFactor = value;
+				return true;
+			case AL_CONE_OUTER_GAIN:
+				coneOuterGain = value;
+				return true;
+			case AL_CONE_INNER_ANGLE:
+				coneInnerAngle = value;
+				return true;
+			case AL_CONE_OUTER_ANGLE:
+				coneOuterAngle = value;
+				return true;
+			case AL_REFERENCE_DISTANCE:
+				referenceDistance = value;
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * Set a 3D float parameter.
+	 *
+	 * @param param the parameter to modify.
+	 * @return false if the parameter is not a vector source parameter.
+	 */
+	boolean setVector(final AL param, final float v1, final float v2, final float v3) {
+		final float[] vector;
+		switch (param) {
+			case AL_POSITION:
+				vector = position;
+				break;
+			case AL_VELOCITY:
+				vector = velocity;
+				break;
+			case AL_DIRECTION:
+				vector = direction;
+				break;
+			default:
+				return false;
+		}
+		vector[0] = v1;
+		vector[1] = v2;
+		vector[2] = v3;
+		return true;
+	}
+
+	/**
+	 * Set the position, velocity and direction at once.
+	 *
+	 * @param values position, velocity and direction, 9 floats from offset
+	 * @param offset index of the position's x
+	 */
+	void setTransform(final float[] values, final int offset) {
+		position[0] = values[offset];
+		position[1] = values[offset + 1];
+		position[2] = values[offset + 2];
+		velocity[0] = values[offset + 3];
+		velocity[1] = values[offset + 4];
+		velocity[2] = values[offset + 5];
+		direction[0] = values[offset + 6];
+		direction[1] = values[offset + 7];
+		direction[2] = values[offset + 8];
+	}
+
+	/**
+	 * Set an integer parameter, values are validated by the caller.
+	 *
+	 * @param param the parameter to modify.
+	 * @param value the parameter value
+	 * @return false if the parameter is not an integer source parameter.
+	 */
+	boolean setInt(final AL param, final int value) {
+		switch (param) {
+			case AL_LOOPING:
+				looping = (value == 1);
+				return true;
+			case AL_SOURCE_RESAMPLER_SOFT:
+				resampler = Resampler.ALL[value];
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * The buffers at the front of the queue the mixer has finished playing, these can be unqueued.
+	 *
+	 * @return number of processed buffers
+	 */
+	int buffersProcessed() {
+		if (looping || sourceType != AL.AL_STREAMING) { return 0; }
+		final long mixerStatus = status; // The mixer publishes the buffer played before the status
+		if ((int) (mixerStatus >>> 32) - rewindSerial < 0) { return 0; } // Rewind not applied yet
+		final int processed = buffersPlayed - queue.first;
+		return (processed < 0) ? 0 : Math.min(processed, queue.size());
+	}
+
+	/**
+	 * The state including changes made by the mixer, such as stopping at the end of
+	 * the buffer, once the mixer has applied the last state change made by the API.
+	 *
+	 * @return current state
+	 */
+	AL currentState() {
+		final long mixerStatus = status;
+		if ((int) (mixerStatus >>> 32) == stateSerial) {
+			state = AL.getEnum((int) mixerStatus);
+		}
+		return state;
 	}
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import android.media.AudioAttributes;
+import android.media.AudioFormat;
+import android.media.AudioTrack;
+import android.util.Log;
+
+/**
+ * Hardware output using an Android AudioTrack in streaming mode.
+ */
+class AudioTrackSink implements AudioSink {
+	static final String TAG = "AndroidAL";
+
+	final int sampleRate;
+	final int bufferSizeInBytes;
+	final AudioTrack audioTrack;
+
+	AudioTrackSink() {
+		// Query hardware specifics (Output sample rate and suggested minimum buffer size)
+		sampleRate = AudioTrack.getNativeOutputSampleRate(AudioTrack.MODE_STREAM);
+		// Suggested minimum size to write
+		int minBufferSizeInBytes = AudioTrack.getMinBufferSize(
+			sampleRate,
+			AudioFormat.CHANNEL_OUT_STEREO,
+			AudioFormat.ENCODING_PCM_FLOAT);
+		Log.i(TAG, String.format("Device default output sample rate in bytes per sec: %d", sampleRate));
+		Log.i(TAG, String.format("Device default minimum buffer size in bytes: %d", minBufferSizeInBytes));
+
+		// Correct for a default minimum size of 32k bytes
+		bufferSizeInBytes = Math.max(minBufferSizeInBytes, 32 * 1024); // 32k min
+		Log.i(TAG, String.format("Device adjusted buffer size in bytes: %d", bufferSizeInBytes));
+
+		// Create the object where samples will be written, based on hardware data.
+		audioTrack = new AudioTrack.Builder()
+			.setAudioAttributes(new AudioAttributes.Builder()
+				.setUsage(AudioAttributes.USAGE_GAME)
+				.setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
+				.build())
+			.setAudioFormat(new AudioFormat.Builder()
+				.setEncoding(AudioFormat.ENCODING_PCM_FLOAT)
+				.setSampleRate(sampleRate) // This 'could' be an attribute
+				.setChannelMask(AudioFormat.CHANNEL_OUT_STEREO) // Problem if only mono capable???
+				.build())
+			.setBufferSizeInBytes(bufferSizeInBytes)
+			.setPerformanceMode(AudioTrack.PERFORMANCE_MODE_LOW_LATENCY)
+			.setTransferMode(AudioTrack.MODE_STREAM)
+			.build();
+	}
+
+	@Override
+	public int getSessionId() { return audioTrack.getAudioSessionId(); }
+
+	@Override
+	public int getSampleRate() { return sampleRate; }
+
+	@Override
+	public int getBufferSizeInBytes() { return bufferSizeInBytes; }
+
+	@Override
+	public long getPlaybackHeadPosition() { return Integer.toUnsignedLong(audioTrack.getPlaybackHeadPosition()); }
+
+	@Override
+	public int write(final float[] data, final int offset, final int length, final boolean blocking) {
+		return audioTrack.write(data, offset, length, blocking ? AudioTrack.WRITE_BLOCKING : AudioTrack.WRITE_NON_BLOCKING);
+	}
+
+	@Override
+	public void play() { audioTrack.play(); } // Actually doesn't start until data is written
+
+	@Override
+	public void stop() { audioTrack.stop(); }
+
+	@Override
+	public void flush() { audioTrack.flush(); }
+
+	@Override
+	public void release() { audioTrack.release(); }
+}
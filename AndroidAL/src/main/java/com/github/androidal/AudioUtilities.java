@@ -18,11 +18,16 @@ package com.github.androidal;
 import android.annotation.SuppressLint;
 import android.util.Log;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+
 class AudioUtilities {
 	static final String TAG = "AndroidAL";
-
-	// Performance variable(s)...
-	static final float[] temp1 = new float[3];
+	static final int CONVERT_FRAMES = 1024; // Frames resampled per kernel call while converting
+	static final int READ_SAMPLES = 4096; // Samples bulk read from a buffer at a time while converting
 
 	/**
 	 * Resample an 8 bit mono source to the native sample rate of the output device.
@@ -30,28 +35,73 @@ class AudioUtilities {
 	 * @param data      Data to resample.
 	 * @param frequency Data current frequency(sample rate).
 	 */
-	@SuppressLint("DefaultLocale")
 	static float[] resample8bit(final byte[] data, final int frequency, final float defaultOutputSampleRate) {
+		return resample8bit(ByteBuffer.wrap(data), frequency, defaultOutputSampleRate, 1);
+	}
+
+	/**
+	 * Resample an 8 bit source with interleaved channels to the native sample rate of the output device.
+	 *
+	 * @param data      Data to resample.
+	 * @param frequency Data current frequency(sample rate).
+	 * @param channels  Channels interleaved in the data, kept interleaved.
+	 */
+	static float[] resample8bit(final byte[] data, final int frequency, final float defaultOutputSampleRate, final int channels) {
+		return resample8bit(ByteBuffer.wrap(data), frequency, defaultOutputSampleRate, channels);
+	}
+
+	/**
+	 * Resample 8 bit samples with interleaved channels to the native sample rate of the output device,
+	 * read in place from the buffer's position to its limit.
+	 *
+	 * @param data      Data to resample, heap or direct, its position is left as it is.
+	 * @param frequency Data current frequency(sample rate).
+	 * @param channels  Channels interleaved in the data, kept interleaved.
+	 */
+	@SuppressLint("DefaultLocale")
+	static float[] resample8bit(final ByteBuffer data, final int frequency, final float defaultOutputSampleRate, final int channels) {
 		// Calculate the sample rate conversion and stop sizes
-		final int sampleCount = data.length;
+		final int offset = data.position();
+		final int frameCount = data.remaining() / channels;
 		final double frequencyAdj = defaultOutputSampleRate / frequency;
 		final double adjIndex = frequency / defaultOutputSampleRate;
-		Log.d(TAG, String.format("Convert 8bit to %f from %d, multiply by %f",
-			defaultOutputSampleRate, frequency, frequencyAdj));
+		Log.d(TAG, String.format("Convert 8bit x%d to %f from %d, multiply by %f",
+			channels, defaultOutputSampleRate, frequency, frequencyAdj));
 
 		// Dereference source buffer and allocation destination buffer
-		float[] sampleData = new float[(int) (sampleCount * frequencyAdj)];
+		float[] sampleData = new float[(int) (frameCount * frequencyAdj) * channels];
 
 		// Calculate the inverse of the scalar to avoid division in inner loop
 		final float scalar = (1.0f / (Byte.MAX_VALUE + 1));
 
 		// Perform the actual resampling and conversion to float as required
-		double srcIndex = 0; // Index in source
+		// NOTE: Bulk reads into a small array, a get per sample is a virtual call on every buffer type.
+		final ByteBuffer source = data.duplicate();
+		final byte[] read = new byte[READ_SAMPLES];
+		final int readFrames = READ_SAMPLES / channels;
+		int readFirst = 0; // Frame in source of read[0]
+		int readEnd = 0; // Frame in source past the last frame read
+		double srcIndex = 0; // Frame in source
 		int dstIndex = 0; // Index in destination
 		int sample; // Working sample
 		while (dstIndex < sampleData.length) {
-			sample = Utilities.byte2Int(data[(int) srcIndex]);
-			sampleData[dstIndex++] = scalar * sample; // Float conversion
+			final int frame = (int) srcIndex;
+			if (frame >= readEnd) {
+				readFirst = frame;
+				readEnd = Math.min(frameCount, frame + readFrames);
+				source.position(offset + frame * channels);
+				source.get(read, 0, (readEnd - readFirst) * channels);
+			}
+			final int index = (frame - readFirst) * channels;
+			if (channels == 1) { // The common case, without the loop
+				sample = Utilities.byte2Int(read[index]);
+				sampleData[dstIndex++] = scalar * sample; // Float conversion
+			} else {
+				for (int channel = 0; channel < channels; channel++) {
+					sample = Utilities.byte2Int(read[index + channel]);
+					sampleData[dstIndex++] = scalar * sample; // Float conversion
+				}
+			}
 			srcIndex += adjIndex; // Move to next resample position
 		}
 
@@ -59,39 +109,178 @@ class AudioUtilities {
 	}
 
 	/**
-	 * Resample a 16 bit mono source to the native sample rate of the output device.
+	 * Resample a 16 bit little endian mono source to the native sample rate of the output device.
 	 *
 	 * @param data      Data to resample.
 	 * @param frequency Data current frequency(sample rate).
 	 */
-	@SuppressLint("DefaultLocale")
 	static float[] resample16bit(final byte[] data, final int frequency, final float defaultOutputSampleRate) {
+		return resample16bit(data, frequency, defaultOutputSampleRate, 1);
+	}
+
+	/**
+	 * Resample a 16 bit little endian source with interleaved channels to the native sample rate of the output device.
+	 *
+	 * @param data      Data to resample.
+	 * @param frequency Data current frequency(sample rate).
+	 * @param channels  Channels interleaved in the data, kept interleaved.
+	 */
+	static float[] resample16bit(final byte[] data, final int frequency, final float defaultOutputSampleRate, final int channels) {
+		return resample16bit(ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer(), frequency, defaultOutputSampleRate, channels);
+	}
+
+	/**
+	 * Resample 16 bit samples with interleaved channels to the native sample rate of the output device,
+	 * read in place from the buffer's position to its limit.
+	 *
+	 * @param data      Data to resample, heap, direct or a view of a ByteBuffer in its byte order, its position is left as it is.
+	 * @param frequency Data current frequency(sample rate).
+	 * @param channels  Channels interleaved in the data, kept interleaved.
+	 */
+	@SuppressLint("DefaultLocale")
+	static float[] resample16bit(final ShortBuffer data, final int frequency, final float defaultOutputSampleRate, final int channels) {
 		// Calculate the sample rate conversion and stop sizes
-		final int sampleCount = data.length / 2;
+		final int offset = data.position();
+		final int frameCount = data.remaining() / channels;
 		final double frequencyAdj = defaultOutputSampleRate / frequency;
 		final double adjIndex = frequency / defaultOutputSampleRate;
-		Log.d(TAG, String.format("Convert 16bit to %f from %d, multiply by %f",
-			defaultOutputSampleRate, frequency, frequencyAdj));
+		Log.d(TAG, String.format("Convert 16bit x%d to %f from %d, multiply by %f",
+			channels, defaultOutputSampleRate, frequency, frequencyAdj));
 
 		// Dereference source buffer and allocation destination buffer
-		float[] sampleData = new float[(int) (sampleCount * frequencyAdj)];
+		float[] sampleData = new float[(int) (frameCount * frequencyAdj) * channels];
 
 		// Calculate the inverse of the scalar to avoid division in inner loop
 		final float scalar = (1.0f / Short.MAX_VALUE);
 
 		// Perform the actual resampling and conversion to float as required
-		double srcIndex = 0; // Index in source
+		// NOTE: Bulk reads into a small array, the byte order is swapped there if needed.
+		final ShortBuffer source = data.duplicate();
+		final short[] read = new short[READ_SAMPLES];
+		final int readFrames = READ_SAMPLES / channels;
+		int readFirst = 0; // Frame in source of read[0]
+		int readEnd = 0; // Frame in source past the last frame read
+		double srcIndex = 0; // Frame in source
 		int dstIndex = 0; // Index in destination
-		int sample; // Working sample
 		while (dstIndex < sampleData.length) {
-			sample = Utilities.swapShort(data, (int) (srcIndex) << 1); // << 1 == * 2
-			sampleData[dstIndex++] = scalar * sample; // Float conversion
+			final int frame = (int) srcIndex;
+			if (frame >= readEnd) {
+				readFirst = frame;
+				readEnd = Math.min(frameCount, frame + readFrames);
+				source.position(offset + frame * channels);
+				source.get(read, 0, (readEnd - readFirst) * channels);
+			}
+			final int index = (frame - readFirst) * channels;
+			if (channels == 1) { // The common case, without the loop
+				sampleData[dstIndex++] = scalar * read[index]; // Float conversion
+			} else {
+				for (int channel = 0; channel < channels; channel++) {
+					sampleData[dstIndex++] = scalar * read[index + channel]; // Float conversion
+				}
+			}
 			srcIndex += adjIndex; // Move to next resample position
 		}
 
 		return sampleData;
 	}
 
+	/**
+	 * Resample 32 bit float samples (AL_EXT_FLOAT32) with interleaved channels to the native sample rate
+	 * of the output device, read in place from the buffer's position to its limit.
+	 *
+	 * @param data      Data to resample, heap, direct or a view of a ByteBuffer in its byte order, its position is left as it is.
+	 * @param frequency Data current frequency(sample rate).
+	 * @param channels  Channels interleaved in the data, kept interleaved.
+	 */
+	@SuppressLint("DefaultLocale")
+	static float[] resampleFloat(final FloatBuffer data, final int frequency, final float defaultOutputSampleRate, final int channels) {
+		final int offset = data.position();
+		final int frameCount = data.remaining() / channels;
+		final double frequencyAdj = defaultOutputSampleRate / frequency;
+		final double adjIndex = frequency / defaultOutputSampleRate;
+		Log.d(TAG, String.format("Convert float x%d to %f from %d, multiply by %f",
+			channels, defaultOutputSampleRate, frequency, frequencyAdj));
+
+		float[] sampleData = new float[(int) (frameCount * frequencyAdj) * channels];
+		if (frequency == defaultOutputSampleRate) { // Straight bulk copy
+			data.duplicate().get(sampleData);
+			return sampleData;
+		}
+
+		final FloatBuffer source = data.duplicate();
+		final float[] read = new float[READ_SAMPLES];
+		final int readFrames = READ_SAMPLES / channels;
+		int readFirst = 0; // Frame in source of read[0]
+		int readEnd = 0; // Frame in source past the last frame read
+		double srcIndex = 0; // Frame in source
+		int dstIndex = 0; // Index in destination
+		while (dstIndex < sampleData.length) {
+			final int frame = (int) srcIndex;
+			if (frame >= readEnd) {
+				readFirst = frame;
+				readEnd = Math.min(frameCount, frame + readFrames);
+				source.position(offset + frame * channels);
+				source.get(read, 0, (readEnd - readFirst) * channels);
+			}
+			final int index = (frame - readFirst) * channels;
+			if (channels == 1) { // The common case, without the loop
+				sampleData[dstIndex++] = read[index];
+			} else {
+				for (int channel = 0; channel < channels; channel++) {
+					sampleData[dstIndex++] = read[index + channel];
+				}
+			}
+			srcIndex += adjIndex; // Move to next resample position
+		}
+
+		return sampleData;
+	}
+
+	/**
+	 * Resample mono or interleaved stereo samples to another rate with one of the mixer's resamplers.<br>
+	 * The kernels only mix into interleaved stereo, so mono samples are rendered at unity gain into the
+	 * left channel of a small stereo chunk and copied out, stereo samples are rendered straight into it.
+	 *
+	 * @param samples    Samples to resample.
+	 * @param frequency  Samples current frequency(sample rate).
+	 * @param outputRate Sample rate to convert to.
+	 * @param resampler  Interpolation used.
+	 * @param channels   Channels interleaved in the samples, 1 or 2.
+	 */
+	@SuppressLint("DefaultLocale")
+	static float[] resample(final float[] samples, final int frequency, final int outputRate, final Resampler resampler, final int channels) {
+		final double frequencyAdj = (double) outputRate / frequency;
+		Log.d(TAG, String.format("Resample x%d to %d from %d with %s, multiply by %f",
+			channels, outputRate, frequency, resampler.description, frequencyAdj));
+
+		// Silence around the samples so the kernel never reads out of bounds
+		final int padding = resampler.padding;
+		final int frameCount = samples.length / channels;
+		final float[] padded = new float[(frameCount + padding * 2 + 1) * channels];
+		System.arraycopy(samples, 0, padded, padding * channels, samples.length);
+
+		final int outputFrames = (int) (frameCount * frequencyAdj);
+		final float[] sampleData = new float[outputFrames * channels];
+		final long step = (long) ((double) frequency / outputRate * Resampler.FRACTION_ONE);
+		final float[] chunk = new float[CONVERT_FRAMES * 2];
+		for (int frame = 0; frame < outputFrames; frame += CONVERT_FRAMES) {
+			final int frames = Math.min(CONVERT_FRAMES, outputFrames - frame);
+			final long cursor = ((long) padding << Resampler.FRACTION_BITS) + step * frame;
+			Arrays.fill(chunk, 0, frames * 2, 0.0f);
+			if (channels == 1) {
+				resampler.mix(padded, cursor, step, 0, chunk, 0, frames, 1.0f, 0.0f, 0.0f, 0.0f);
+				for (int i = 0; i < frames; i++) {
+					sampleData[frame + i] = chunk[i * 2];
+				}
+			} else {
+				resampler.mixStereo(padded, cursor, step, 0, chunk, 0, frames, 1.0f, 1.0f, 0.0f, 0.0f);
+				System.arraycopy(chunk, 0, sampleData, frame * 2, frames * 2);
+			}
+		}
+
+		return sampleData;
+	}
+
 	/**
 	 * Normalize the input array so that the min or max value is either -1 ot +1.<br>
 	 * This has the effect of making all the sound samples the same volume.
@@ -119,90 +308,120 @@ class AudioUtilities {
 	}
 
 	/**
-	 * Brute force calculation of left/right gains based on location data.
+	 * Brute force calculation of left/right gains based on location data, for each slot in slots[from..to).
 	 *
 	 * @param context Audio context for reference
 	 * @param listener Audio listener
-	 * @param source Audio source
-	 * @return 2D gains for left/right
+	 * @param pool Sources, the gains are stored in pool.panningGain
+	 * @param slots Slots of the sources to compute
+	 * @param from First index in slots
+	 * @param to End index in slots (exclusive)
 	 */
-	static float[] computeLeftRightGains(final AudioContext context, final AudioListener listener, final AudioSource source) {
-		// Compute the normalized direction vector to the sound source from listener.
-		// NOTE: This DOES NOT take into account vertical displacement.
-		Utilities.subtract(source.position, listener.position, temp1);
-		Utilities.normalize(temp1);
-
-		// DOT Product is the root for this algorithm
-		float dot = Utilities.dotProduct(temp1, listener.orientRt);
-
-		// Using the DOT result augment the left/right gains.
-		float[] panningGain = new float[]{ 1.0f, 1.0f }; // Assume center
-		if (dot < 0) {
-			panningGain[1] += dot; // Left side; reduce right (y)
-		} else if (dot > 0) {
-			panningGain[0] -= dot; // Right side; reduce left (x)
-		}
+	static void computeLeftRightGains(final AudioContext context, final AudioListener listener, final SourcePool pool, final int[] slots, final int from, final int to) {
+		final float[] positions = pool.position;
+		final float[] panningGains = pool.panningGain;
+		final float lx = listener.position[0], ly = listener.position[1], lz = listener.position[2];
+		final float rx = listener.orientRt[0], ry = listener.orientRt[1], rz = listener.orientRt[2];
 
-		return panningGain;
+		for (int i = from; i < to; i++) {
+			final int slot = slots[i];
+
+			// Compute the normalized direction vector to the sound source from listener.
+			// NOTE: This DOES NOT take into account vertical displacement.
+			float dx = positions[slot * 3] - lx;
+			float dy = positions[slot * 3 + 1] - ly;
+			float dz = positions[slot * 3 + 2] - lz;
+			final float d = 1.0f / (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+			dx *= d;
+			dy *= d;
+			dz *= d;
+
+			// DOT Product is the root for this algorithm
+			final float dot = dx * rx + dy * ry + dz * rz;
+
+			// Using the DOT result augment the left/right gains.
+			float left = 1.0f; // Assume center
+			float right = 1.0f;
+			if (dot < 0) {
+				right += dot; // Left side; reduce right (y)
+			} else if (dot > 0) {
+				left -= dot; // Right side; reduce left (x)
+			}
+			panningGains[slot * 2] = left;
+			panningGains[slot * 2 + 1] = right;
+		}
 	}
 
 	/**
-	 * Compute the roll-off distance - OpenAL formulas
+	 * Compute the roll-off distance - OpenAL formulas, for each slot in slots[from..to).
 	 *
 	 * @param context Audio context for reference
 	 * @param listener Audio listener
-	 * @param source Audio source
-	 * @return Gain at distance source - listener.
+	 * @param pool Sources, the gains at distance source - listener are stored in pool.distanceGain
+	 * @param slots Slots of the sources to compute
+	 * @param from First index in slots
+	 * @param to End index in slots (exclusive)
 	 */
-	static float computeDistanceRolloff(final AudioContext context, final AudioListener listener, final AudioSource source) {
-		if (context.AL_DISTANCE_MODEL.equals(AL.AL_NONE)) { return 1.0f; }
+	static void computeDistanceRolloff(final AudioContext context, final AudioListener listener, final SourcePool pool, final int[] slots, final int from, final int to) {
+		final float[] positions = pool.position;
+		final float[] distanceGains = pool.distanceGain;
+		final AL model = context.AL_DISTANCE_MODEL;
+		final float referenceDistance = context.AL_REFERENCE_DISTANCE;
+		final float rolloffFactor = context.AL_ROLLOFF_FACTOR;
+		final float maxDistance = context.AL_MAX_DISTANCE;
+		final float lx = listener.position[0], ly = listener.position[1], lz = listener.position[2];
 
-		Utilities.subtract(source.position, listener.position, temp1);
+		for (int i = from; i < to; i++) {
+			final int slot = slots[i];
+			if (model == AL.AL_NONE) {
+				distanceGains[slot] = 1.0f;
+				continue;
+			}
 
-		// Trap for source and emitter are the same.
-		final float lengthSquared = Utilities.dotProduct(temp1, temp1);
-		if (lengthSquared == 0) {
-			return 1.0f;
-		}
+			final float dx = positions[slot * 3] - lx;
+			final float dy = positions[slot * 3 + 1] - ly;
+			final float dz = positions[slot * 3 + 2] - lz;
 
-		float distance = Utilities.magnitude(temp1, temp1);
-		float gain;
-
-		switch (context.AL_DISTANCE_MODEL) {
-			case AL_INVERSE_DISTANCE_CLAMPED:
-				distance = Math.max(context.AL_REFERENCE_DISTANCE, Math.min(distance, context.AL_MAX_DISTANCE));
-				// Fall-through
-			case AL_INVERSE_DISTANCE:
-				gain = context.AL_REFERENCE_DISTANCE
-					/ (context.AL_REFERENCE_DISTANCE + context.AL_ROLLOFF_FACTOR * (distance - context.AL_REFERENCE_DISTANCE));
-				gain *= 10.0f; // Why?
-				break;
-			case AL_LINEAR_DISTANCE_CLAMPED:
-				distance = Math.max(context.AL_REFERENCE_DISTANCE, Math.min(distance, context.AL_MAX_DISTANCE));
-				// Fall-through
-			case AL_LINEAR_DISTANCE:
-				distance = Math.min(distance, context.AL_MAX_DISTANCE); // avoid negative gain
-				gain = (1.0f - context.AL_ROLLOFF_FACTOR * (distance - context.AL_REFERENCE_DISTANCE)
-					/ (context.AL_MAX_DISTANCE - context.AL_REFERENCE_DISTANCE));
-				break;
-			case AL_EXPONENT_DISTANCE_CLAMPED:
-				distance = Math.max(context.AL_REFERENCE_DISTANCE, Math.min(distance, context.AL_MAX_DISTANCE));
-				// Fall-through
-			case AL_EXPONENT_DISTANCE:
-				gain = (float) Math.pow((distance / context.AL_REFERENCE_DISTANCE), (-context.AL_ROLLOFF_FACTOR));
-				break;
-			case AL_NONE:
-			default:
-				gain = 1.0f;
-				break;
-		}
+			// Trap for source and emitter are the same.
+			final float lengthSquared = dx * dx + dy * dy + dz * dz;
+			if (lengthSquared == 0) {
+				distanceGains[slot] = 1.0f;
+				continue;
+			}
+
+			float distance = (float) Math.sqrt(lengthSquared);
+			float gain;
 
-//		Log.i(TAG, String.format("%s, %s, %s, %f, %f, %f",
-//			Arrays.toString(lPos),
-//			Arrays.toString(sPos),
-//			Arrays.toString(temp1),
-//			lengthSquared, distance, gain);
-		return gain;
+			switch (model) {
+				case AL_INVERSE_DISTANCE_CLAMPED:
+					distance = Math.max(referenceDistance, Math.min(distance, maxDistance));
+					// Fall-through
+				case AL_INVERSE_DISTANCE:
+					gain = referenceDistance
+						/ (referenceDistance + rolloffFactor * (distance - referenceDistance));
+					gain *= 10.0f; // Why?
+					break;
+				case AL_LINEAR_DISTANCE_CLAMPED:
+					distance = Math.max(referenceDistance, Math.min(distance, maxDistance));
+					// Fall-through
+				case AL_LINEAR_DISTANCE:
+					distance = Math.min(distance, maxDistance); // avoid negative gain
+					gain = (1.0f - rolloffFactor * (distance - referenceDistance)
+						/ (maxDistance - referenceDistance));
+					break;
+				case AL_EXPONENT_DISTANCE_CLAMPED:
+					distance = Math.max(referenceDistance, Math.min(distance, maxDistance));
+					// Fall-through
+				case AL_EXPONENT_DISTANCE:
+					gain = (float) Math.pow((distance / referenceDistance), (-rolloffFactor));
+					break;
+				case AL_NONE:
+				default:
+					gain = 1.0f;
+					break;
+			}
+			distanceGains[slot] = gain;
+		}
 	}
 
 	/**
@@ -262,33 +481,61 @@ class AudioUtilities {
 	 *
 	 * @param context Audio context for reference
 	 * @param listener Audio listener
-	 * @param source Audio source
-	 * @return Doppler shift (pitch from 1.0)
+	 * @param pool Sources, the doppler shifts (pitch from 1.0) are stored in pool.dopplerShift
+	 * @param slots Slots of the sources to compute
+	 * @param from First index in slots
+	 * @param to End index in slots (exclusive)
 	 */
-	static float computeDopplerShift(final AudioContext context, final AudioListener listener, final AudioSource source) {
+	static void computeDopplerShift(final AudioContext context, final AudioListener listener, final SourcePool pool, final int[] slots, final int from, final int to) {
+		final float[] dopplerShifts = pool.dopplerShift;
+
 		// Short circuit
-		if (context.AL_DOPPLER_FACTOR == 0.0f) { return 1.0f; }
+		if (context.AL_DOPPLER_FACTOR == 0.0f) {
+			for (int i = from; i < to; i++) {
+				dopplerShifts[slots[i]] = 1.0f;
+			}
+			return;
+		}
 
-		Utilities.subtract(source.position, listener.position, temp1);
-		float magnitude = Utilities.magnitude(temp1, temp1);
-		if (magnitude == 0) { return 1.0f; }
+		final float[] positions = pool.position;
+		final float[] velocities = pool.velocity;
+		final float dopplerFactor = context.AL_DOPPLER_FACTOR;
+		final float speedOfSoundRef = context.AL_SPEED_OF_SOUND;
+		final float lx = listener.position[0], ly = listener.position[1], lz = listener.position[2];
+		final float lvx = listener.velocity[0], lvy = listener.velocity[1], lvz = listener.velocity[2];
 
 		// Compute the speed of sound (through the medium) scaled by the factor.
-		float speedOfSound = context.AL_SPEED_OF_SOUND / context.AL_DOPPLER_FACTOR;
-
-		// Compute the doppler shift; returning a 'pitch' from 1.0 + or -.
-		float vls = (Utilities.dotProduct(temp1, listener.velocity) / magnitude) * -context.AL_DOPPLER_FACTOR;
-		float vss = (Utilities.dotProduct(temp1, source.velocity) / magnitude) * -context.AL_DOPPLER_FACTOR;
-
-		// Check for faster than speed of sound OR compute shift.
-		/* Listener moving away from the source at the speed of sound.
-		 * Sound waves can't catch it. */
-		if (vls > speedOfSound) { return 0.0f; }
-		/* Source moving toward the listener at the speed of sound. Sound
-		 * waves bunch up to extreme frequencies. */
-		if (vss > speedOfSound) { return Float.POSITIVE_INFINITY; }
-		/* Source and listener movement is nominal. Calculate the proper doppler shift.  */
-		return (context.AL_SPEED_OF_SOUND - (context.AL_DOPPLER_FACTOR * vls))
-			/ (context.AL_SPEED_OF_SOUND - (context.AL_DOPPLER_FACTOR * vss));
+		final float speedOfSound = speedOfSoundRef / dopplerFactor;
+
+		for (int i = from; i < to; i++) {
+			final int slot = slots[i];
+			final float dx = positions[slot * 3] - lx;
+			final float dy = positions[slot * 3 + 1] - ly;
+			final float dz = positions[slot * 3 + 2] - lz;
+			final float magnitude = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+			if (magnitude == 0) {
+				dopplerShifts[slot] = 1.0f;
+				continue;
+			}
+
+			// Compute the doppler shift; returning a 'pitch' from 1.0 + or -.
+			final float vls = ((dx * lvx + dy * lvy + dz * lvz) / magnitude) * -dopplerFactor;
+			final float vss = ((dx * velocities[slot * 3] + dy * velocities[slot * 3 + 1] + dz * velocities[slot * 3 + 2]) / magnitude) * -dopplerFactor;
+
+			// Check for faster than speed of sound OR compute shift.
+			if (vls > speedOfSound) {
+				/* Listener moving away from the source at the speed of sound.
+				 * Sound waves can't catch it. */
+				dopplerShifts[slot] = 0.0f;
+			} else if (vss > speedOfSound) {
+				/* Source moving toward the listener at the speed of sound. Sound
+				 * waves bunch up to extreme frequencies. */
+				dopplerShifts[slot] = Float.POSITIVE_INFINITY;
+			} else {
+				/* Source and listener movement is nominal. Calculate the proper doppler shift.  */
+				dopplerShifts[slot] = (speedOfSoundRef - (dopplerFactor * vls))
+					/ (speedOfSoundRef - (dopplerFactor * vss));
+			}
+		}
 	}
 }
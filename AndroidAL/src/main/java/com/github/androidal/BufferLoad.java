@@ -0,0 +1,103 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import android.util.Log;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Completion handle of alBufferDataAsyncAAL and alBufferDataBatchAAL.
+ * <p>
+ * The load is done once every buffer of the call is converted or has failed.  A buffer that is
+ * done can be attached and queued, buffers still loading are rejected with AL_INVALID_OPERATION.
+ * Errors raised while converting are kept here rather than in alGetError, which belongs to the
+ * calling thread.
+ */
+public final class BufferLoad {
+	static final String TAG = "AndroidAL";
+
+	final CountDownLatch pending; // Buffers not converted yet
+
+	// First failure, guarded by this
+	AL error = AL.AL_NO_ERROR;
+	String errorDescr = "";
+
+	BufferLoad(final int buffers) {
+		this.pending = new CountDownLatch(buffers);
+	}
+
+	/**
+	 * @return true once every buffer of the load is converted or has failed.
+	 */
+	public boolean isDone() {
+		return pending.getCount() == 0;
+	}
+
+	/**
+	 * Wait for every buffer of the load.
+	 *
+	 * @throws InterruptedException if the waiting thread is interrupted.
+	 */
+	public void await() throws InterruptedException {
+		pending.await();
+	}
+
+	/**
+	 * Wait for every buffer of the load, at most the given time.
+	 *
+	 * @param timeout Longest wait.
+	 * @param unit    Unit of the timeout.
+	 * @return true if the load is done, false if the time elapsed first.
+	 * @throws InterruptedException if the waiting thread is interrupted.
+	 */
+	public boolean await(final long timeout, final TimeUnit unit) throws InterruptedException {
+		return pending.await(timeout, unit);
+	}
+
+	/**
+	 * @return First error raised converting a buffer of the load, AL_NO_ERROR if none (so far).
+	 */
+	public synchronized AL getError() {
+		return error;
+	}
+
+	/**
+	 * @return Description of the first error, empty if none.
+	 */
+	public synchronized String getErrorDescr() {
+		return errorDescr;
+	}
+
+	/**
+	 * Record a buffer that failed to convert, the first failure is kept.
+	 */
+	synchronized void fail(final AL error, final String errorDescr) {
+		Log.e(TAG, errorDescr);
+		if (this.error == AL.AL_NO_ERROR) {
+			this.error = error;
+			this.errorDescr = errorDescr;
+		}
+	}
+
+	/**
+	 * Count a buffer as done, converted or failed.
+	 */
+	void buffered() {
+		pending.countDown();
+	}
+}
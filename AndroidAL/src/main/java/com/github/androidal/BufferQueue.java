@@ -0,0 +1,85 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+/**
+ * Buffers queued on a source, in play order.
+ * <p>
+ * Buffers are numbered in the order they were queued since the source was created, the API and the
+ * mixer each keep their own queue and refer to buffers by number, so the mixer can publish how far
+ * it has played as a single number.  Entries live in a power of two ring indexed by number,
+ * numbers from {@link #first} (the oldest buffer still queued) to {@link #end} (exclusive).
+ */
+class BufferQueue {
+	AudioBuffer[] entries = new AudioBuffer[4];
+	int first = 0;
+	int end = 0;
+
+	/**
+	 * @return Number of buffers queued.
+	 */
+	int size() {
+		return end - first;
+	}
+
+	/**
+	 * @return The buffer with the given number, which has to be queued.
+	 */
+	AudioBuffer get(final int number) {
+		return entries[number & (entries.length - 1)];
+	}
+
+	/**
+	 * Queue a buffer after the others.  Only allocates when the ring grows.
+	 */
+	void add(final AudioBuffer buffer) {
+		if (size() == entries.length) {
+			final AudioBuffer[] grown = new AudioBuffer[entries.length * 2];
+			for (int number = first; number != end; number++) {
+				grown[number & (grown.length - 1)] = get(number);
+			}
+			entries = grown;
+		}
+		entries[end++ & (entries.length - 1)] = buffer;
+	}
+
+	/**
+	 * Remove the oldest buffers.
+	 *
+	 * @param count Number of buffers to remove, at most {@link #size()}.
+	 */
+	void removeFirst(final int count) {
+		for (int i = 0; i < count; i++) {
+			entries[first++ & (entries.length - 1)] = null;
+		}
+	}
+
+	/**
+	 * Remove every buffer, numbering carries on.
+	 */
+	void clear() {
+		removeFirst(size());
+	}
+
+	/**
+	 * Remove every buffer and number from 0 again, for a new source.
+	 */
+	void reset() {
+		clear();
+		first = 0;
+		end = 0;
+	}
+}
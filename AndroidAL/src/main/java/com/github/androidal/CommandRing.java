@@ -0,0 +1,213 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single producer / single consumer ring of commands from the API thread to the mixer.
+ * <p>
+ * The API thread is the only producer: it writes commands into preallocated slots and publishes
+ * them in a batch with {@link #publish()}.  The mixer is the only consumer: it applies everything
+ * published at the start of a pass, so it always mixes a consistent set of changes.  Nothing here
+ * locks or allocates.  A producer only waits when the ring is full while the mixer is running,
+ * when the mixer is not running the producer applies the pending commands itself.
+ */
+class CommandRing {
+	static final int CAPACITY = 4096; // Power of 2
+	static final int MASK = CAPACITY - 1;
+	static final int FLOATS = 9; // Float payload per slot, enough for a transform
+	static final int INTS = 2; // Int payload per slot
+
+	// Command opcodes
+	static final int SOURCE_ADD = 1; // target slot, ref API copy, resets the slot to the defaults
+	static final int SOURCE_REMOVE = 2; // target slot
+	static final int SOURCE_FLOAT = 3; // target slot, param, floats[0]
+	static final int SOURCE_VECTOR = 4; // target slot, param, floats[0..2]
+	static final int SOURCE_INT = 5; // target slot, param, ints[0]
+	static final int SOURCE_BUFFER = 6; // target slot, ref buffer (or null) replacing the queue
+	static final int SOURCE_STATE = 7; // target slot, param state, ints[0] serial, ints[1] 1 to rewind
+	static final int LISTENER_FLOAT = 8; // param, floats[0]
+	static final int LISTENER_VECTOR = 9; // param, floats[0..2]
+	static final int LISTENER_ORIENTATION = 10; // floats[0..5] at and up
+	static final int CONTEXT_FLOAT = 11; // param, floats[0]
+	static final int CONTEXT_DISTANCE_MODEL = 12; // param model
+	static final int SOURCE_TRANSFORM = 13; // target slot, floats[0..8] position, velocity and direction
+	static final int SOURCE_QUEUE = 14; // target slot, ref buffer queued
+	static final int SOURCE_UNQUEUE = 15; // target slot, ints[0] number of processed buffers removed
+
+	// Slot payloads, structure of arrays so claiming a slot never allocates
+	final int[] ops = new int[CAPACITY];
+	final int[] targets = new int[CAPACITY]; // Source slot
+	final Object[] refs = new Object[CAPACITY];
+	final AL[] params = new AL[CAPACITY];
+	final int[] ints = new int[CAPACITY * INTS];
+	final float[] floats = new float[CAPACITY * FLOATS];
+
+	final AtomicLong head = new AtomicLong(); // Next command the consumer applies, written by the consumer
+	final AtomicLong tail = new AtomicLong(); // End of the published commands, written by the producer
+
+	// Producer only
+	final AudioMixer consumer;
+	long producerTail = 0; // End of the written commands, published or not
+	long cachedHead = 0; // Last head seen, saves reading the consumer's counter on every claim
+
+	CommandRing(final AudioMixer consumer) {
+		this.consumer = consumer;
+	}
+
+	/**
+	 * Claim the next slot for a command, when the ring is full the pending commands are published
+	 * and either the running mixer is waited on or the commands are applied on this thread.
+	 *
+	 * @param op Command opcode
+	 * @return Slot index to fill in
+	 */
+	int claim(final int op) {
+		if (producerTail - cachedHead == CAPACITY) {
+			reserve(1);
+		}
+		final int slot = (int) (producerTail++ & MASK);
+		ops[slot] = op;
+		return slot;
+	}
+
+	/**
+	 * Wait until the given number of commands can be written without the ring filling up, so a
+	 * batch written after this is published in one piece.  Like a full ring, the commands pending
+	 * so far are published and either the running mixer is waited on or they are applied on this
+	 * thread.
+	 *
+	 * @param count Number of commands, at most {@link #CAPACITY}
+	 */
+	void reserve(final int count) {
+		while (CAPACITY - (producerTail - cachedHead) < count) {
+			cachedHead = head.get();
+			if (CAPACITY - (producerTail - cachedHead) >= count) { break; }
+
+			publish();
+			if (consumer.isMixing()) {
+				Thread.yield();
+			} else {
+				consumer.processCommands();
+			}
+		}
+	}
+
+	/**
+	 * Make every command written so far visible to the consumer.
+	 */
+	void publish() {
+		tail.lazySet(producerTail);
+	}
+
+	// -------------------------------------------------------------------------
+	// Producer helpers, the command is written but not published
+
+	void source(final int op, final int source) {
+		final int slot = claim(op);
+		targets[slot] = source;
+	}
+
+	void sourceAdd(final AudioSource source) {
+		final int slot = claim(SOURCE_ADD);
+		targets[slot] = source.slot;
+		refs[slot] = source;
+	}
+
+	void sourceFloat(final int source, final AL param, final float value) {
+		final int slot = claim(SOURCE_FLOAT);
+		targets[slot] = source;
+		params[slot] = param;
+		floats[slot * FLOATS] = value;
+	}
+
+	void sourceVector(final int source, final AL param, final float v1, final float v2, final float v3) {
+		final int slot = claim(SOURCE_VECTOR);
+		targets[slot] = source;
+		params[slot] = param;
+		floats[slot * FLOATS] = v1;
+		floats[slot * FLOATS + 1] = v2;
+		floats[slot * FLOATS + 2] = v3;
+	}
+
+	void sourceTransform(final int source, final float[] values, final int offset) {
+		final int slot = claim(SOURCE_TRANSFORM);
+		targets[slot] = source;
+		System.arraycopy(values, offset, floats, slot * FLOATS, 9);
+	}
+
+	void sourceInt(final int source, final AL param, final int value) {
+		final int slot = claim(SOURCE_INT);
+		targets[slot] = source;
+		params[slot] = param;
+		ints[slot * INTS] = value;
+	}
+
+	void sourceBuffer(final int source, final AudioBuffer buffer) {
+		final int slot = claim(SOURCE_BUFFER);
+		targets[slot] = source;
+		refs[slot] = buffer;
+	}
+
+	void sourceQueue(final int source, final AudioBuffer buffer) {
+		final int slot = claim(SOURCE_QUEUE);
+		targets[slot] = source;
+		refs[slot] = buffer;
+	}
+
+	void sourceUnqueue(final int source, final int count) {
+		final int slot = claim(SOURCE_UNQUEUE);
+		targets[slot] = source;
+		ints[slot * INTS] = count;
+	}
+
+	void sourceState(final int source, final AL state, final int serial, final boolean rewind) {
+		final int slot = claim(SOURCE_STATE);
+		targets[slot] = source;
+		params[slot] = state;
+		ints[slot * INTS] = serial;
+		ints[slot * INTS + 1] = rewind ? 1 : 0;
+	}
+
+	void listenerFloat(final AL param, final float value) {
+		final int slot = claim(LISTENER_FLOAT);
+		params[slot] = param;
+		floats[slot * FLOATS] = value;
+	}
+
+	void listenerVector(final AL param, final float[] values) {
+		final int slot = claim(LISTENER_VECTOR);
+		params[slot] = param;
+		System.arraycopy(values, 0, floats, slot * FLOATS, 3);
+	}
+
+	void listenerOrientation(final float[] values) {
+		final int slot = claim(LISTENER_ORIENTATION);
+		System.arraycopy(values, 0, floats, slot * FLOATS, 6);
+	}
+
+	void contextFloat(final AL param, final float value) {
+		final int slot = claim(CONTEXT_FLOAT);
+		params[slot] = param;
+		floats[slot * FLOATS] = value;
+	}
+
+	void contextDistanceModel(final AL model) {
+		final int slot = claim(CONTEXT_DISTANCE_MODEL);
+		params[slot] = model;
+	}
+}
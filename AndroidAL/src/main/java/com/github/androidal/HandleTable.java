@@ -0,0 +1,151 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import java.util.Arrays;
+
+/**
+ * Objects named by the API (devices, contexts, buffers and sources), stored in a dense array.
+ * <p>
+ * An id is the entry's index plus one in the low {@link #INDEX_BITS} bits and the entry's
+ * generation above them.  The generation is bumped whenever an entry is freed, so a lookup is one
+ * array read and one compare, and an id that was deleted (even if its index has been reused) no
+ * longer resolves.  Ids are always positive, 0 is never handed out.  Not thread safe, like the
+ * maps it replaces it is guarded by the caller.
+ *
+ * @param <T> Type of the objects named.
+ */
+class HandleTable<T> {
+	static final int INDEX_BITS = 20;
+	static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+	static final int MAX_ENTRIES = INDEX_MASK; // Index + 1 has to fit the index bits
+	static final int GENERATION_MASK = (1 << (31 - INDEX_BITS)) - 1; // Keeps ids positive
+
+	Object[] entries = new Object[16];
+	int[] generations = new int[16];
+	boolean[] live = new boolean[16]; // Reserved or set, not free
+	int used = 0; // Entries handed out so far, freed entries are reused first
+	int[] freeEntries = new int[16];
+	int freeCount = 0;
+	int size = 0; // Live entries, reserved or set
+
+	/**
+	 * @return Index of the entry an id names, not validated.
+	 */
+	static int index(final int id) {
+		return (id & INDEX_MASK) - 1;
+	}
+
+	/**
+	 * Take an entry without an object yet, {@link #get(int)} returns null until {@link #set(int, Object)}.
+	 *
+	 * @return Id of the entry, 0 if the table is full.
+	 */
+	int reserve() {
+		final int index;
+		if (freeCount > 0) {
+			index = freeEntries[--freeCount];
+		} else {
+			if (used == MAX_ENTRIES) { return 0; }
+			index = used++;
+			if (index == entries.length) {
+				entries = Arrays.copyOf(entries, entries.length * 2);
+				generations = Arrays.copyOf(generations, generations.length * 2);
+				live = Arrays.copyOf(live, live.length * 2);
+			}
+		}
+		live[index] = true;
+		size++;
+		return (generations[index] << INDEX_BITS) | (index + 1);
+	}
+
+	/**
+	 * Set the object of a reserved or live entry.
+	 */
+	void set(final int id, final T value) {
+		if (valid(id)) {
+			entries[index(id)] = value;
+		}
+	}
+
+	/**
+	 * @return The object named by id, null if id was never handed out or has been freed.
+	 */
+	@SuppressWarnings("unchecked")
+	T get(final int id) {
+		return valid(id) ? (T) entries[index(id)] : null;
+	}
+
+	/**
+	 * Free the entry named by id, reserved or set.
+	 *
+	 * @return The object the entry held, null if id does not name an entry.
+	 */
+	@SuppressWarnings("unchecked")
+	T remove(final int id) {
+		if (!valid(id)) { return null; }
+		final int index = index(id);
+		final T value = (T) entries[index];
+		free(index);
+		return value;
+	}
+
+	/**
+	 * Free every entry.
+	 */
+	void clear() {
+		for (int index = 0; index < used; index++) {
+			if (live[index]) {
+				free(index);
+			}
+		}
+	}
+
+	/**
+	 * @return Number of live entries.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @return The object at an index, null if the entry is free or only reserved.  With {@link #used}
+	 * this walks every live object.
+	 */
+	@SuppressWarnings("unchecked")
+	T valueAt(final int index) {
+		return (T) entries[index];
+	}
+
+	/**
+	 * @return true if id names a live entry.
+	 */
+	boolean valid(final int id) {
+		final int index = index(id);
+		return id > 0 && index >= 0 && index < used && live[index] && generations[index] == (id >>> INDEX_BITS);
+	}
+
+	void free(final int index) {
+		entries[index] = null;
+		live[index] = false;
+		generations[index] = (generations[index] + 1) & GENERATION_MASK;
+		if (freeCount == freeEntries.length) {
+			freeEntries = Arrays.copyOf(freeEntries, freeEntries.length * 2);
+		}
+		freeEntries[freeCount++] = index;
+		size--;
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Helper thread for parallel mixing (ALC_MIXER_THREADS_AAL).  Each pass it mixes its share of the
+ * voices into its own accumulation buffer, the mixer adds the buffers together in worker order so
+ * the output does not depend on which worker finishes first.
+ * <p>
+ * Workers park between passes and are handed work by {@link #signal()}, nothing allocates.
+ */
+class MixWorker implements Runnable {
+	final AudioMixer mixer;
+	final int share; // Which share of the voices this worker mixes, the mixer mixes share 0 itself
+	final float[] buffer; // Accumulation buffer, same layout as the mixing buffer
+	final float[] scratch; // Source frames gathered for the resampler
+	final Thread thread;
+
+	volatile int generation = 0; // Bumped by the mixer to hand out a pass
+
+	MixWorker(final AudioMixer mixer, final int share, final int bufferSamples, final int scratchSamples) {
+		this.mixer = mixer;
+		this.share = share;
+		this.buffer = new float[bufferSamples];
+		this.scratch = new float[scratchSamples];
+
+		thread = new Thread(this, "AndroidAL mixer " + share);
+		thread.setDaemon(true);
+	}
+
+	/**
+	 * Hand this worker the pass the mixer has set up.  Only called by the mixer.
+	 */
+	void signal() {
+		generation++;
+		LockSupport.unpark(thread);
+	}
+
+	@Override
+	public void run() {
+		int passesDone = 0;
+		while (true) {
+			// A pass handed out is always finished, even when stopping, or the mixer would wait for it forever
+			final int pass = generation;
+			if (pass != passesDone) {
+				passesDone = pass;
+				try {
+					mixer.mixShare(this);
+				} finally {
+					mixer.shareDone();
+				}
+				continue;
+			}
+			if (Thread.currentThread().isInterrupted()) {
+				return;
+			}
+			LockSupport.park(this);
+		}
+	}
+}
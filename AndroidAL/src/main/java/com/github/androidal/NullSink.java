@@ -0,0 +1,69 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+/**
+ * Output that discards everything written to it.  The playback head is always caught up with what was
+ * written so the mixer can run as fast as the CPU allows, useful for benchmarks and soak tests on a host JVM.
+ */
+class NullSink implements AudioSink {
+	static final int DEFAULT_SAMPLE_RATE = 48000;
+	static final int DEFAULT_BUFFER_SIZE_IN_BYTES = 32 * 1024;
+
+	final int sampleRate;
+	final int bufferSizeInBytes;
+
+	long framesWritten = 0;
+
+	NullSink() {
+		this(DEFAULT_SAMPLE_RATE, DEFAULT_BUFFER_SIZE_IN_BYTES);
+	}
+
+	NullSink(final int sampleRate, final int bufferSizeInBytes) {
+		this.sampleRate = sampleRate;
+		this.bufferSizeInBytes = bufferSizeInBytes;
+	}
+
+	@Override
+	public int getSessionId() { return 0; }
+
+	@Override
+	public int getSampleRate() { return sampleRate; }
+
+	@Override
+	public int getBufferSizeInBytes() { return bufferSizeInBytes; }
+
+	@Override
+	public long getPlaybackHeadPosition() { return framesWritten; }
+
+	@Override
+	public int write(final float[] data, final int offset, final int length, final boolean blocking) {
+		framesWritten += length / 2;
+		return length;
+	}
+
+	@Override
+	public void play() { }
+
+	@Override
+	public void stop() { }
+
+	@Override
+	public void flush() { }
+
+	@Override
+	public void release() { }
+}
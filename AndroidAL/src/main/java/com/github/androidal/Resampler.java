@@ -0,0 +1,305 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+/**
+ * Interpolation used by the mixer when a source is played back at a pitch, selected per source
+ * with AL_SOURCE_RESAMPLER_SOFT (the index is the ordinal).
+ * <p>
+ * Source positions are 32.32 fixed point frames.  The kernels read from a scratch copy of the
+ * source data that starts {@link #padding} frames before the integer part of the cursor and runs
+ * {@link #padding} frames past the last frame read, so no kernel has to bounds check or wrap.
+ * <p>
+ * The sinc kernels are band limited, see {@link SincTable}.  Their tables are built once by
+ * {@link #prepare()} and shared by every voice.
+ */
+enum Resampler {
+	POINT("Nearest", 2) {
+		@Override
+		void mix(final float[] src, long cursor, long step, final long stepDelta, final float[] dst, int dstIndex, final int frames, float gainL, float gainR, final float gainLDelta, final float gainRDelta) {
+			for (int frame = 0; frame < frames; frame++) {
+				final float sample = src[(int) (cursor >>> FRACTION_BITS)];
+				dst[dstIndex++] += sample * gainL;
+				dst[dstIndex++] += sample * gainR;
+				cursor += step;
+				step += stepDelta;
+				gainL += gainLDelta;
+				gainR += gainRDelta;
+			}
+		}
+
+		@Override
+		void mixStereo(final float[] src, long cursor, long step, final long stepDelta, final float[] dst, int dstIndex, final int frames, float gainL, float gainR, final float gainLDelta, final float gainRDelta) {
+			for (int frame = 0; frame < frames; frame++) {
+				final int index = (int) (cursor >>> FRACTION_BITS) << 1;
+				dst[dstIndex++] += src[index] * gainL;
+				dst[dstIndex++] += src[index + 1] * gainR;
+				cursor += step;
+				step += stepDelta;
+				gainL += gainLDelta;
+				gainR += gainRDelta;
+			}
+		}
+	},
+	LINEAR("Linear", 2) {
+		@Override
+		void mix(final float[] src, long cursor, long step, final long stepDelta, final float[] dst, int dstIndex, final int frames, float gainL, float gainR, final float gainLDelta, final float gainRDelta) {
+			for (int frame = 0; frame < frames; frame++) {
+				final int index = (int) (cursor >>> FRACTION_BITS);
+				final float fraction = (cursor & FRACTION_MASK) * FRACTION_SCALE;
+				final float s0 = src[index];
+				final float sample = s0 + (src[index + 1] - s0) * fraction;
+				dst[dstIndex++] += sample * gainL;
+				dst[dstIndex++] += sample * gainR;
+				cursor += step;
+				step += stepDelta;
+				gainL += gainLDelta;
+				gainR += gainRDelta;
+			}
+		}
+
+		@Override
+		void mixStereo(final float[] src, long cursor, long step, final long stepDelta, final float[] dst, int dstIndex, final int frames, float gainL, float gainR, final float gainLDelta, final float gainRDelta) {
+			for (int frame = 0; frame < frames; frame++) {
+				final int index = (int) (cursor >>> FRACTION_BITS) << 1;
+				final float fraction = (cursor & FRACTION_MASK) * FRACTION_SCALE;
+				final float l0 = src[index];
+				final float r0 = src[index + 1];
+				dst[dstIndex++] += (l0 + (src[index + 2] - l0) * fraction) * gainL;
+				dst[dstIndex++] += (r0 + (src[index + 3] - r0) * fraction) * gainR;
+				cursor += step;
+				step += stepDelta;
+				gainL += gainLDelta;
+				gainR += gainRDelta;
+			}
+		}
+	},
+	CUBIC("Cubic", 2) {
+		@Override
+		void mix(final float[] src, long cursor, long step, final long stepDelta, final float[] dst, int dstIndex, final int frames, float gainL, float gainR, final float gainLDelta, final float gainRDelta) {
+			for (int frame = 0; frame < frames; frame++) {
+				final int index = (int) (cursor >>> FRACTION_BITS);
+				final float fraction = (cursor & FRACTION_MASK) * FRACTION_SCALE;
+				final float sample = catmullRom(src[index - 1], src[index], src[index + 1], src[index + 2], fraction);
+				dst[dstIndex++] += sample * gainL;
+				dst[dstIndex++] += sample * gainR;
+				cursor += step;
+				step += stepDelta;
+				gainL += gainLDelta;
+				gainR += gainRDelta;
+			}
+		}
+
+		@Override
+		void mixStereo(final float[] src, long cursor, long step, final long stepDelta, final float[] dst, int dstIndex, final int frames, float gainL, float gainR, final float gainLDelta, final float gainRDelta) {
+			for (int frame = 0; frame < frames; frame++) {
+				final int index = (int) (cursor >>> FRACTION_BITS) << 1;
+				final float fraction = (cursor & FRACTION_MASK) * FRACTION_SCALE;
+				dst[dstIndex++] += catmullRom(src[index - 2], src[index], src[index + 2], src[index + 4], fraction) * gainL;
+				dst[dstIndex++] += catmullRom(src[index - 1], src[index + 1], src[index + 3], src[index + 5], fraction) * gainR;
+				cursor += step;
+				step += stepDelta;
+				gainL += gainLDelta;
+				gainR += gainRDelta;
+			}
+		}
+	},
+	SINC_CHEAP("8 point Sinc", 8, 5.0, 0.85) {
+		@Override
+		void mix(final float[] src, final long cursor, final long step, final long stepDelta, final float[] dst, final int dstIndex, final int frames, final float gainL, final float gainR, final float gainLDelta, final float gainRDelta) {
+			mixSinc(prepare(), src, cursor, step, stepDelta, dst, dstIndex, frames, gainL, gainR, gainLDelta, gainRDelta);
+		}
+
+		@Override
+		void mixStereo(final float[] src, final long cursor, final long step, final long stepDelta, final float[] dst, final int dstIndex, final int frames, final float gainL, final float gainR, final float gainLDelta, final float gainRDelta) {
+			mixSincStereo(prepare(), src, cursor, step, stepDelta, dst, dstIndex, frames, gainL, gainR, gainLDelta, gainRDelta);
+		}
+	},
+	SINC_MEDIUM("16 point Sinc", 16, 7.0, 0.9) {
+		@Override
+		void mix(final float[] src, final long cursor, final long step, final long stepDelta, final float[] dst, final int dstIndex, final int frames, final float gainL, final float gainR, final float gainLDelta, final float gainRDelta) {
+			mixSinc(prepare(), src, cursor, step, stepDelta, dst, dstIndex, frames, gainL, gainR, gainLDelta, gainRDelta);
+		}
+
+		@Override
+		void mixStereo(final float[] src, final long cursor, final long step, final long stepDelta, final float[] dst, final int dstIndex, final int frames, final float gainL, final float gainR, final float gainLDelta, final float gainRDelta) {
+			mixSincStereo(prepare(), src, cursor, step, stepDelta, dst, dstIndex, frames, gainL, gainR, gainLDelta, gainRDelta);
+		}
+	},
+	SINC_BEST("32 point Sinc", 32, 9.0, 0.94) {
+		@Override
+		void mix(final float[] src, final long cursor, final long step, final long stepDelta, final float[] dst, final int dstIndex, final int frames, final float gainL, final float gainR, final float gainLDelta, final float gainRDelta) {
+			mixSinc(prepare(), src, cursor, step, stepDelta, dst, dstIndex, frames, gainL, gainR, gainLDelta, gainRDelta);
+		}
+
+		@Override
+		void mixStereo(final float[] src, final long cursor, final long step, final long stepDelta, final float[] dst, final int dstIndex, final int frames, final float gainL, final float gainR, final float gainLDelta, final float gainRDelta) {
+			mixSincStereo(prepare(), src, cursor, step, stepDelta, dst, dstIndex, frames, gainL, gainR, gainLDelta, gainRDelta);
+		}
+	};
+
+	static final int FRACTION_BITS = 32;
+	static final long FRACTION_ONE = 1L << FRACTION_BITS;
+	static final long FRACTION_MASK = FRACTION_ONE - 1;
+	static final float FRACTION_SCALE = 1.0f / FRACTION_ONE;
+
+	/** Most frames of history and look ahead any kernel reads around the cursor, sizes the scratch. */
+	static final int MAX_PADDING = 16;
+
+	/** Resampler new sources start with (AL_DEFAULT_RESAMPLER_SOFT). */
+	static final Resampler DEFAULT = LINEAR;
+
+	/** Cached values(), indexed by AL_SOURCE_RESAMPLER_SOFT without allocating. */
+	static final Resampler[] ALL = values();
+
+	/** Name reported for AL_RESAMPLER_NAME_SOFT. */
+	final String description;
+
+	/** Frames of history and look ahead the kernel reads around the cursor. */
+	final int padding;
+
+	// Sinc filter parameters, taps is 0 for the other kernels
+	final int taps;
+	final double beta;
+	final double bandwidth;
+	SincTable table; // Built by prepare()
+
+	Resampler(final String description, final int padding) {
+		this(description, padding, 0, 0.0, 0.0);
+	}
+
+	Resampler(final String description, final int taps, final double beta, final double bandwidth) {
+		this(description, taps / 2, taps, beta, bandwidth);
+	}
+
+	Resampler(final String description, final int padding, final int taps, final double beta, final double bandwidth) {
+		this.description = description;
+		this.padding = padding;
+		this.taps = taps;
+		this.beta = beta;
+		this.bandwidth = bandwidth;
+	}
+
+	/**
+	 * Build the kernel's tables if it has any and they are not built yet.  Called by the API when a
+	 * source or buffer selects the resampler, so the mixer never builds them.
+	 *
+	 * @return The sinc table, null for the kernels without one.
+	 */
+	SincTable prepare() {
+		final SincTable built = table;
+		if (built != null || taps == 0) { return built; }
+		synchronized (this) {
+			if (table == null) {
+				table = new SincTable(taps, beta, bandwidth);
+			}
+			return table;
+		}
+	}
+
+	/**
+	 * Resample frames from the scratch copy and add them, scaled by the left/right gains, into an interleaved stereo buffer.
+	 * The step and gains are ramped linearly, each changing by its delta after every output frame.
+	 *
+	 * @param src        Scratch copy of the source frames, see {@link #padding}
+	 * @param cursor     Fixed point position of the first output frame within src
+	 * @param step       Fixed point source frames advanced after the first output frame (the pitch)
+	 * @param stepDelta  Change of the step per output frame
+	 * @param dst        Interleaved stereo mixing buffer
+	 * @param dstIndex   First sample written in dst
+	 * @param frames     Number of output frames
+	 * @param gainL      Left gain of the first output frame
+	 * @param gainR      Right gain of the first output frame
+	 * @param gainLDelta Change of the left gain per output frame
+	 * @param gainRDelta Change of the right gain per output frame
+	 */
+	abstract void mix(final float[] src, long cursor, long step, final long stepDelta, final float[] dst, int dstIndex, final int frames, float gainL, float gainR, final float gainLDelta, final float gainRDelta);
+
+	/**
+	 * Stereo counterpart of {@link #mix}, src holds interleaved left/right frames (the padding still
+	 * counts frames).  Each channel is resampled on its own and added to the same channel of dst,
+	 * scaled by its gain, without panning.
+	 */
+	abstract void mixStereo(final float[] src, long cursor, long step, final long stepDelta, final float[] dst, int dstIndex, final int frames, float gainL, float gainR, final float gainLDelta, final float gainRDelta);
+
+	/**
+	 * @return Catmull-Rom spline through four neighbours, fraction of the way from s1 to s2.
+	 */
+	static float catmullRom(final float s0, final float s1, final float s2, final float s3, final float fraction) {
+		return s1 + 0.5f * fraction * (s2 - s0
+			+ fraction * (2.0f * s0 - 5.0f * s1 + 4.0f * s2 - s3
+			+ fraction * (3.0f * (s1 - s2) + s3 - s0)));
+	}
+
+	/**
+	 * Polyphase sinc kernel, the coefficients of each tap are interpolated between the two phases
+	 * around the cursor.  See {@link #mix} for the parameters.
+	 */
+	static void mixSinc(final SincTable table, final float[] src, long cursor, long step, final long stepDelta, final float[] dst, int dstIndex, final int frames, float gainL, float gainR, final float gainLDelta, final float gainRDelta) {
+		final float[] coefficients = table.coefficients;
+		final int taps = table.taps;
+		final int scaleBase = table.scaleBase(Math.max(step, step + stepDelta * (frames - 1)));
+		final int history = taps / 2 - 1;
+		for (int frame = 0; frame < frames; frame++) {
+			final int index = (int) (cursor >>> FRACTION_BITS) - history;
+			final long fraction = cursor & FRACTION_MASK;
+			final int base = scaleBase + (int) (fraction >>> SincTable.PHASE_SHIFT) * taps;
+			final float blend = (fraction & SincTable.PHASE_MASK) * SincTable.PHASE_SCALE;
+			float sample = 0.0f;
+			for (int tap = 0; tap < taps; tap++) {
+				final float c0 = coefficients[base + tap];
+				sample += (c0 + (coefficients[base + taps + tap] - c0) * blend) * src[index + tap];
+			}
+			dst[dstIndex++] += sample * gainL;
+			dst[dstIndex++] += sample * gainR;
+			cursor += step;
+			step += stepDelta;
+			gainL += gainLDelta;
+			gainR += gainRDelta;
+		}
+	}
+
+	/**
+	 * Stereo polyphase sinc kernel, both channels share the interpolated coefficients.
+	 * See {@link #mixStereo} for the parameters.
+	 */
+	static void mixSincStereo(final SincTable table, final float[] src, long cursor, long step, final long stepDelta, final float[] dst, int dstIndex, final int frames, float gainL, float gainR, final float gainLDelta, final float gainRDelta) {
+		final float[] coefficients = table.coefficients;
+		final int taps = table.taps;
+		final int scaleBase = table.scaleBase(Math.max(step, step + stepDelta * (frames - 1)));
+		final int history = taps / 2 - 1;
+		for (int frame = 0; frame < frames; frame++) {
+			final int index = ((int) (cursor >>> FRACTION_BITS) - history) << 1;
+			final long fraction = cursor & FRACTION_MASK;
+			final int base = scaleBase + (int) (fraction >>> SincTable.PHASE_SHIFT) * taps;
+			final float blend = (fraction & SincTable.PHASE_MASK) * SincTable.PHASE_SCALE;
+			float left = 0.0f;
+			float right = 0.0f;
+			for (int tap = 0, i = index; tap < taps; tap++, i += 2) {
+				final float c0 = coefficients[base + tap];
+				final float c = c0 + (coefficients[base + taps + tap] - c0) * blend;
+				left += c * src[i];
+				right += c * src[i + 1];
+			}
+			dst[dstIndex++] += left * gainL;
+			dst[dstIndex++] += right * gainR;
+			cursor += step;
+			step += stepDelta;
+			gainL += gainLDelta;
+			gainR += gainRDelta;
+		}
+	}
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * On-disk cache of converted buffers, enabled with alBufferCacheAAL.  The converted samples only
+ * depend on the data, its format and frequency, the buffer's conversion settings and, unless kept at
+ * the native rate, the output rate.  They are filed under a SHA-256 of all of these, so a later run
+ * maps the file and copies the samples out instead of converting the data again.
+ * <p>
+ * Each entry is one file, a 40 byte little endian header followed by the samples in the buffer's
+ * storage.  Entries are written to a temporary file and renamed into place, so loader threads racing
+ * on the same data and runs killed mid write never leave a partial entry.  The cache is best effort,
+ * an entry that can't be read or written is converted as if there was no cache.
+ */
+class SampleCache {
+	static final String TAG = "AndroidAL";
+
+	static final int MAGIC = WaveFile.fourCC('A', 'A', 'L', 'C');
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 40;
+	static final int CHUNK_BYTES = 64 * 1024;
+	static final String SUFFIX = ".aalc";
+
+	final File directory;
+
+	SampleCache(final File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Key of the data converted by a staging buffer, see {@link AndroidAL#convertBufferData}.
+	 *
+	 * @return Hex SHA-256 of the data and everything the conversion depends on, null if the data is
+	 * not converted (unsupported, or a WAVE file played in place).
+	 */
+	static String key(final AudioBuffer staging, final int format, final Object data, final int frequency, final int outputRate) {
+		final MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+
+		// Samples held as bytes are hashed as they are, typed ones little endian
+		boolean bigEndian = false;
+		if (data instanceof WaveFile) {
+			final WaveFile wave = (WaveFile) data;
+			if (wave.playsInPlace(staging)) {
+				return null;
+			}
+			digest.update(wave.samples.duplicate());
+		} else if (data instanceof byte[]) {
+			digest.update((byte[]) data);
+			bigEndian = ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
+		} else if (data instanceof ByteBuffer) {
+			digest.update(((ByteBuffer) data).slice());
+			bigEndian = ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
+		} else if (data instanceof ShortBuffer) {
+			final ShortBuffer samples = ((ShortBuffer) data).slice();
+			final ByteBuffer chunk = ByteBuffer.allocate(CHUNK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			final ShortBuffer view = chunk.asShortBuffer();
+			while (samples.hasRemaining()) {
+				final ShortBuffer part = samples.duplicate();
+				part.limit(part.position() + Math.min(view.capacity(), part.remaining()));
+				samples.position(part.limit());
+				view.clear();
+				view.put(part);
+				digest.update(chunk.array(), 0, view.position() * Short.BYTES);
+			}
+		} else if (data instanceof FloatBuffer) {
+			final FloatBuffer samples = ((FloatBuffer) data).slice();
+			final ByteBuffer chunk = ByteBuffer.allocate(CHUNK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			final FloatBuffer view = chunk.asFloatBuffer();
+			while (samples.hasRemaining()) {
+				final FloatBuffer part = samples.duplicate();
+				part.limit(part.position() + Math.min(view.capacity(), part.remaining()));
+				samples.position(part.limit());
+				view.clear();
+				view.put(part);
+				digest.update(chunk.array(), 0, view.position() * Float.BYTES);
+			}
+		} else {
+			return null;
+		}
+
+		final ByteBuffer settings = ByteBuffer.allocate(32).order(ByteOrder.LITTLE_ENDIAN);
+		settings.putInt(VERSION);
+		settings.putInt(format);
+		settings.putInt(frequency);
+		settings.putInt(staging.nativeRate ? 0 : outputRate); // Shared by every output rate when not resampled
+		settings.putInt(staging.resampler.ordinal());
+		settings.putInt(staging.storageRequested.token.value());
+		settings.putInt(bigEndian ? 1 : 0);
+		settings.flip();
+		digest.update(settings);
+
+		final StringBuilder key = new StringBuilder(64);
+		for (final byte b : digest.digest()) {
+			key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Fill a staging buffer from the entry of a key, as {@link AndroidAL#convertBufferData} would have.
+	 *
+	 * @return true if the entry was found and read, false to convert the data.
+	 */
+	boolean load(final String key, final AudioBuffer staging) {
+		final File file = new File(directory, key + SUFFIX);
+		if (!file.isFile()) {
+			return false;
+		}
+		try (RandomAccessFile input = new RandomAccessFile(file, "r"); FileChannel channel = input.getChannel()) {
+			final MappedByteBuffer entry = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			entry.order(ByteOrder.LITTLE_ENDIAN);
+			final boolean header = entry.remaining() >= HEADER_SIZE && entry.getInt(0) == MAGIC && entry.getInt(4) == VERSION;
+			final SampleStorage storage = header ? SampleStorage.of(entry.getInt(28)) : null;
+			final long length = header ? entry.getInt(36) & 0xFFFFFFFFL : 0;
+			if (storage == null || storage != staging.storageRequested || entry.remaining() != HEADER_SIZE + length * bytesPerElement(storage)) {
+				Log.w(TAG, "Ignoring invalid cache entry: " + file);
+				return false;
+			}
+
+			entry.position(HEADER_SIZE);
+			float[] data = null;
+			short[] pcm = null;
+			byte[] adpcm = null;
+			switch (storage) {
+				case FLOAT:
+					data = new float[(int) length];
+					entry.asFloatBuffer().get(data);
+					break;
+				case PCM16:
+					pcm = new short[(int) length];
+					entry.asShortBuffer().get(pcm);
+					break;
+				default:
+					adpcm = new byte[(int) length];
+					entry.get(adpcm);
+					break;
+			}
+			staging.frequency = entry.getInt(8);
+			staging.bits = entry.getInt(12);
+			staging.channels = entry.getInt(16);
+			staging.size = entry.getInt(20);
+			staging.rate = entry.getInt(24);
+			staging.storage = storage;
+			staging.data = data;
+			staging.pcm = pcm;
+			staging.adpcm = adpcm;
+			staging.mapped = null;
+			staging.frames = entry.getInt(32);
+			return true;
+		} catch (IOException ex) {
+			Log.w(TAG, "Can't read cache entry: " + file + ", " + ex.getMessage());
+			return false;
+		}
+	}
+
+	/**
+	 * Write a converted staging buffer as the entry of a key, replacing any entry it has.
+	 */
+	void store(final String key, final AudioBuffer staging) {
+		if (staging.storage == SampleStorage.MAPPED) {
+			return;
+		}
+		File temporary = null;
+		try {
+			temporary = File.createTempFile(key, ".tmp", directory);
+			try (RandomAccessFile output = new RandomAccessFile(temporary, "rw"); FileChannel channel = output.getChannel()) {
+				final int length = (staging.data != null) ? staging.data.length : (staging.pcm != null) ? staging.pcm.length : staging.adpcm.length;
+				final ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+				chunk.putInt(MAGIC).putInt(VERSION);
+				chunk.putInt(staging.frequency).putInt(staging.bits).putInt(staging.channels).putInt(staging.size).putInt(staging.rate);
+				chunk.putInt(staging.storage.token.value()).putInt(staging.frames).putInt(length);
+				write(channel, chunk);
+
+				final int perChunk = CHUNK_BYTES / bytesPerElement(staging.storage);
+				for (int offset = 0; offset < length; offset += perChunk) {
+					final int count = Math.min(perChunk, length - offset);
+					chunk.clear();
+					if (staging.data != null) {
+						chunk.asFloatBuffer().put(staging.data, offset, count);
+					} else if (staging.pcm != null) {
+						chunk.asShortBuffer().put(staging.pcm, offset, count);
+					} else {
+						chunk.put(staging.adpcm, offset, count);
+					}
+					chunk.position(count * bytesPerElement(staging.storage));
+					write(channel, chunk);
+				}
+			}
+			if (!temporary.renameTo(new File(directory, key + SUFFIX))) {
+				throw new IOException("rename failed");
+			}
+			temporary = null;
+		} catch (IOException ex) {
+			Log.w(TAG, "Can't write cache entry: " + key + ", " + ex.getMessage());
+		} finally {
+			if (temporary != null && !temporary.delete()) {
+				Log.w(TAG, "Can't delete: " + temporary);
+			}
+		}
+	}
+
+	/**
+	 * Write what was put in a chunk.
+	 */
+	static void write(final FileChannel channel, final ByteBuffer chunk) throws IOException {
+		chunk.flip();
+		while (chunk.hasRemaining()) {
+			channel.write(chunk);
+		}
+	}
+
+	/**
+	 * @return Size of the elements of the array a storage keeps its samples in.
+	 */
+	static int bytesPerElement(final SampleStorage storage) {
+		switch (storage) {
+			case FLOAT:
+				return Float.BYTES;
+			case PCM16:
+				return Short.BYTES;
+			default:
+				return Byte.BYTES;
+		}
+	}
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import java.nio.ShortBuffer;
+
+/**
+ * How a buffer keeps its converted samples in memory, selected per buffer with AL_SAMPLE_STORAGE_AAL
+ * before alBufferData.
+ * <p>
+ * Samples are converted and normalized as floats, then stored in the buffer's format.  The mixer
+ * decodes only the frames it reads each quantum straight into its resampler scratch, so the compact
+ * formats cost a little decoding per voice instead of 2 (PCM16) or ~7 (IMA4) times the memory.
+ * Multichannel samples are interleaved, a frame holds one sample per channel.
+ */
+enum SampleStorage {
+	/** 32 bit floats, 4 bytes a sample, stored as converted. */
+	FLOAT(AL.AL_STORAGE_FLOAT_AAL) {
+		@Override
+		void read(final AudioBuffer buffer, final int first, final float[] dst, final int dstIndex, final int count) {
+			final int channels = buffer.channels;
+			System.arraycopy(buffer.data, first * channels, dst, dstIndex * channels, count * channels);
+		}
+	},
+	/** 16 bit signed PCM, 2 bytes a sample. */
+	PCM16(AL.AL_STORAGE_PCM16_AAL) {
+		@Override
+		void store(final AudioBuffer buffer, final float[] samples) {
+			final short[] pcm = new short[samples.length];
+			for (int i = 0; i < samples.length; i++) {
+				pcm[i] = quantize(samples[i]);
+			}
+			buffer.data = null;
+			buffer.pcm = pcm;
+			buffer.adpcm = null;
+			buffer.mapped = null;
+		}
+
+		@Override
+		void read(final AudioBuffer buffer, final int first, final float[] dst, final int dstIndex, final int count) {
+			final short[] pcm = buffer.pcm;
+			final int channels = buffer.channels;
+			final int end = (first + count) * channels;
+			for (int i = first * channels, j = dstIndex * channels; i < end; i++, j++) {
+				dst[j] = pcm[i] * PCM16_SCALE;
+			}
+		}
+	},
+	/**
+	 * IMA ADPCM, 4 bits a sample plus a 4 byte header per channel every {@link #IMA4_BLOCK_FRAMES} frames.
+	 * The headers hold the predictor and step index each channel of the block starts from, so any frame
+	 * is decoded from the start of its block.  The nibbles of a frame's channels are consecutive, low
+	 * nibble first.
+	 */
+	IMA4(AL.AL_STORAGE_IMA4_AAL) {
+		@Override
+		void store(final AudioBuffer buffer, final float[] samples) {
+			final int channels = buffer.channels;
+			final int frames = samples.length / channels;
+			final int blockBytes = IMA4_BLOCK_BYTES * channels;
+			final int blocks = (frames + IMA4_BLOCK_FRAMES - 1) / IMA4_BLOCK_FRAMES;
+			final byte[] adpcm = new byte[blocks * blockBytes];
+
+			final int[] predictors = new int[channels];
+			final int[] indices = new int[channels];
+			for (int block = 0; block < blocks; block++) {
+				int offset = block * blockBytes;
+				for (int channel = 0; channel < channels; channel++) {
+					adpcm[offset] = (byte) predictors[channel];
+					adpcm[offset + 1] = (byte) (predictors[channel] >> 8);
+					adpcm[offset + 2] = (byte) indices[channel];
+					offset += IMA4_HEADER_BYTES;
+				}
+
+				final int start = block * IMA4_BLOCK_FRAMES;
+				final int end = Math.min(frames, start + IMA4_BLOCK_FRAMES);
+				for (int frame = start; frame < end; frame++) {
+					for (int channel = 0; channel < channels; channel++) {
+						// Pick the nibble closest to the difference, then track it exactly as the decoder will.
+						final int predictor = predictors[channel];
+						final int index = indices[channel];
+						int diff = quantize(samples[frame * channels + channel]) - predictor;
+						int nibble = 0;
+						if (diff < 0) {
+							nibble = 8;
+							diff = -diff;
+						}
+						int step = IMA4_STEPS[index];
+						if (diff >= step) { nibble |= 4; diff -= step; }
+						step >>= 1;
+						if (diff >= step) { nibble |= 2; diff -= step; }
+						step >>= 1;
+						if (diff >= step) { nibble |= 1; }
+
+						final int state = (index << 4) | nibble;
+						predictors[channel] = clamp16(predictor + IMA4_DELTAS[state]);
+						indices[channel] = IMA4_NEXT[state];
+
+						final int at = (frame - start) * channels + channel;
+						adpcm[offset + (at >> 1)] |= (byte) ((at & 1) == 0 ? nibble : nibble << 4);
+					}
+				}
+			}
+			buffer.data = null;
+			buffer.pcm = null;
+			buffer.adpcm = adpcm;
+			buffer.mapped = null;
+		}
+
+		@Override
+		void read(final AudioBuffer buffer, final int first, final float[] dst, final int dstIndex, final int count) {
+			if (buffer.channels == 1) {
+				readMono(buffer.adpcm, first, dst, dstIndex, count);
+			} else {
+				readStereo(buffer.adpcm, first, dst, dstIndex * 2, count);
+			}
+		}
+
+		void readMono(final byte[] adpcm, final int first, final float[] dst, int dstIndex, final int count) {
+			final int end = first + count;
+			int frame = first - first % IMA4_BLOCK_FRAMES;
+			while (frame < end) {
+				int offset = (frame / IMA4_BLOCK_FRAMES) * IMA4_BLOCK_BYTES;
+				int predictor = (short) ((adpcm[offset] & 0xFF) | (adpcm[offset + 1] << 8));
+				int index = adpcm[offset + 2];
+				offset += IMA4_HEADER_BYTES;
+
+				final int blockEnd = Math.min(end, frame + IMA4_BLOCK_FRAMES);
+				for (int i = 0; frame < blockEnd; frame++, i++) {
+					final int nibble = ((i & 1) == 0 ? adpcm[offset + (i >> 1)] : adpcm[offset + (i >> 1)] >> 4) & 0xF;
+					final int state = (index << 4) | nibble;
+					predictor = clamp16(predictor + IMA4_DELTAS[state]);
+					index = IMA4_NEXT[state];
+					if (frame >= first) {
+						dst[dstIndex++] = predictor * PCM16_SCALE;
+					}
+				}
+			}
+		}
+
+		void readStereo(final byte[] adpcm, final int first, final float[] dst, int dstIndex, final int count) {
+			final int end = first + count;
+			int frame = first - first % IMA4_BLOCK_FRAMES;
+			while (frame < end) {
+				int offset = (frame / IMA4_BLOCK_FRAMES) * IMA4_BLOCK_BYTES * 2;
+				int predictorL = (short) ((adpcm[offset] & 0xFF) | (adpcm[offset + 1] << 8));
+				int indexL = adpcm[offset + 2];
+				int predictorR = (short) ((adpcm[offset + 4] & 0xFF) | (adpcm[offset + 5] << 8));
+				int indexR = adpcm[offset + 6];
+				offset += IMA4_HEADER_BYTES * 2;
+
+				// One byte a frame, left in the low nibble.
+				final int blockEnd = Math.min(end, frame + IMA4_BLOCK_FRAMES);
+				for (; frame < blockEnd; frame++) {
+					final int packed = adpcm[offset++];
+					final int stateL = (indexL << 4) | (packed & 0xF);
+					final int stateR = (indexR << 4) | ((packed >> 4) & 0xF);
+					predictorL = clamp16(predictorL + IMA4_DELTAS[stateL]);
+					predictorR = clamp16(predictorR + IMA4_DELTAS[stateR]);
+					indexL = IMA4_NEXT[stateL];
+					indexR = IMA4_NEXT[stateR];
+					if (frame >= first) {
+						dst[dstIndex++] = predictorL * PCM16_SCALE;
+						dst[dstIndex++] = predictorR * PCM16_SCALE;
+					}
+				}
+			}
+		}
+	},
+	/**
+	 * 16 bit signed PCM read in place from a memory mapped file, never copied onto the heap, scaled
+	 * by {@link AudioBuffer#mappedScale} as it is read.  Buffers are pointed at their samples by
+	 * {@link #map}, never converted into: it can't be requested with AL_SAMPLE_STORAGE_AAL.
+	 */
+	MAPPED(AL.AL_STORAGE_MAPPED_AAL) {
+		@Override
+		void read(final AudioBuffer buffer, final int first, final float[] dst, final int dstIndex, final int count) {
+			final ShortBuffer mapped = buffer.mapped;
+			final float scale = buffer.mappedScale;
+			final int channels = buffer.channels;
+			final int end = (first + count) * channels;
+			for (int i = first * channels, j = dstIndex * channels; i < end; i++, j++) {
+				dst[j] = mapped.get(i) * scale;
+			}
+		}
+	};
+
+	static final float PCM16_SCALE = 1.0f / Short.MAX_VALUE;
+
+	static final int IMA4_BLOCK_FRAMES = 64;
+	static final int IMA4_HEADER_BYTES = 4; // predictor (little endian), step index, unused
+	static final int IMA4_BLOCK_BYTES = IMA4_HEADER_BYTES + IMA4_BLOCK_FRAMES / 2; // Per channel
+
+	static final int[] IMA4_INDICES = {
+		-1, -1, -1, -1, 2, 4, 6, 8,
+		-1, -1, -1, -1, 2, 4, 6, 8
+	};
+
+	static final int[] IMA4_STEPS = {
+		7, 8, 9, 10, 11, 12, 13, 14, 16, 17,
+		19, 21, 23, 25, 28, 31, 34, 37, 41, 45,
+		50, 55, 60, 66, 73, 80, 88, 97, 107, 118,
+		130, 143, 157, 173, 190, 209, 230, 253, 279, 307,
+		337, 371, 408, 449, 494, 544, 598, 658, 724, 796,
+		876, 963, 1060, 1166, 1282, 1411, 1552, 1707, 1878, 2066,
+		2272, 2499, 2749, 3024, 3327, 3660, 4026, 4428, 4871, 5358,
+		5894, 6484, 7132, 7845, 8630, 9493, 10442, 11487, 12635, 13899,
+		15289, 16818, 18500, 20350, 22385, 24623, 27086, 29794, 32767
+	};
+
+	// Signed predictor change and next step index for every step index << 4 | nibble, so decoding
+	// a nibble is two table reads and a clamp.
+	static final int[] IMA4_DELTAS = new int[IMA4_STEPS.length << 4];
+	static final byte[] IMA4_NEXT = new byte[IMA4_STEPS.length << 4];
+
+	static {
+		for (int index = 0; index < IMA4_STEPS.length; index++) {
+			final int step = IMA4_STEPS[index];
+			for (int nibble = 0; nibble < 16; nibble++) {
+				int delta = step >> 3;
+				if ((nibble & 4) != 0) { delta += step; }
+				if ((nibble & 2) != 0) { delta += step >> 1; }
+				if ((nibble & 1) != 0) { delta += step >> 2; }
+				IMA4_DELTAS[(index << 4) | nibble] = ((nibble & 8) != 0) ? -delta : delta;
+				IMA4_NEXT[(index << 4) | nibble] = (byte) Math.max(0, Math.min(IMA4_STEPS.length - 1, index + IMA4_INDICES[nibble]));
+			}
+		}
+	}
+
+	/** Cached values(), looked up by AL token without allocating. */
+	static final SampleStorage[] ALL = values();
+
+	/** Storage buffers use until AL_SAMPLE_STORAGE_AAL is set. */
+	static final SampleStorage DEFAULT = FLOAT;
+
+	/** Value of AL_SAMPLE_STORAGE_AAL selecting this storage. */
+	final AL token;
+
+	SampleStorage(final AL token) {
+		this.token = token;
+	}
+
+	/**
+	 * @return The storage selected by an AL_SAMPLE_STORAGE_AAL value, null if it is not one.
+	 */
+	static SampleStorage of(final int value) {
+		for (final SampleStorage storage : ALL) {
+			if (storage != MAPPED && storage.token.value() == value) { return storage; }
+		}
+		return null;
+	}
+
+	/**
+	 * Point the buffer at 16 bit samples in place, the data of the other storages is released.
+	 * Nothing is read, the OS pages the samples in as the mixer plays them.
+	 *
+	 * @param buffer  Buffer to fill, not attached to or queued on any source, its channels set
+	 * @param samples Samples, channels interleaved, from position 0 to the limit, in the byte order of the data
+	 * @param scale   Float value of a sample of 1, {@link #PCM16_SCALE} to play them as recorded
+	 */
+	static void map(final AudioBuffer buffer, final ShortBuffer samples, final float scale) {
+		buffer.data = null;
+		buffer.pcm = null;
+		buffer.adpcm = null;
+		buffer.mapped = samples;
+		buffer.mappedScale = scale;
+		buffer.storage = MAPPED;
+		buffer.frames = samples.limit() / buffer.channels;
+	}
+
+	/**
+	 * Replace the buffer's samples, the data of the other storages is released.  Kept as floats
+	 * here, PCM16 and IMA4 encode them.  Only storages {@link #of} returns are requested, so this is
+	 * never called on MAPPED.
+	 *
+	 * @param buffer  Buffer to fill, not attached to or queued on any source, its channels set
+	 * @param samples Converted samples, channels interleaved, normalized to -1.0 to 1.0
+	 */
+	void store(final AudioBuffer buffer, final float[] samples) {
+		buffer.data = samples;
+		buffer.pcm = null;
+		buffer.adpcm = null;
+		buffer.mapped = null;
+	}
+
+	/**
+	 * Decode frames of the buffer as floats, channels interleaved.  Runs in the mixing pass, must not allocate.
+	 *
+	 * @param buffer   Buffer stored in this storage
+	 * @param first    First frame to read, within the buffer
+	 * @param dst      Destination
+	 * @param dstIndex First frame written in dst
+	 * @param count    Number of frames to read, first + count is at most the buffer's frames
+	 */
+	abstract void read(final AudioBuffer buffer, final int first, final float[] dst, final int dstIndex, final int count);
+
+	/**
+	 * @return The sample rounded to 16 bits, clamped to the 16 bit range.
+	 */
+	static short quantize(final float sample) {
+		return (short) Math.max(-Short.MAX_VALUE, Math.min(Short.MAX_VALUE, Math.round(sample * Short.MAX_VALUE)));
+	}
+
+	/**
+	 * @return The value clamped to the 16 bit range.
+	 */
+	static int clamp16(final int value) {
+		return Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value));
+	}
+}
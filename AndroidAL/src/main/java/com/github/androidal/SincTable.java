@@ -0,0 +1,107 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+/**
+ * Polyphase Kaiser windowed sinc filter, shared by every voice using the same quality.
+ * <p>
+ * The filter is tabulated for {@link #PHASES} + 1 sub-frame offsets, the kernel interpolates
+ * between the two phases around the cursor.  Played faster than the output rate a source has
+ * to be low passed below the output's Nyquist frequency, so the table holds one filter per
+ * {@link #SCALES} cutoff, each a step of 0.5 apart from 1.0 (no band limiting) up to
+ * {@link AudioMixer#maxPitch}.  A pass uses the filter for the largest step of its ramp.
+ */
+class SincTable {
+	static final int PHASE_BITS = 7;
+	static final int PHASES = 1 << PHASE_BITS;
+	static final int PHASE_SHIFT = Resampler.FRACTION_BITS - PHASE_BITS;
+	static final long PHASE_MASK = (1L << PHASE_SHIFT) - 1;
+	static final float PHASE_SCALE = 1.0f / (1L << PHASE_SHIFT);
+
+	static final float SCALE_STEP = 0.5f;
+	static final int SCALES = (int) ((AudioMixer.maxPitch - 1.0f) / SCALE_STEP) + 1;
+
+	/** Filter length, the kernel reads taps / 2 - 1 frames before the cursor and taps / 2 after. */
+	final int taps;
+	/** Coefficients by scale, phase (0 to PHASES inclusive) then tap. */
+	final float[] coefficients;
+
+	/**
+	 * Tabulate the filters.
+	 *
+	 * @param taps      Filter length, even.
+	 * @param beta      Kaiser window shape, higher trades a wider transition for less ripple.
+	 * @param bandwidth Cutoff as a fraction of the Nyquist frequency at unity step.
+	 */
+	SincTable(final int taps, final double beta, final double bandwidth) {
+		this.taps = taps;
+		this.coefficients = new float[SCALES * (PHASES + 1) * taps];
+
+		final double half = taps / 2.0;
+		final double windowNorm = 1.0 / besselI0(beta);
+		for (int scale = 0; scale < SCALES; scale++) {
+			final double cutoff = bandwidth / (1.0 + scale * SCALE_STEP);
+			for (int phase = 0; phase <= PHASES; phase++) {
+				final int base = (scale * (PHASES + 1) + phase) * taps;
+				final double fraction = (double) phase / PHASES;
+				double sum = 0.0;
+				for (int tap = 0; tap < taps; tap++) {
+					// Distance of the tap's frame from the cursor.
+					final double x = tap - (taps / 2 - 1) - fraction;
+					final double r = x / half;
+					final double window = (r * r < 1.0) ? besselI0(beta * Math.sqrt(1.0 - r * r)) * windowNorm : 0.0;
+					final double h = cutoff * sinc(cutoff * x) * window;
+					coefficients[base + tap] = (float) h;
+					sum += h;
+				}
+				// Unity gain at DC for every phase, so a constant signal stays constant.
+				for (int tap = 0; tap < taps; tap++) {
+					coefficients[base + tap] /= (float) sum;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return Index of the first coefficient of the filter for the largest fixed point step a
+	 * pass is played at.
+	 */
+	int scaleBase(final long step) {
+		final float pitch = step * Resampler.FRACTION_SCALE;
+		final int scale = (pitch <= 1.0f) ? 0 : Math.min(SCALES - 1, (int) Math.ceil((pitch - 1.0f) / SCALE_STEP));
+		return scale * (PHASES + 1) * taps;
+	}
+
+	static double sinc(final double x) {
+		if (x == 0.0) { return 1.0; }
+		final double px = Math.PI * x;
+		return Math.sin(px) / px;
+	}
+
+	/**
+	 * @return Zeroth order modified Bessel function of the first kind, by its power series.
+	 */
+	static double besselI0(final double x) {
+		double sum = 1.0;
+		double term = 1.0;
+		final double quarter = x * x / 4.0;
+		for (int k = 1; k < 64 && term > sum * 1e-16; k++) {
+			term *= quarter / ((double) k * k);
+			sum += term;
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Sound bank file, many buffers converted ahead of time by the host side SoundBankPacker and loaded with
+ * alLoadSoundBankAAL.  The file is mapped once and every buffer plays its samples in place from the
+ * mapping (AL_STORAGE_MAPPED_AAL), so loading costs one map call and a walk of the index.
+ * <p>
+ * Layout, little endian: a 16 byte header (magic "AALB", version, buffer count, offset of the
+ * samples), a 20 byte index entry per buffer (channels, frequency, frames, byte offset of its
+ * samples, normalizing scale as a float), then the samples of every buffer as interleaved 16 bit
+ * PCM, each buffer starting on a 16 byte boundary.
+ */
+class SoundBank {
+	static final int MAGIC = WaveFile.fourCC('A', 'A', 'L', 'B');
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 16;
+	static final int ENTRY_SIZE = 20;
+	static final int ALIGNMENT = 16;
+
+	final ByteBuffer region; // Whole file
+
+	// Index, one element per buffer
+	final int[] channels;
+	final int[] frequencies;
+	final int[] frames;
+	final int[] offsets;
+	final float[] scales;
+
+	SoundBank(final ByteBuffer region, final int count) {
+		this.region = region;
+		channels = new int[count];
+		frequencies = new int[count];
+		frames = new int[count];
+		offsets = new int[count];
+		scales = new float[count];
+	}
+
+	/**
+	 * @return Number of buffers in the bank.
+	 */
+	int size() {
+		return channels.length;
+	}
+
+	/**
+	 * @return The samples of a buffer, a view into the bank, channels interleaved.
+	 */
+	ShortBuffer samples(final int entry) {
+		final ByteBuffer samples = region.duplicate();
+		samples.limit(offsets[entry] + frames[entry] * channels[entry] * Short.BYTES);
+		samples.position(offsets[entry]);
+		return samples.slice().order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+	}
+
+	/**
+	 * Point a new buffer at the samples of an entry, played in place.
+	 */
+	void assign(final int entry, final AudioBuffer buffer) {
+		buffer.frequency = frequencies[entry];
+		buffer.bits = 16;
+		buffer.channels = channels[entry];
+		buffer.size = frames[entry] * channels[entry] * Short.BYTES;
+		buffer.rate = frequencies[entry];
+		SampleStorage.map(buffer, samples(entry), scales[entry]);
+	}
+
+	/**
+	 * Map a bank read only and parse its index.  The mapping stays valid once the file is closed, it
+	 * is released when the last buffer viewing it is deleted and collected.
+	 *
+	 * @return The bank, null if the file is not a valid sound bank.
+	 * @throws IOException if the file can't be opened or mapped.
+	 */
+	static SoundBank map(final File file) throws IOException {
+		try (RandomAccessFile input = new RandomAccessFile(file, "r"); FileChannel channel = input.getChannel()) {
+			final long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("File too large to map: " + file);
+			}
+			return parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+		}
+	}
+
+	/**
+	 * Parse a bank held in a buffer, from its position to its limit.  Every entry is checked to lie
+	 * within the buffer, so a truncated or corrupt bank is rejected as a whole.
+	 *
+	 * @return The bank, its samples viewed in place, null if the buffer is not a valid sound bank.
+	 */
+	static SoundBank parse(final ByteBuffer buffer) {
+		final ByteBuffer region = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+		if (region.limit() < HEADER_SIZE || region.getInt(0) != MAGIC || region.getInt(4) != VERSION) {
+			return null;
+		}
+		final int count = region.getInt(8);
+		final long dataOffset = region.getInt(12) & 0xFFFFFFFFL;
+		if (count < 0 || dataOffset < HEADER_SIZE + (long) count * ENTRY_SIZE || dataOffset > region.limit()) {
+			return null;
+		}
+
+		final SoundBank bank = new SoundBank(region, count);
+		for (int i = 0, entry = HEADER_SIZE; i < count; i++, entry += ENTRY_SIZE) {
+			final int channels = region.getInt(entry);
+			final int frequency = region.getInt(entry + 4);
+			final long frames = region.getInt(entry + 8) & 0xFFFFFFFFL;
+			final long offset = region.getInt(entry + 12) & 0xFFFFFFFFL;
+			final float scale = region.getFloat(entry + 16);
+			if ((channels != 1 && channels != 2) || frequency <= 0 || offset < dataOffset || (offset & 1) != 0
+				|| offset + frames * channels * Short.BYTES > region.limit() || !(scale > 0.0f)) {
+				return null;
+			}
+			bank.channels[i] = channels;
+			bank.frequencies[i] = frequency;
+			bank.frames[i] = (int) frames;
+			bank.offsets[i] = (int) offset;
+			bank.scales[i] = scale;
+		}
+		return bank;
+	}
+
+	/**
+	 * Write a bank of converted buffers, in order.
+	 *
+	 * @param file    Bank to create or replace
+	 * @param buffers Buffers stored as PCM16, or MAPPED
+	 * @throws IOException if the file can't be written.
+	 */
+	static void write(final File file, final AudioBuffer[] buffers) throws IOException {
+		try (RandomAccessFile output = new RandomAccessFile(file, "rw"); FileChannel channel = output.getChannel()) {
+			output.setLength(0);
+
+			final ByteBuffer index = ByteBuffer.allocate(HEADER_SIZE + buffers.length * ENTRY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			final int dataOffset = (int) align(index.capacity());
+			index.putInt(MAGIC).putInt(VERSION).putInt(buffers.length).putInt(dataOffset);
+
+			long offset = dataOffset;
+			for (final AudioBuffer buffer : buffers) {
+				final ShortBuffer samples = samples(buffer);
+				if (offset > Integer.MAX_VALUE) {
+					throw new IOException("Sound bank larger than 2GB");
+				}
+				index.putInt(buffer.channels).putInt(buffer.rate).putInt(buffer.frames).putInt((int) offset);
+				index.putFloat(buffer.storage == SampleStorage.MAPPED ? buffer.mappedScale : SampleStorage.PCM16_SCALE);
+
+				final ByteBuffer bytes = ByteBuffer.allocate(samples.remaining() * Short.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+				bytes.asShortBuffer().put(samples);
+				while (bytes.hasRemaining()) {
+					channel.write(bytes, offset + bytes.position());
+				}
+				offset = align(offset + bytes.capacity());
+			}
+			if (offset > Integer.MAX_VALUE) {
+				throw new IOException("Sound bank larger than 2GB");
+			}
+
+			index.flip();
+			while (index.hasRemaining()) {
+				channel.write(index, index.position());
+			}
+			output.setLength(offset); // Pads the last buffer
+		}
+	}
+
+	/**
+	 * @return The 16 bit samples of a converted buffer.
+	 */
+	static ShortBuffer samples(final AudioBuffer buffer) {
+		if (buffer.storage == SampleStorage.MAPPED) {
+			return buffer.mapped.duplicate();
+		}
+		if (buffer.storage == SampleStorage.PCM16) {
+			return ShortBuffer.wrap(buffer.pcm);
+		}
+		throw new IllegalArgumentException("Buffer not stored as 16 bit PCM: " + buffer.storage);
+	}
+
+	static long align(final long offset) {
+		return (offset + ALIGNMENT - 1) & -ALIGNMENT;
+	}
+}
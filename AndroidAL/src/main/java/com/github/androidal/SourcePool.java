@@ -0,0 +1,409 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The mixer's copy of every source, stored as structure of arrays indexed by the source's slot.
+ * <p>
+ * Each parameter is a primitive array, vectors take three consecutive entries and left/right pairs
+ * two, so the per pass spatial math runs as tight loops over contiguous memory instead of chasing
+ * one object per source.  The API thread keeps its {@link AudioSource} copies and forwards every
+ * change here through the mixer's {@link CommandRing}.  A source's slot is the index of its id in
+ * the context's {@link HandleTable}, so slots are reused as ids are.
+ * <p>
+ * At the end of every pass the mixer publishes the state and playback offset of the sources it
+ * touched to {@link #snapshot}, which the API reads in bulk.  It is a sequence lock: the version is
+ * odd while the mixer writes and readers retry when it was odd or changed while they read, so the
+ * mixer never waits on them.
+ */
+class SourcePool {
+	static final int INITIAL = AL.AL_INITIAL.value();
+	static final int PLAYING = AL.AL_PLAYING.value();
+	static final int PAUSED = AL.AL_PAUSED.value();
+	static final int STOPPED = AL.AL_STOPPED.value();
+
+	int capacity = 0;
+
+	// Source parameters, as set through the API
+	float[] gain = new float[0];
+	float[] pitch = new float[0];
+	float[] gainMin = new float[0];
+	float[] gainMax = new float[0];
+	float[] maxDistance = new float[0];
+	float[] rollOffFactor = new float[0];
+	float[] referenceDistance = new float[0];
+	float[] coneOuterGain = new float[0];
+	float[] coneInnerAngle = new float[0];
+	float[] coneOuterAngle = new float[0];
+	float[] position = new float[0]; // x, y, z per slot
+	float[] velocity = new float[0]; // x, y, z per slot
+	float[] direction = new float[0]; // x, y, z per slot
+	boolean[] looping = new boolean[0];
+	boolean[] sourceRelative = new boolean[0];
+	int[] resampler = new int[0]; // Resampler ordinal
+	BufferQueue[] queue = new BufferQueue[0]; // Buffers attached or queued, resolved by the API thread so the pass does no lookups
+	int[] state = new int[0]; // AL state value
+	int[] stateSerial = new int[0]; // Serial of the last state change applied, published back with the state
+	AudioSource[] owner = new AudioSource[0]; // API copy the state is published to
+
+	// Mixing state
+	int[] bufferIndex = new int[0]; // Number of the queued buffer playing, the queue's end once all are played
+	AudioBuffer[] buffer = new AudioBuffer[0]; // Queued buffer playing, null once all are played
+	long[] playbackPosition = new long[0]; // Frames into the buffer playing as 32.32 fixed point, advanced by the pitch every output frame
+	float[] panningGain = new float[0]; // left, right per slot, evaluated every quantum
+	float[] distanceGain = new float[0]; // Evaluated every quantum
+	float[] dopplerShift = new float[0]; // Evaluated every quantum
+	float[] rampGain = new float[0]; // left, right per slot, where the last quantum ended and the next ramp starts
+	long[] rampStep = new long[0]; // Fixed point step the last quantum ended on
+	boolean[] rampValid = new boolean[0]; // false until the first quantum after play, which starts at its targets
+	float[] audibility = new float[0]; // Gain times distance attenuation, ranked against the voice budget
+	boolean[] real = new boolean[0]; // false while virtual, the position advances without being mixed
+	boolean[] demoting = new boolean[0]; // Losing its real voice, mixed one more quantum ramping to silence
+	boolean[] fadeIn = new boolean[0]; // Became real again, the first quantum ramps up from silence
+	int[] mixIndex = new int[0]; // Index in the mixer's list of playing voices, -1 while not on it
+
+	// Published by the mixer at the end of each pass, read by the API while the version is even and unchanged
+	final AtomicInteger snapshotVersion = new AtomicInteger();
+	volatile AtomicLongArray snapshot = new AtomicLongArray(0); // Per slot: source id << 32 | sample offset, state serial << 32 | state
+	int[] changed = new int[0]; // Slots to publish that are not on the playing list
+	boolean[] changedFlag = new boolean[0];
+	int changedCount = 0;
+
+	SourcePool() {
+		ensureCapacity(16);
+	}
+
+	/**
+	 * Grow every array so slots below the given count exist.  Only allocates when growing.
+	 */
+	void ensureCapacity(final int slots) {
+		if (slots <= capacity) { return; }
+		int size = Math.max(16, capacity);
+		while (size < slots) { size *= 2; }
+
+		gain = Arrays.copyOf(gain, size);
+		pitch = Arrays.copyOf(pitch, size);
+		gainMin = Arrays.copyOf(gainMin, size);
+		gainMax = Arrays.copyOf(gainMax, size);
+		maxDistance = Arrays.copyOf(maxDistance, size);
+		rollOffFactor = Arrays.copyOf(rollOffFactor, size);
+		referenceDistance = Arrays.copyOf(referenceDistance, size);
+		coneOuterGain = Arrays.copyOf(coneOuterGain, size);
+		coneInnerAngle = Arrays.copyOf(coneInnerAngle, size);
+		coneOuterAngle = Arrays.copyOf(coneOuterAngle, size);
+		position = Arrays.copyOf(position, size * 3);
+		velocity = Arrays.copyOf(velocity, size * 3);
+		direction = Arrays.copyOf(direction, size * 3);
+		looping = Arrays.copyOf(looping, size);
+		sourceRelative = Arrays.copyOf(sourceRelative, size);
+		resampler = Arrays.copyOf(resampler, size);
+		queue = Arrays.copyOf(queue, size);
+		for (int slot = capacity; slot < size; slot++) {
+			queue[slot] = new BufferQueue();
+		}
+		state = Arrays.copyOf(state, size);
+		stateSerial = Arrays.copyOf(stateSerial, size);
+		owner = Arrays.copyOf(owner, size);
+
+		bufferIndex = Arrays.copyOf(bufferIndex, size);
+		buffer = Arrays.copyOf(buffer, size);
+		playbackPosition = Arrays.copyOf(playbackPosition, size);
+		panningGain = Arrays.copyOf(panningGain, size * 2);
+		distanceGain = Arrays.copyOf(distanceGain, size);
+		dopplerShift = Arrays.copyOf(dopplerShift, size);
+		rampGain = Arrays.copyOf(rampGain, size * 2);
+		rampStep = Arrays.copyOf(rampStep, size);
+		rampValid = Arrays.copyOf(rampValid, size);
+		audibility = Arrays.copyOf(audibility, size);
+		real = Arrays.copyOf(real, size);
+		demoting = Arrays.copyOf(demoting, size);
+		fadeIn = Arrays.copyOf(fadeIn, size);
+		mixIndex = Arrays.copyOf(mixIndex, size);
+		changed = Arrays.copyOf(changed, size);
+		changedFlag = Arrays.copyOf(changedFlag, size);
+
+		final int version = snapshotVersion.get();
+		snapshotVersion.set(version + 1);
+		final AtomicLongArray grown = new AtomicLongArray(size * 2);
+		for (int i = 0; i < snapshot.length(); i++) {
+			grown.lazySet(i, snapshot.get(i));
+		}
+		snapshot = grown;
+		snapshotVersion.lazySet(version + 2);
+
+		capacity = size;
+	}
+
+	/**
+	 * Give a slot to a new source, every parameter back to its default.
+	 *
+	 * @param slot   Slot of the source.
+	 * @param source API copy the state is published to.
+	 */
+	void reset(final int slot, final AudioSource source) {
+		ensureCapacity(slot + 1);
+
+		gain[slot] = 1.0f;
+		pitch[slot] = 1.0f;
+		gainMin[slot] = 0.0f;
+		gainMax[slot] = 1.0f;
+		maxDistance[slot] = Float.MAX_VALUE;
+		rollOffFactor[slot] = 1.0f;
+		referenceDistance[slot] = 1.0f;
+		coneOuterGain[slot] = 0.0f;
+		coneInnerAngle[slot] = 360.0f;
+		coneOuterAngle[slot] = 360.0f;
+		Arrays.fill(position, slot * 3, slot * 3 + 3, 0.0f);
+		Arrays.fill(velocity, slot * 3, slot * 3 + 3, 0.0f);
+		Arrays.fill(direction, slot * 3, slot * 3 + 3, 0.0f);
+		looping[slot] = false;
+		sourceRelative[slot] = false;
+		resampler[slot] = Resampler.DEFAULT.ordinal();
+		queue[slot].reset();
+		state[slot] = INITIAL;
+		stateSerial[slot] = 0;
+		owner[slot] = source;
+
+		bufferIndex[slot] = 0;
+		buffer[slot] = null;
+		playbackPosition[slot] = 0;
+		panningGain[slot * 2] = 1.0f;
+		panningGain[slot * 2 + 1] = 1.0f;
+		distanceGain[slot] = 1.0f;
+		dopplerShift[slot] = 1.0f;
+		rampGain[slot * 2] = 0.0f;
+		rampGain[slot * 2 + 1] = 0.0f;
+		rampStep[slot] = 0;
+		rampValid[slot] = false;
+		audibility[slot] = 0.0f;
+		real[slot] = true;
+		demoting[slot] = false;
+		fadeIn[slot] = false;
+		mixIndex[slot] = -1;
+		snapshotChanged(slot);
+	}
+
+	/**
+	 * Set a float parameter, values are validated by the API.
+	 *
+	 * @return false if the parameter is not a float source parameter.
+	 */
+	boolean setFloat(final int slot, final AL param, final float value) {
+		switch (param) {
+			case AL_PITCH:
+				pitch[slot] = value;
+				return true;
+			case AL_GAIN:
+				gain[slot] = value;
+				return true;
+			case AL_MIN_GAIN:
+				gainMin[slot] = value;
+				return true;
+			case AL_MAX_GAIN:
+				gainMax[slot] = value;
+				return true;
+			case AL_MAX_DISTANCE:
+				maxDistance[slot] = value;
+				return true;
+			case AL_ROLLOFF_FACTOR:
+				rollOffFactor[slot] = value;
+				return true;
+			case AL_CONE_OUTER_GAIN:
+				coneOuterGain[slot] = value;
+				return true;
+			case AL_CONE_INNER_ANGLE:
+				coneInnerAngle[slot] = value;
+				return true;
+			case AL_CONE_OUTER_ANGLE:
+				coneOuterAngle[slot] = value;
+				return true;
+			case AL_REFERENCE_DISTANCE:
+				referenceDistance[slot] = value;
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * Set a 3D float parameter.
+	 *
+	 * @return false if the parameter is not a vector source parameter.
+	 */
+	boolean setVector(final int slot, final AL param, final float v1, final float v2, final float v3) {
+		final float[] vectors;
+		switch (param) {
+			case AL_POSITION:
+				vectors = position;
+				break;
+			case AL_VELOCITY:
+				vectors = velocity;
+				break;
+			case AL_DIRECTION:
+				vectors = direction;
+				break;
+			default:
+				return false;
+		}
+		vectors[slot * 3] = v1;
+		vectors[slot * 3 + 1] = v2;
+		vectors[slot * 3 + 2] = v3;
+		return true;
+	}
+
+	/**
+	 * Set the position, velocity and direction at once.
+	 *
+	 * @param values Position, velocity and direction, 9 floats from offset.
+	 */
+	void setTransform(final int slot, final float[] values, final int offset) {
+		final int v = slot * 3;
+		position[v] = values[offset];
+		position[v + 1] = values[offset + 1];
+		position[v + 2] = values[offset + 2];
+		velocity[v] = values[offset + 3];
+		velocity[v + 1] = values[offset + 4];
+		velocity[v + 2] = values[offset + 5];
+		direction[v] = values[offset + 6];
+		direction[v + 1] = values[offset + 7];
+		direction[v + 2] = values[offset + 8];
+	}
+
+	/**
+	 * Set an integer parameter, values are validated by the API.
+	 *
+	 * @return false if the parameter is not an integer source parameter.
+	 */
+	boolean setInt(final int slot, final AL param, final int value) {
+		switch (param) {
+			case AL_LOOPING:
+				looping[slot] = (value == 1);
+				return true;
+			case AL_SOURCE_RESAMPLER_SOFT:
+				resampler[slot] = value;
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * Replace the queue with a single buffer (AL_BUFFER), played from its start.
+	 *
+	 * @param audioBuffer Buffer attached, null to detach.
+	 */
+	void setBuffer(final int slot, final AudioBuffer audioBuffer) {
+		final BufferQueue buffers = queue[slot];
+		buffers.clear();
+		if (audioBuffer != null) {
+			buffers.add(audioBuffer);
+		}
+		selectBuffer(slot, buffers.first);
+	}
+
+	/**
+	 * Queue a buffer after the others, a source that had played all its buffers carries on with it.
+	 */
+	void queueBuffer(final int slot, final AudioBuffer audioBuffer) {
+		queue[slot].add(audioBuffer);
+		if (buffer[slot] == null) {
+			selectBuffer(slot, bufferIndex[slot]);
+		}
+	}
+
+	/**
+	 * Remove processed buffers from the front of the queue.  The API only removes buffers the mixer
+	 * had played, but a rewind or a loop may have gone back to them since, that restarts from the
+	 * first buffer left.
+	 */
+	void unqueueBuffers(final int slot, final int count) {
+		final BufferQueue buffers = queue[slot];
+		buffers.removeFirst(count);
+		if (bufferIndex[slot] - buffers.first < 0) {
+			playbackPosition[slot] = 0;
+			rampValid[slot] = false;
+			selectBuffer(slot, buffers.first);
+		}
+	}
+
+	/**
+	 * Play from the given queued buffer, or the queue's end for none.  The API sees the buffers
+	 * before it as processed.
+	 */
+	void selectBuffer(final int slot, final int number) {
+		final BufferQueue buffers = queue[slot];
+		bufferIndex[slot] = number;
+		buffer[slot] = (number - buffers.end < 0) ? buffers.get(number) : null;
+		final AudioSource source = owner[slot];
+		if (source != null) {
+			source.buffersPlayed = number;
+		}
+	}
+
+	/**
+	 * Publish the slot in the next snapshot, for slots whose state changed off the playing list.
+	 * The playing list is always published.
+	 */
+	void snapshotChanged(final int slot) {
+		if (!changedFlag[slot]) {
+			changedFlag[slot] = true;
+			changed[changedCount++] = slot;
+		}
+	}
+
+	/**
+	 * Mixer: publish the state and playback offset of the playing voices and of the changed slots.
+	 * NOTE: Runs in the mixing pass, nothing here may allocate.
+	 *
+	 * @param voices     Slots on the playing list.
+	 * @param voiceCount Number of voices on the list.
+	 */
+	void publishSnapshot(final int[] voices, final int voiceCount) {
+		final AtomicLongArray snapshot = this.snapshot;
+		final int version = snapshotVersion.get();
+		snapshotVersion.set(version + 1); // Entries written after this are only seen with the odd version
+		for (int i = 0; i < voiceCount; i++) {
+			writeSnapshot(snapshot, voices[i]);
+		}
+		for (int i = 0; i < changedCount; i++) {
+			writeSnapshot(snapshot, changed[i]);
+			changedFlag[changed[i]] = false;
+		}
+		changedCount = 0;
+		snapshotVersion.lazySet(version + 2);
+	}
+
+	void writeSnapshot(final AtomicLongArray snapshot, final int slot) {
+		final AudioSource source = owner[slot];
+		final long id = (source != null) ? source.id : 0;
+		snapshot.lazySet(slot * 2, (id << 32) | (playbackPosition[slot] >>> Resampler.FRACTION_BITS));
+		snapshot.lazySet(slot * 2 + 1, ((long) stateSerial[slot] << 32) | state[slot]);
+	}
+
+	/**
+	 * Publish the slot's state to its API copy, see {@link AudioSource#currentState()}.
+	 */
+	void publishState(final int slot) {
+		final AudioSource source = owner[slot];
+		if (source != null) {
+			source.status = ((long) stateSerial[slot] << 32) | state[slot];
+		}
+	}
+}
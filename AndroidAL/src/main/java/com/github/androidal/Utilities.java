@@ -75,17 +75,6 @@ class Utilities {
 		result[2] = v1[2] - v2[2];
 	}
 
-	/**
-	 * Perform an endian swap for a short value.
-	 *
-	 * @param data  byte array.
-	 * @param index in byte array to start at.
-	 * @return endian swapped short.
-	 */
-	static short swapShort(final byte[] data, final int index) {
-		return (short) ((byte2Int(data[index + 1]) << 8) + byte2Int(data[index]));
-	}
-
 	/**
 	 * Convert a signed byte value to an integer.
 	 *
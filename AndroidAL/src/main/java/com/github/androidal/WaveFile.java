@@ -0,0 +1,153 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * RIFF/WAVE file mapped into memory, the reading counterpart of {@link WaveFileSink}.  The header is
+ * parsed and the samples of the data chunk are left in the mapping, nothing is copied onto the heap.
+ * <p>
+ * 8 and 16 bit PCM and 32 bit IEEE float, mono or stereo, are read, plain or WAVE_FORMAT_EXTENSIBLE.
+ */
+class WaveFile {
+	static final short WAVE_FORMAT_PCM = 1;
+	static final short WAVE_FORMAT_EXTENSIBLE = (short) 0xFFFE;
+	static final int CHUNK_HEADER_SIZE = 8;
+	static final int FMT_MIN_SIZE = 16;
+	static final int FMT_EXTENSIBLE_SIZE = 40;
+
+	final AL format;
+	final int frequency;
+	final int channels;
+	final int bits;
+	/**
+	 * data chunk, whole frames only, little endian, from position 0 to the limit
+	 */
+	final ByteBuffer samples;
+
+	WaveFile(final AL format, final int frequency, final int channels, final int bits, final ByteBuffer samples) {
+		this.format = format;
+		this.frequency = frequency;
+		this.channels = channels;
+		this.bits = bits;
+		this.samples = samples;
+	}
+
+	/**
+	 * @return true if a buffer with these settings plays the samples from the mapping rather than converting them.
+	 */
+	boolean playsInPlace(final AudioBuffer buffer) {
+		return buffer.nativeRate && bits == 16;
+	}
+
+	/**
+	 * Map a file read only and parse it.  The mapping stays valid once the file is closed, it is
+	 * released when the last view of it is collected.
+	 *
+	 * @return The file, null if it is not a RIFF/WAVE file of a supported format.
+	 * @throws IOException if the file can't be opened or mapped.
+	 */
+	static WaveFile map(final File file) throws IOException {
+		try (RandomAccessFile input = new RandomAccessFile(file, "r"); FileChannel channel = input.getChannel()) {
+			final long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("File too large to map: " + file);
+			}
+			return parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+		}
+	}
+
+	/**
+	 * Parse a RIFF/WAVE file held in a buffer, from its position to its limit.  Chunks other than
+	 * "fmt " and "data" are skipped, in either order, a data chunk cut short keeps the frames that
+	 * are present.
+	 *
+	 * @return The file, its samples a view into the buffer, null if it is not a RIFF/WAVE file of a supported format.
+	 */
+	static WaveFile parse(final ByteBuffer buffer) {
+		final ByteBuffer riff = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+		if (riff.remaining() < 12 || riff.getInt(0) != fourCC('R', 'I', 'F', 'F') || riff.getInt(8) != fourCC('W', 'A', 'V', 'E')) {
+			return null;
+		}
+
+		int audioFormat = 0;
+		int channels = 0;
+		int frequency = 0;
+		int bits = 0;
+		int data = -1; // Body of the data chunk, which may come before the fmt chunk
+		int dataPresent = 0;
+		int offset = 12;
+		while (riff.limit() - offset >= CHUNK_HEADER_SIZE && (data < 0 || bits == 0)) {
+			final int id = riff.getInt(offset);
+			final long size = riff.getInt(offset + 4) & 0xFFFFFFFFL;
+			final int body = offset + CHUNK_HEADER_SIZE;
+			final int present = (int) Math.min(size, riff.limit() - body);
+			if (id == fourCC('f', 'm', 't', ' ') && present >= FMT_MIN_SIZE) {
+				audioFormat = riff.getShort(body);
+				channels = riff.getShort(body + 2);
+				frequency = riff.getInt(body + 4);
+				bits = riff.getShort(body + 14);
+				if ((short) audioFormat == WAVE_FORMAT_EXTENSIBLE && present >= FMT_EXTENSIBLE_SIZE) {
+					audioFormat = riff.getShort(body + 24); // First two bytes of the sub format GUID
+				}
+			} else if (id == fourCC('d', 'a', 't', 'a') && data < 0) {
+				data = body;
+				dataPresent = present;
+			}
+			// Chunks are padded to an even size
+			final long next = body + size + (size & 1);
+			if (next > riff.limit()) {
+				break;
+			}
+			offset = (int) next;
+		}
+
+		final AL format = format(audioFormat, channels, bits);
+		if (data < 0 || format == null || frequency <= 0) {
+			return null;
+		}
+		final int frameSize = channels * bits / 8;
+		riff.position(data);
+		riff.limit(data + dataPresent - dataPresent % frameSize);
+		return new WaveFile(format, frequency, channels, bits, riff.slice().order(ByteOrder.LITTLE_ENDIAN));
+	}
+
+	/**
+	 * @return The alBufferData format of the samples, null if unsupported.
+	 */
+	static AL format(final int audioFormat, final int channels, final int bits) {
+		if (audioFormat == WAVE_FORMAT_PCM && bits == 8) {
+			return (channels == 1) ? AL.AL_FORMAT_MONO8 : (channels == 2) ? AL.AL_FORMAT_STEREO8 : null;
+		}
+		if (audioFormat == WAVE_FORMAT_PCM && bits == 16) {
+			return (channels == 1) ? AL.AL_FORMAT_MONO16 : (channels == 2) ? AL.AL_FORMAT_STEREO16 : null;
+		}
+		if (audioFormat == WaveFileSink.WAVE_FORMAT_IEEE_FLOAT && bits == 32) {
+			return (channels == 1) ? AL.AL_FORMAT_MONO_FLOAT32 : (channels == 2) ? AL.AL_FORMAT_STEREO_FLOAT32 : null;
+		}
+		return null;
+	}
+
+	static int fourCC(final char a, final char b, final char c, final char d) {
+		return a | (b << 8) | (c << 16) | (d << 24);
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Output that records everything written to it as a 32 bit float stereo RIFF/WAVE file.  Like the
+ * {@link NullSink} the playback head is always caught up with what was written, so a render runs
+ * as fast as the CPU and disk allow.
+ * <p>
+ * The RIFF and data chunk sizes are patched in when the sink is stopped or released.
+ */
+class WaveFileSink implements AudioSink {
+	static final String TAG = "AndroidAL";
+
+	static final int HEADER_SIZE = 44;
+	static final short WAVE_FORMAT_IEEE_FLOAT = 3;
+	static final short CHANNELS = 2;
+
+	final File file;
+	final int sampleRate;
+	final int bufferSizeInBytes;
+
+	final RandomAccessFile output;
+	final FileChannel channel;
+	final ByteBuffer header;
+	final ByteBuffer bytes;
+	final FloatBuffer floats;
+
+	long framesWritten = 0;
+	long dataSizeInBytes = 0;
+
+	WaveFileSink(final File file) throws IOException {
+		this(file, NullSink.DEFAULT_SAMPLE_RATE, NullSink.DEFAULT_BUFFER_SIZE_IN_BYTES);
+	}
+
+	WaveFileSink(final File file, final int sampleRate, final int bufferSizeInBytes) throws IOException {
+		this.file = file;
+		this.sampleRate = sampleRate;
+		this.bufferSizeInBytes = bufferSizeInBytes;
+
+		output = new RandomAccessFile(file, "rw");
+		output.setLength(0);
+		channel = output.getChannel();
+
+		// Staging buffers are allocated once so writing stays off the garbage collector.
+		header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		bytes = ByteBuffer.allocateDirect(bufferSizeInBytes).order(ByteOrder.LITTLE_ENDIAN);
+		floats = bytes.asFloatBuffer();
+
+		writeHeader();
+		Log.i(TAG, "Recording output to: " + file.getAbsolutePath());
+	}
+
+	@Override
+	public int getSessionId() { return 0; }
+
+	@Override
+	public int getSampleRate() { return sampleRate; }
+
+	@Override
+	public int getBufferSizeInBytes() { return bufferSizeInBytes; }
+
+	@Override
+	public long getPlaybackHeadPosition() { return framesWritten; }
+
+	@Override
+	public int write(final float[] data, final int offset, final int length, final boolean blocking) {
+		try {
+			int written = 0;
+			while (written < length) {
+				// Stage as many samples as fit and append them after what is already in the file.
+				final int count = Math.min(length - written, floats.capacity());
+				floats.clear();
+				floats.put(data, offset + written, count);
+				bytes.clear();
+				bytes.limit(count * Float.BYTES);
+				while (bytes.hasRemaining()) {
+					dataSizeInBytes += channel.write(bytes, HEADER_SIZE + dataSizeInBytes);
+				}
+				written += count;
+			}
+			framesWritten += length / CHANNELS;
+			return length;
+		} catch (IOException ex) {
+			Log.e(TAG, "WaveFileSink::write: " + ex.getMessage());
+			return -1;
+		}
+	}
+
+	@Override
+	public void play() { }
+
+	@Override
+	public void stop() {
+		try {
+			writeHeader();
+			channel.force(false);
+		} catch (IOException ex) {
+			Log.e(TAG, "WaveFileSink::stop: " + ex.getMessage());
+		}
+	}
+
+	@Override
+	public void flush() { }
+
+	@Override
+	public void release() {
+		try {
+			writeHeader();
+			channel.close();
+			output.close();
+		} catch (IOException ex) {
+			Log.e(TAG, "WaveFileSink::release: " + ex.getMessage());
+		}
+	}
+
+	/**
+	 * Write (or re-write) the RIFF header using the amount of sample data written so far.
+	 */
+	void writeHeader() throws IOException {
+		final int blockAlign = CHANNELS * Float.BYTES;
+
+		header.clear();
+		header.put((byte) 'R').put((byte) 'I').put((byte) 'F').put((byte) 'F');
+		header.putInt((int) (HEADER_SIZE - 8 + dataSizeInBytes));
+		header.put((byte) 'W').put((byte) 'A').put((byte) 'V').put((byte) 'E');
+		header.put((byte) 'f').put((byte) 'm').put((byte) 't').put((byte) ' ');
+		header.putInt(16); // fmt chunk size
+		header.putShort(WAVE_FORMAT_IEEE_FLOAT);
+		header.putShort(CHANNELS);
+		header.putInt(sampleRate);
+		header.putInt(sampleRate * blockAlign); // bytes per second
+		header.putShort((short) blockAlign);
+		header.putShort((short) (Float.BYTES * 8)); // bits per sample
+		header.put((byte) 'd').put((byte) 'a').put((byte) 't').put((byte) 'a');
+		header.putInt((int) dataSizeInBytes);
+		header.flip();
+
+		while (header.hasRemaining()) {
+			channel.write(header, header.position());
+		}
+	}
+}
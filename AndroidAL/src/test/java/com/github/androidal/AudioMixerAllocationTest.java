@@ -0,0 +1,126 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The mixing pass runs ~46 times a second for every playing source, once warmed up it must not
+ * allocate or the garbage collector will eventually pause the mixer thread.
+ */
+public class AudioMixerAllocationTest {
+	static final int FRAMES = 1024;
+	static final int SOURCES = 64;
+	static final int WARM_UP_PASSES = 5_000;
+	static final int MEASURED_PASSES = 1_000;
+
+	@Test
+	public void mixingPass_isAllocationFree() {
+		final AndroidAL al = createScene();
+		final AudioSink sink = al.device.sink;
+
+		final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		final long threadId = Thread.currentThread().getId();
+
+		// Let the one-shot transitions (finished and broken sources) happen and the JIT settle.
+		for (int i = 0; i < WARM_UP_PASSES; i++) {
+			al.audioMixer.fillBuffer(sink, FRAMES);
+		}
+
+		// Whatever the measurement itself costs is not charged to the mixer.
+		long start = threads.getThreadAllocatedBytes(threadId);
+		final long overhead = threads.getThreadAllocatedBytes(threadId) - start;
+
+		start = threads.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < MEASURED_PASSES; i++) {
+			al.audioMixer.fillBuffer(sink, FRAMES);
+		}
+		final long allocated = threads.getThreadAllocatedBytes(threadId) - start - overhead;
+
+		Assert.assertEquals("Bytes allocated over " + MEASURED_PASSES + " passes", 0, allocated);
+	}
+
+	/**
+	 * @return Null device and context with looping, one-shot and broken sources playing.
+	 */
+	static AndroidAL createScene() {
+		final AndroidAL al = new AndroidAL();
+		final int deviceId = (int) al.alcOpenDevice(AndroidAL.ALC_DEVICE_NULL);
+		al.alcCreateContext(deviceId, null);
+		al.audioMixer.setContext(al.context);
+
+		// Buffer Ids above the Integer cache so any boxing would show up as allocations.
+		final int[] bufferIds = new int[200];
+		al.alGenBuffers(bufferIds);
+		final int bufferId = bufferIds[bufferIds.length - 1];
+		final byte[] pcm = new byte[22050 * 2];
+		for (int i = 0; i < pcm.length; i += 2) {
+			final int sample = (int) (Math.sin(i * Math.PI / 50) * 16000);
+			pcm[i] = (byte) sample;
+			pcm[i + 1] = (byte) (sample >> 8);
+		}
+		al.alBufferData(bufferId, AL.AL_FORMAT_MONO16.value(), pcm, 22050);
+
+		// The same samples in the compact storages, decoded by the mixer as it reads them.
+		final int pcm16BufferId = bufferIds[bufferIds.length - 2];
+		al.alBufferi(pcm16BufferId, AL.AL_SAMPLE_STORAGE_AAL, AL.AL_STORAGE_PCM16_AAL.value());
+		al.alBufferData(pcm16BufferId, AL.AL_FORMAT_MONO16.value(), pcm, 22050);
+		final int ima4BufferId = bufferIds[bufferIds.length - 3];
+		al.alBufferi(ima4BufferId, AL.AL_SAMPLE_STORAGE_AAL, AL.AL_STORAGE_IMA4_AAL.value());
+		al.alBufferData(ima4BufferId, AL.AL_FORMAT_MONO16.value(), pcm, 22050);
+
+		// The same bytes as stereo, mixed by the stereo kernels.
+		final int stereoBufferId = bufferIds[bufferIds.length - 4];
+		al.alBufferData(stereoBufferId, AL.AL_FORMAT_STEREO16.value(), pcm, 22050);
+		final int stereoIma4BufferId = bufferIds[bufferIds.length - 5];
+		al.alBufferi(stereoIma4BufferId, AL.AL_SAMPLE_STORAGE_AAL, AL.AL_STORAGE_IMA4_AAL.value());
+		al.alBufferData(stereoIma4BufferId, AL.AL_FORMAT_STEREO16.value(), pcm, 22050);
+
+		// The same samples as a WAVE file read in place, as alBufferWaveAAL leaves a mapped one.
+		final int mappedBufferId = bufferIds[bufferIds.length - 6];
+		final ByteBuffer file = ByteBuffer.allocateDirect(44 + pcm.length).order(ByteOrder.LITTLE_ENDIAN);
+		file.putInt(WaveFile.fourCC('R', 'I', 'F', 'F')).putInt(36 + pcm.length).putInt(WaveFile.fourCC('W', 'A', 'V', 'E'));
+		file.putInt(WaveFile.fourCC('f', 'm', 't', ' ')).putInt(16).putShort(WaveFile.WAVE_FORMAT_PCM).putShort((short) 1);
+		file.putInt(22050).putInt(22050 * 2).putShort((short) 2).putShort((short) 16);
+		file.putInt(WaveFile.fourCC('d', 'a', 't', 'a')).putInt(pcm.length).put(pcm).flip();
+		final WaveFile wave = WaveFile.parse(file);
+		al.alBufferi(mappedBufferId, AL.AL_NATIVE_RATE_AAL, AL.AL_TRUE.value());
+		al.alBufferData(mappedBufferId, wave.format.value(), wave, wave.frequency);
+		final int[] storageBufferIds = {bufferId, pcm16BufferId, ima4BufferId, stereoBufferId, stereoIma4BufferId, mappedBufferId};
+
+		final int[] sourceIds = new int[SOURCES];
+		al.alGenSources(sourceIds);
+		for (int i = 0; i < sourceIds.length; i++) {
+			al.alSourcei(sourceIds[i], AL.AL_BUFFER, storageBufferIds[i % storageBufferIds.length]);
+			al.alSourcei(sourceIds[i], AL.AL_LOOPING, (i % 8 == 0) ? AL.AL_FALSE.value() : AL.AL_TRUE.value());
+			al.alSourcef(sourceIds[i], AL.AL_PITCH, 0.5f + i / (float) SOURCES);
+			al.alSourcei(sourceIds[i], AL.AL_SOURCE_RESAMPLER_SOFT, i % Resampler.ALL.length);
+			al.alSource3f(sourceIds[i], AL.AL_POSITION, i - SOURCES / 2.0f, 0.0f, -i);
+			al.alSource3f(sourceIds[i], AL.AL_VELOCITY, 1.0f, 0.0f, -1.0f);
+			al.alSourcePlay(sourceIds[i]);
+		}
+
+		// A source whose buffer was never filled.
+		al.alSourcei(sourceIds[1], AL.AL_BUFFER, bufferIds[0]);
+
+		return al;
+	}
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Streaming queues: processed buffers are counted as the mixer finishes them and can be unqueued and
+ * queued again, only buffers on no source are refilled, and the mixer reads across buffer
+ * boundaries without a gap.
+ */
+public class BufferQueueTest {
+	static final int FRAMES = 256;
+	static final int BUFFER_FRAMES = 1000;
+
+	@Test
+	public void buffersProcessed_countsFinishedBuffers() {
+		final AndroidAL al = new AndroidAL();
+		final int deviceId = (int) al.alcOpenDevice(AndroidAL.ALC_DEVICE_NULL);
+		al.alcCreateContext(deviceId, null);
+		al.audioMixer.setContext(al.context);
+		final AudioSink sink = al.device.sink;
+		final int rate = al.device.defaultOutputSampleRate;
+
+		// Kept at the output rate, so a buffer plays for exactly its frames.
+		final int[] bufferIds = new int[3];
+		al.alGenBuffers(bufferIds);
+		for (final int bufferId : bufferIds) {
+			al.alBufferi(bufferId, AL.AL_NATIVE_RATE_AAL, AL.AL_TRUE.value());
+			al.alBufferData(bufferId, AL.AL_FORMAT_MONO_FLOAT32.value(), FloatBuffer.wrap(new float[BUFFER_FRAMES]), rate);
+		}
+
+		final int[] sourceIds = new int[1];
+		al.alGenSources(sourceIds);
+		final int sourceId = sourceIds[0];
+		al.alSourceQueueBuffers(sourceId, bufferIds);
+		Assert.assertEquals(3, sourceInt(al, sourceId, AL.AL_BUFFERS_QUEUED));
+		Assert.assertEquals(0, sourceInt(al, sourceId, AL.AL_BUFFERS_PROCESSED));
+
+		// Nothing can be unqueued before it is played.
+		al.alSourceUnqueueBuffers(sourceId, new int[1]);
+		Assert.assertEquals(AL.AL_INVALID_VALUE, al.alGetError());
+
+		al.alSourcePlay(sourceId);
+		int played = 0;
+		while (played < BUFFER_FRAMES + FRAMES) {
+			al.audioMixer.fillBuffer(sink, FRAMES);
+			played += FRAMES;
+		}
+		Assert.assertEquals(1, sourceInt(al, sourceId, AL.AL_BUFFERS_PROCESSED));
+
+		// The processed buffer comes off the front and goes back on the end.
+		final int[] unqueued = new int[1];
+		al.alSourceUnqueueBuffers(sourceId, unqueued);
+		Assert.assertEquals(AL.AL_NO_ERROR, al.alGetError());
+		Assert.assertEquals(bufferIds[0], unqueued[0]);
+		Assert.assertEquals(2, sourceInt(al, sourceId, AL.AL_BUFFERS_QUEUED));
+		Assert.assertEquals(0, sourceInt(al, sourceId, AL.AL_BUFFERS_PROCESSED));
+		al.alSourceQueueBuffers(sourceId, unqueued);
+		Assert.assertEquals(3, sourceInt(al, sourceId, AL.AL_BUFFERS_QUEUED));
+
+		// Play out the rest of the queue, every buffer is then processed and the source stops.
+		while (played < BUFFER_FRAMES * 4 + FRAMES) {
+			al.audioMixer.fillBuffer(sink, FRAMES);
+			played += FRAMES;
+		}
+		Assert.assertEquals(3, sourceInt(al, sourceId, AL.AL_BUFFERS_PROCESSED));
+		Assert.assertEquals(AL.AL_STOPPED.value(), sourceInt(al, sourceId, AL.AL_SOURCE_STATE));
+
+		final int[] all = new int[3];
+		al.alSourceUnqueueBuffers(sourceId, all);
+		Assert.assertArrayEquals(new int[] {bufferIds[1], bufferIds[2], bufferIds[0]}, all);
+		Assert.assertEquals(0, sourceInt(al, sourceId, AL.AL_BUFFERS_QUEUED));
+	}
+
+	@Test
+	public void alBufferData_rejectsAttachedBuffers() {
+		final AndroidAL al = new AndroidAL();
+		final int deviceId = (int) al.alcOpenDevice(AndroidAL.ALC_DEVICE_NULL);
+		al.alcCreateContext(deviceId, null);
+		final int rate = al.device.defaultOutputSampleRate;
+		final int format = AL.AL_FORMAT_MONO_FLOAT32.value();
+		final FloatBuffer data = FloatBuffer.wrap(new float[BUFFER_FRAMES]);
+
+		// An empty buffer too, the mixer reads whatever a playing source has attached.
+		final int[] bufferIds = new int[2];
+		al.alGenBuffers(bufferIds);
+		al.alBufferData(bufferIds[1], format, data, rate);
+		final int[] sourceIds = new int[2];
+		al.alGenSources(sourceIds);
+		al.alSourcei(sourceIds[0], AL.AL_BUFFER, bufferIds[0]);
+		al.alSourceQueueBuffers(sourceIds[1], new int[] {bufferIds[1]});
+		al.alSourcePlay(sourceIds[0]);
+		Assert.assertEquals(AL.AL_NO_ERROR, al.alGetError());
+
+		al.alBufferData(bufferIds[0], format, data, rate);
+		Assert.assertEquals(AL.AL_INVALID_OPERATION, al.alGetError());
+		Assert.assertNull(al.alBufferDataAsyncAAL(bufferIds[1], format, data, rate));
+		Assert.assertEquals(AL.AL_INVALID_OPERATION, al.alGetError());
+		Assert.assertNull(al.alBufferDataBatchAAL(bufferIds, new int[] {format, format}, new Object[] {data, data}, new int[] {rate, rate}));
+		Assert.assertEquals(AL.AL_INVALID_OPERATION, al.alGetError());
+		Assert.assertEquals(0, al.buffers.get(bufferIds[0]).frames);
+
+		// Filled once detached.
+		al.alSourceStop(sourceIds[0]);
+		al.alSourcei(sourceIds[0], AL.AL_BUFFER, 0);
+		al.alBufferData(bufferIds[0], format, data, rate);
+		Assert.assertEquals(AL.AL_NO_ERROR, al.alGetError());
+		Assert.assertEquals(BUFFER_FRAMES, al.buffers.get(bufferIds[0]).frames);
+	}
+
+	@Test
+	public void fetchFrames_readsAcrossBufferBoundaries() {
+		final BufferQueue queue = new BufferQueue();
+		queue.add(ramp(1, 0.0f, 10));
+		queue.add(ramp(2, 100.0f, 5));
+		queue.add(ramp(3, 200.0f, 10));
+		final float[] dst = new float[12];
+
+		// From the end of the first buffer through the second into the third.
+		AudioMixer.fetchFrames(queue, 0, false, 8, 9, dst, 1);
+		Assert.assertArrayEquals(new float[] {8, 9, 100, 101, 102, 103, 104, 200, 201}, slice(dst, 9), 0.0f);
+
+		// Frames before the buffer playing come from the one queued before it.
+		AudioMixer.fetchFrames(queue, 2, false, -3, 5, dst, 1);
+		Assert.assertArrayEquals(new float[] {102, 103, 104, 200, 201}, slice(dst, 5), 0.0f);
+
+		// Outside of the queue is silence, unless looping wraps around it.
+		AudioMixer.fetchFrames(queue, 2, false, 8, 4, dst, 1);
+		Assert.assertArrayEquals(new float[] {208, 209, 0, 0}, slice(dst, 4), 0.0f);
+		AudioMixer.fetchFrames(queue, 2, true, 8, 4, dst, 1);
+		Assert.assertArrayEquals(new float[] {208, 209, 0, 1}, slice(dst, 4), 0.0f);
+		AudioMixer.fetchFrames(queue, 0, false, -2, 3, dst, 1);
+		Assert.assertArrayEquals(new float[] {0, 0, 0}, slice(dst, 3), 0.0f);
+		AudioMixer.fetchFrames(queue, 0, true, -2, 3, dst, 1);
+		Assert.assertArrayEquals(new float[] {208, 209, 0}, slice(dst, 3), 0.0f);
+
+		// Unqueueing keeps the numbering, the second buffer is still number 1.
+		queue.removeFirst(1);
+		AudioMixer.fetchFrames(queue, 1, false, 3, 4, dst, 1);
+		Assert.assertArrayEquals(new float[] {103, 104, 200, 201}, slice(dst, 4), 0.0f);
+	}
+
+	/**
+	 * @return Mono float buffer whose frames count up from start.
+	 */
+	static AudioBuffer ramp(final int id, final float start, final int frames) {
+		final float[] samples = new float[frames];
+		for (int i = 0; i < frames; i++) {
+			samples[i] = start + i;
+		}
+		final AudioBuffer buffer = new AudioBuffer(id);
+		buffer.channels = 1;
+		buffer.store(samples);
+		return buffer;
+	}
+
+	static float[] slice(final float[] samples, final int length) {
+		final float[] slice = new float[length];
+		System.arraycopy(samples, 0, slice, 0, length);
+		return slice;
+	}
+
+	static int sourceInt(final AndroidAL al, final int sourceId, final AL param) {
+		final int[] value = new int[1];
+		al.alGetSourcei(sourceId, param, value);
+		return value[0];
+	}
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Commands reach the mixer's pool in the order the API made them, whether the mixer applies them or
+ * the API thread does because the ring filled up with the mixer stopped, and the API's state wins
+ * until the mixer has applied it.
+ */
+public class CommandRingTest {
+	static final int FRAMES = 256;
+
+	@Test
+	public void claim_appliesCommandsWhenFullAndNotMixing() {
+		final AndroidAL al = open();
+		final AudioMixer mixer = al.audioMixer;
+		final CommandRing ring = mixer.commands;
+		final int[] sourceIds = new int[2];
+		al.alGenSources(sourceIds);
+		final AudioSource first = al.context.sources.get(sourceIds[0]);
+		final AudioSource second = al.context.sources.get(sourceIds[1]);
+		mixer.processCommands();
+		Assert.assertFalse(mixer.isMixing());
+		final long start = ring.tail.get();
+
+		// Twice the ring of gains counting up, alternating between the sources.
+		final int count = CommandRing.CAPACITY * 2 + 101;
+		for (int i = 1; i <= count; i++) {
+			al.alSourcef(sourceIds[i & 1], AL.AL_GAIN, gain(i));
+			al.alSource3f(sourceIds[i & 1], AL.AL_POSITION, i, -i, 0.0f);
+		}
+		Assert.assertEquals(AL.AL_NO_ERROR, al.alGetError());
+
+		// The producer applied the oldest commands itself, and only whole ones in order.
+		final long applied = ring.head.get() - start;
+		Assert.assertTrue(applied > 0);
+		Assert.assertTrue(ring.tail.get() - ring.head.get() <= CommandRing.CAPACITY);
+		Assert.assertEquals(start + count * 2, ring.tail.get());
+		Assert.assertTrue(mixer.pool.gain[first.slot] < first.gain);
+		Assert.assertTrue(mixer.pool.gain[second.slot] < second.gain);
+		final int last = (int) ((applied - 1) / 2) + 1; // Gain then position per loop
+		Assert.assertEquals(gain(last), mixer.pool.gain[((last & 1) == 0) ? first.slot : second.slot], 0.0f);
+
+		mixer.processCommands();
+		Assert.assertEquals(ring.tail.get(), ring.head.get());
+		for (final AudioSource source : new AudioSource[] {first, second}) {
+			Assert.assertEquals(source.gain, mixer.pool.gain[source.slot], 0.0f);
+			for (int i = 0; i < 3; i++) {
+				Assert.assertEquals(source.position[i], mixer.pool.position[source.slot * 3 + i], 0.0f);
+			}
+		}
+		Assert.assertEquals(gain(count), second.gain, 0.0f);
+		Assert.assertEquals(gain(count - 1), first.gain, 0.0f);
+	}
+
+	@Test
+	public void reserve_keepsBatchesInOnePiece() {
+		final AndroidAL al = open();
+		final AudioMixer mixer = al.audioMixer;
+		final CommandRing ring = mixer.commands;
+		final int[] sourceIds = new int[2];
+		al.alGenSources(sourceIds);
+		mixer.processCommands();
+
+		// One slot short of full, the batch of two doesn't fit until the pending commands are applied.
+		while (ring.tail.get() - ring.head.get() < CommandRing.CAPACITY - 1) {
+			al.alSourcef(sourceIds[0], AL.AL_PITCH, 2.0f);
+		}
+		final float[] transforms = new float[AndroidAL.TRANSFORM_STRIDE * 2];
+		for (int i = 0; i < transforms.length; i++) {
+			transforms[i] = i;
+		}
+		al.alSourceTransformsAAL(sourceIds, transforms);
+		Assert.assertEquals(AL.AL_NO_ERROR, al.alGetError());
+		Assert.assertEquals(2, ring.tail.get() - ring.head.get());
+		Assert.assertEquals(2.0f, mixer.pool.pitch[al.context.sources.get(sourceIds[0]).slot], 0.0f);
+
+		mixer.processCommands();
+		for (int s = 0; s < 2; s++) {
+			final int slot = al.context.sources.get(sourceIds[s]).slot;
+			for (int i = 0; i < 3; i++) {
+				Assert.assertEquals(transforms[s * AndroidAL.TRANSFORM_STRIDE + i], mixer.pool.position[slot * 3 + i], 0.0f);
+				Assert.assertEquals(transforms[s * AndroidAL.TRANSFORM_STRIDE + 3 + i], mixer.pool.velocity[slot * 3 + i], 0.0f);
+				Assert.assertEquals(transforms[s * AndroidAL.TRANSFORM_STRIDE + 6 + i], mixer.pool.direction[slot * 3 + i], 0.0f);
+			}
+		}
+	}
+
+	@Test
+	public void currentState_apiStateWinsUntilMixerAppliesSerial() {
+		final AndroidAL al = open();
+		final AudioMixer mixer = al.audioMixer;
+		final int[] bufferIds = new int[1];
+		al.alGenBuffers(bufferIds);
+		al.alBufferi(bufferIds[0], AL.AL_NATIVE_RATE_AAL, AL.AL_TRUE.value());
+		al.alBufferData(bufferIds[0], AL.AL_FORMAT_MONO_FLOAT32.value(), FloatBuffer.wrap(new float[100]), al.device.defaultOutputSampleRate);
+		final int[] sourceIds = new int[1];
+		al.alGenSources(sourceIds);
+		final int sourceId = sourceIds[0];
+		final AudioSource source = al.context.sources.get(sourceId);
+		al.alSourcei(sourceId, AL.AL_BUFFER, bufferIds[0]);
+
+		// Played but not applied: the API's state, the mixer's is a serial behind.
+		al.alSourcePlay(sourceId);
+		Assert.assertEquals(AL.AL_PLAYING, source.currentState());
+		Assert.assertEquals(0, (int) (source.status >>> 32));
+		mixer.processCommands();
+		Assert.assertEquals(source.stateSerial, (int) (source.status >>> 32));
+		Assert.assertEquals(AL.AL_PLAYING, source.currentState());
+
+		// The mixer stops the source at the end of the buffer, under the serial it applied.
+		mixer.fillBuffer(al.device.sink, FRAMES);
+		Assert.assertEquals(AL.AL_STOPPED, source.currentState());
+
+		// Played again, the mixer's stop is for an older serial and no longer counts.
+		al.alSourcePlay(sourceId);
+		Assert.assertEquals(AL.AL_STOPPED.value(), (int) source.status);
+		Assert.assertEquals(AL.AL_PLAYING, source.currentState());
+		al.alSourcePause(sourceId);
+		Assert.assertEquals(AL.AL_PAUSED, source.currentState());
+		mixer.processCommands();
+		Assert.assertEquals(AL.AL_PAUSED.value(), (int) source.status);
+		Assert.assertEquals(AL.AL_PAUSED, source.currentState());
+	}
+
+	static AndroidAL open() {
+		final AndroidAL al = new AndroidAL();
+		final int deviceId = (int) al.alcOpenDevice(AndroidAL.ALC_DEVICE_NULL);
+		al.alcCreateContext(deviceId, null);
+		al.audioMixer.setContext(al.context);
+		return al;
+	}
+
+	static float gain(final int i) {
+		return i * 1.0e-4f;
+	}
+}
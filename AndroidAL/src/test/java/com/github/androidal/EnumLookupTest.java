@@ -0,0 +1,73 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * The lookup tables decode every value to its constant, the first one declared where constants
+ * share a value, and anything else to the "none" constant.
+ */
+public class EnumLookupTest {
+	@Test
+	public void alGetEnum_decodesEveryConstant() {
+		Assert.assertSame(AL.AL_INVALID_OPERATION, AL.getEnum(0xA004)); // Not AL_ILLEGAL_COMMAND
+		Assert.assertSame(AL.AL_NONE, AL.getEnum(0)); // Not AL_FALSE or AL_NO_ERROR
+
+		for (final AL e : AL.values()) {
+			Assert.assertSame(e.toString(), firstAL(e.value()), AL.getEnum(e.value()));
+			Assert.assertEquals(e.value(), AL.getEnum(e.value()).value());
+		}
+
+		for (final int unknown : new int[] {0x1234, -2, 0xA00F, 0x7FFFFFFF, Integer.MIN_VALUE}) {
+			Assert.assertNull(firstAL(unknown));
+			Assert.assertSame(AL.AL_NONE, AL.getEnum(unknown));
+		}
+	}
+
+	@Test
+	public void alcGetEnum_decodesEveryConstant() {
+		Assert.assertSame(ALC.ALC_FALSE, ALC.getEnum(0)); // Not ALC_NO_ERROR
+
+		for (final ALC e : ALC.values()) {
+			Assert.assertSame(e.toString(), firstALC(e.value()), ALC.getEnum(e.value()));
+			Assert.assertEquals(e.value(), ALC.getEnum(e.value()).value());
+		}
+
+		for (final int unknown : new int[] {0x1234, -2, 0xA00F, 0x7FFFFFFF, Integer.MIN_VALUE}) {
+			Assert.assertNull(firstALC(unknown));
+			Assert.assertSame(ALC.ALC_FALSE, ALC.getEnum(unknown));
+		}
+	}
+
+	/**
+	 * @return The first constant declared with a value, null if there is none.
+	 */
+	static AL firstAL(final int value) {
+		for (final AL e : AL.values()) {
+			if (e.value() == value) { return e; }
+		}
+		return null;
+	}
+
+	static ALC firstALC(final int value) {
+		for (final ALC e : ALC.values()) {
+			if (e.value() == value) { return e; }
+		}
+		return null;
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Ids name one use of an entry: once removed an id stops resolving, even after its index is
+ * reused, and every id handed out is positive.
+ */
+public class HandleTableTest {
+	@Test
+	public void reserve_reusesIndexUnderNewGeneration() {
+		final HandleTable<String> table = new HandleTable<>();
+		final int first = table.reserve();
+		Assert.assertTrue(first > 0);
+		Assert.assertTrue(table.valid(first));
+		Assert.assertNull(table.get(first)); // Reserved, not set
+		table.set(first, "first");
+		Assert.assertEquals("first", table.get(first));
+
+		Assert.assertEquals("first", table.remove(first));
+		Assert.assertFalse(table.valid(first));
+		Assert.assertNull(table.remove(first));
+		Assert.assertEquals(0, table.size());
+
+		final int second = table.reserve();
+		table.set(second, "second");
+		Assert.assertEquals(HandleTable.index(first), HandleTable.index(second));
+		Assert.assertNotEquals(first, second);
+		Assert.assertNull(table.get(first));
+		table.set(first, "stale"); // A stale id can't overwrite the new entry
+		Assert.assertEquals("second", table.get(second));
+		Assert.assertEquals(1, table.size());
+	}
+
+	@Test
+	public void remove_wrapsGenerationsKeepingIdsPositive() {
+		final HandleTable<Integer> table = new HandleTable<>();
+		final int start = table.reserve();
+		final int index = HandleTable.index(start);
+		int id = start;
+		int previous = 0;
+		for (int i = 0; i <= HandleTable.GENERATION_MASK; i++) {
+			Assert.assertEquals(i, id >>> HandleTable.INDEX_BITS);
+			Assert.assertTrue(id > 0);
+			Assert.assertEquals(index, HandleTable.index(id));
+			Assert.assertTrue((id >>> HandleTable.INDEX_BITS) <= HandleTable.GENERATION_MASK);
+			Assert.assertFalse(table.valid(previous));
+			table.set(id, i);
+			Assert.assertEquals(Integer.valueOf(i), table.get(id));
+			table.remove(id);
+			previous = id;
+			id = table.reserve();
+		}
+
+		// Every generation was used once, the next one wraps back to the first id.
+		Assert.assertEquals(start, id);
+		Assert.assertTrue(table.valid(start));
+		Assert.assertFalse(table.valid(previous));
+	}
+
+	@Test
+	public void valid_rejectsIdsNeverHandedOut() {
+		final HandleTable<String> table = new HandleTable<>();
+		final int id = table.reserve();
+		Assert.assertFalse(table.valid(0));
+		Assert.assertFalse(table.valid(-id));
+		Assert.assertFalse(table.valid(id + 1)); // Next index, not handed out yet
+		Assert.assertFalse(table.valid(id | (1 << HandleTable.INDEX_BITS))); // Right index, other generation
+
+		// Every index up to the table's growth and past it.
+		for (int i = 0; i < 100; i++) {
+			final int next = table.reserve();
+			Assert.assertTrue(next > 0);
+			Assert.assertEquals(i + 1, HandleTable.index(next));
+		}
+		Assert.assertEquals(101, table.size());
+		table.clear();
+		Assert.assertEquals(0, table.size());
+		Assert.assertFalse(table.valid(id));
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Parallel mixing (ALC_MIXER_THREADS_AAL) splits the voices between threads without changing what
+ * is mixed, and alcDestroyContext leaves no mixing thread behind.
+ */
+public class ParallelMixingTest {
+	static final int THREADS = 4;
+	static final int SOURCES = 64;
+	static final int FRAMES = 512;
+	static final int PASSES = 8;
+
+	/**
+	 * Stereo sources at unity step with power of 2 gains on samples in 1/16 steps: every product and
+	 * sum is exact, so the mix can't depend on how the voices are split or the shares added.
+	 */
+	@Test
+	public void mix_matchesSingleThreadBitForBit() {
+		assumeCores();
+		final float[] single = mix(1, true);
+		final float[] parallel = mix(THREADS, true);
+		Assert.assertArrayEquals(single, parallel, 0.0f);
+		Assert.assertTrue(peak(single) > 1.0f);
+	}
+
+	/**
+	 * Positioned mono sources at a pitch: float sums are only deterministic for a given split, the
+	 * shares are added in worker order so every run of a thread count mixes the same bits.
+	 */
+	@Test
+	public void mix_isDeterministicForAThreadCount() {
+		assumeCores();
+		final float[] single = mix(1, false);
+		final float[] parallel = mix(THREADS, false);
+		Assert.assertArrayEquals(parallel, mix(THREADS, false), 0.0f);
+		Assert.assertArrayEquals(single, parallel, 1.0e-4f); // A few ulps of the sum of every voice
+		Assert.assertTrue(peak(single) > 0.1f);
+	}
+
+	@Test
+	public void alcDestroyContext_stopsEveryThread() throws InterruptedException {
+		assumeCores();
+		final AndroidAL al = new AndroidAL();
+		final int deviceId = (int) al.alcOpenDevice(AndroidAL.ALC_DEVICE_NULL);
+		final int contextId = (int) al.alcCreateContext(deviceId, new int[] {ALC.ALC_MIXER_THREADS_AAL.value(), THREADS, 0});
+		final AudioMixer mixer = al.audioMixer;
+		Assert.assertEquals(THREADS - 1, mixer.workers.length);
+		scene(al, false);
+
+		Assert.assertTrue(al.alcMakeContextCurrent(contextId));
+		Thread.sleep(100); // Some passes mixed in parallel
+		final Thread mixingThread = mixer.mixingThread;
+		Assert.assertTrue(mixingThread.isAlive());
+
+		al.alcDestroyContext(contextId);
+		Assert.assertFalse(mixingThread.isAlive());
+		for (final MixWorker worker : mixer.workers) {
+			Assert.assertFalse(worker.thread.getName(), worker.thread.isAlive());
+		}
+	}
+
+	static void assumeCores() {
+		Assume.assumeTrue("Needs " + THREADS + " cores", Runtime.getRuntime().availableProcessors() >= THREADS);
+	}
+
+	/**
+	 * @return Every pass of the scene mixed on a number of threads, one after the other.
+	 */
+	static float[] mix(final int threads, final boolean exact) {
+		final AndroidAL al = new AndroidAL();
+		final int deviceId = (int) al.alcOpenDevice(AndroidAL.ALC_DEVICE_NULL);
+		final int contextId = (int) al.alcCreateContext(deviceId, new int[] {ALC.ALC_MIXER_THREADS_AAL.value(), threads, 0});
+		final AudioMixer mixer = al.audioMixer;
+		mixer.setContext(al.context);
+		Assert.assertEquals(threads == 1, mixer.workers == null);
+		scene(al, exact);
+
+		final float[] mixed = new float[FRAMES * 2 * PASSES];
+		for (int pass = 0; pass < PASSES; pass++) {
+			mixer.renderPeriod(FRAMES);
+			System.arraycopy(mixer.mixingBuffer, 0, mixed, pass * FRAMES * 2, FRAMES * 2);
+		}
+		al.alcDestroyContext(contextId);
+		return mixed;
+	}
+
+	/**
+	 * Start {@link #SOURCES} looping sources, each on its own buffer.
+	 */
+	static void scene(final AndroidAL al, final boolean exact) {
+		final int rate = al.device.defaultOutputSampleRate;
+		final int[] bufferIds = new int[SOURCES];
+		final int[] sourceIds = new int[SOURCES];
+		al.alGenBuffers(bufferIds);
+		al.alGenSources(sourceIds);
+		for (int s = 0; s < SOURCES; s++) {
+			final int channels = exact ? 2 : 1;
+			final float[] samples = new float[(1000 + s * 37) * channels];
+			for (int i = 0; i < samples.length; i++) {
+				samples[i] = exact ? ((i * 7 + s * 3) % 33 - 16) / 16.0f : (float) Math.sin(i * (0.01 + s * 0.003));
+			}
+			al.alBufferi(bufferIds[s], AL.AL_NATIVE_RATE_AAL, AL.AL_TRUE.value());
+			al.alBufferData(bufferIds[s], exact ? AL.AL_FORMAT_STEREO_FLOAT32.value() : AL.AL_FORMAT_MONO_FLOAT32.value(),
+				FloatBuffer.wrap(samples), exact ? rate : 22050 + s * 100);
+
+			al.alSourcei(sourceIds[s], AL.AL_BUFFER, bufferIds[s]);
+			al.alSourcei(sourceIds[s], AL.AL_LOOPING, AL.AL_TRUE.value());
+			al.alSourcef(sourceIds[s], AL.AL_GAIN, exact ? 1.0f / (1 << (s % 3)) : 0.2f + (s % 5) * 0.1f);
+			if (!exact) {
+				al.alSourcef(sourceIds[s], AL.AL_PITCH, 0.75f + (s % 7) * 0.1f);
+				al.alSource3f(sourceIds[s], AL.AL_POSITION, (s % 9) - 4.0f, 0.0f, (s % 4) - 2.0f);
+				al.alSourcei(sourceIds[s], AL.AL_SOURCE_RESAMPLER_SOFT, s % Resampler.ALL.length);
+			}
+		}
+		Assert.assertEquals(AL.AL_NO_ERROR, al.alGetError());
+		for (final int sourceId : sourceIds) {
+			al.alSourcePlay(sourceId);
+		}
+	}
+
+	static float peak(final float[] samples) {
+		float peak = 0.0f;
+		for (final float sample : samples) {
+			peak = Math.max(peak, Math.abs(sample));
+		}
+		return peak;
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ShortBuffer;
+import java.nio.file.Files;
+
+/**
+ * A cached entry loads back exactly what converting the data stored, and a damaged or mismatched
+ * entry is ignored so the data is converted again.
+ */
+public class SampleCacheTest {
+	static final int FREQUENCY = 22050;
+	static final int OUTPUT_RATE = 44100;
+
+	File directory;
+	SampleCache cache;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("samplecache").toFile();
+		cache = new SampleCache(directory);
+	}
+
+	@After
+	public void tearDown() {
+		final File[] files = directory.listFiles();
+		if (files != null) {
+			for (final File file : files) {
+				file.delete();
+			}
+		}
+		directory.delete();
+	}
+
+	@Test
+	public void load_returnsWhatWasStored() {
+		final short[] data = signal(1000);
+		for (final SampleStorage storage : new SampleStorage[] {SampleStorage.FLOAT, SampleStorage.PCM16, SampleStorage.IMA4}) {
+			final AudioBuffer converted = convert(storage, data);
+			final String key = SampleCache.key(converted, AL.AL_FORMAT_STEREO16.value(), ShortBuffer.wrap(data), FREQUENCY, OUTPUT_RATE);
+			Assert.assertFalse(storage.toString(), cache.load(key, settings(storage)));
+			cache.store(key, converted);
+
+			final AudioBuffer loaded = settings(storage);
+			Assert.assertTrue(storage.toString(), cache.load(key, loaded));
+			Assert.assertSame(storage, loaded.storage);
+			Assert.assertEquals(converted.frequency, loaded.frequency);
+			Assert.assertEquals(converted.bits, loaded.bits);
+			Assert.assertEquals(converted.channels, loaded.channels);
+			Assert.assertEquals(converted.size, loaded.size);
+			Assert.assertEquals(converted.rate, loaded.rate);
+			Assert.assertEquals(converted.frames, loaded.frames);
+			if (storage == SampleStorage.FLOAT) {
+				Assert.assertArrayEquals(converted.data, loaded.data, 0f);
+			} else if (storage == SampleStorage.PCM16) {
+				Assert.assertArrayEquals(converted.pcm, loaded.pcm);
+			} else {
+				Assert.assertArrayEquals(converted.adpcm, loaded.adpcm);
+			}
+		}
+	}
+
+	@Test
+	public void key_dependsOnDataAndSettings() {
+		final short[] data = signal(1000);
+		final int format = AL.AL_FORMAT_STEREO16.value();
+		final AudioBuffer staging = settings(SampleStorage.PCM16);
+		final String key = SampleCache.key(staging, format, ShortBuffer.wrap(data), FREQUENCY, OUTPUT_RATE);
+		Assert.assertEquals(64, key.length());
+		Assert.assertEquals(key, SampleCache.key(settings(SampleStorage.PCM16), format, ShortBuffer.wrap(data.clone()), FREQUENCY, OUTPUT_RATE));
+
+		final short[] changed = data.clone();
+		changed[500]++;
+		Assert.assertNotEquals(key, SampleCache.key(staging, format, ShortBuffer.wrap(changed), FREQUENCY, OUTPUT_RATE));
+		Assert.assertNotEquals(key, SampleCache.key(staging, AL.AL_FORMAT_MONO16.value(), ShortBuffer.wrap(data), FREQUENCY, OUTPUT_RATE));
+		Assert.assertNotEquals(key, SampleCache.key(staging, format, ShortBuffer.wrap(data), FREQUENCY + 1, OUTPUT_RATE));
+		Assert.assertNotEquals(key, SampleCache.key(staging, format, ShortBuffer.wrap(data), FREQUENCY, 48000));
+		Assert.assertNotEquals(key, SampleCache.key(settings(SampleStorage.IMA4), format, ShortBuffer.wrap(data), FREQUENCY, OUTPUT_RATE));
+
+		// Buffers kept at their native rate share one entry for every output rate
+		final AudioBuffer nativeRate = settings(SampleStorage.PCM16);
+		nativeRate.nativeRate = true;
+		Assert.assertEquals(SampleCache.key(nativeRate, format, ShortBuffer.wrap(data), FREQUENCY, OUTPUT_RATE),
+				SampleCache.key(nativeRate, format, ShortBuffer.wrap(data), FREQUENCY, 48000));
+
+		Assert.assertNull(SampleCache.key(staging, format, "not samples", FREQUENCY, OUTPUT_RATE));
+	}
+
+	@Test
+	public void load_ignoresInvalidEntries() throws IOException {
+		final short[] data = signal(1000);
+		final AudioBuffer converted = convert(SampleStorage.PCM16, data);
+		final String key = SampleCache.key(converted, AL.AL_FORMAT_STEREO16.value(), ShortBuffer.wrap(data), FREQUENCY, OUTPUT_RATE);
+		cache.store(key, converted);
+		final File entry = new File(directory, key + SampleCache.SUFFIX);
+		Assert.assertTrue(cache.load(key, settings(SampleStorage.PCM16)));
+
+		// Stored for another storage
+		Assert.assertFalse(cache.load(key, settings(SampleStorage.FLOAT)));
+
+		try (RandomAccessFile file = new RandomAccessFile(entry, "rw")) {
+			// Truncated samples
+			file.setLength(file.length() - 2);
+			assertIgnored(key);
+			file.setLength(file.length() + 2);
+			Assert.assertTrue(cache.load(key, settings(SampleStorage.PCM16)));
+
+			// Corrupt header
+			file.seek(0);
+			file.writeInt(0);
+			assertIgnored(key);
+
+			// Shorter than a header
+			file.setLength(SampleCache.HEADER_SIZE - 1);
+			assertIgnored(key);
+		}
+	}
+
+	void assertIgnored(final String key) {
+		final AudioBuffer staging = settings(SampleStorage.PCM16);
+		Assert.assertFalse(cache.load(key, staging));
+		Assert.assertNull(staging.pcm);
+		Assert.assertEquals(0, staging.frames);
+	}
+
+	/**
+	 * @return An empty staging buffer with the conversion settings of the test, resampled to the output rate.
+	 */
+	static AudioBuffer settings(final SampleStorage storage) {
+		final AudioBuffer buffer = new AudioBuffer(1);
+		buffer.storageRequested = storage;
+		return buffer.staging();
+	}
+
+	static AudioBuffer convert(final SampleStorage storage, final short[] data) {
+		final AudioBuffer staging = settings(storage);
+		Assert.assertTrue(AndroidAL.convertBufferData(new BufferLoad(1), staging, AL.AL_FORMAT_STEREO16.value(), ShortBuffer.wrap(data), FREQUENCY, OUTPUT_RATE));
+		Assert.assertSame(storage, staging.storage);
+		return staging;
+	}
+
+	/**
+	 * @return Stereo 16 bit sines, a different one on each channel.
+	 */
+	static short[] signal(final int frames) {
+		final short[] samples = new short[frames * 2];
+		for (int i = 0; i < frames; i++) {
+			samples[i * 2] = (short) (20000 * Math.sin(i * 0.05));
+			samples[i * 2 + 1] = (short) (12000 * Math.sin(i * 0.13));
+		}
+		return samples;
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Compact storages decode what was stored: PCM16 to within its rounding, IMA4 to within the ADPCM
+ * error once its step has adapted, and any range of frames decodes the same as the whole buffer,
+ * including ranges starting or ending on the 64 frame IMA4 block edges.
+ */
+public class SampleStorageTest {
+	static final int FRAMES = 64 * 20 + 17; // Ends part way through a block
+	static final float IMA4_TOLERANCE = 0.02f;
+
+	@Test
+	public void pcm16_roundTrip() {
+		for (int channels = 1; channels <= 2; channels++) {
+			final float[] samples = signal(channels);
+			final AudioBuffer buffer = store(SampleStorage.PCM16, samples, channels);
+			Assert.assertArrayEquals("PCM16 " + channels, samples, readAll(buffer), 0.5f / Short.MAX_VALUE);
+		}
+	}
+
+	@Test
+	public void ima4_roundTripWithinTolerance() {
+		for (int channels = 1; channels <= 2; channels++) {
+			final float[] samples = signal(channels);
+			final AudioBuffer buffer = store(SampleStorage.IMA4, samples, channels);
+			Assert.assertEquals(FRAMES, buffer.frames);
+			final int blocks = (FRAMES + SampleStorage.IMA4_BLOCK_FRAMES - 1) / SampleStorage.IMA4_BLOCK_FRAMES;
+			Assert.assertEquals(blocks * SampleStorage.IMA4_BLOCK_BYTES * channels, buffer.adpcm.length);
+
+			// The first frames are spent adapting the step from its smallest.
+			final float[] decoded = readAll(buffer);
+			final int settled = SampleStorage.IMA4_BLOCK_FRAMES * channels;
+			for (int i = settled; i < samples.length; i++) {
+				Assert.assertEquals("IMA4 " + channels + " [" + i + "]", samples[i], decoded[i], IMA4_TOLERANCE);
+			}
+		}
+	}
+
+	@Test
+	public void ima4_rangesMatchWholeDecodeAcrossBlockEdges() {
+		for (int channels = 1; channels <= 2; channels++) {
+			final AudioBuffer buffer = store(SampleStorage.IMA4, signal(channels), channels);
+			final float[] whole = readAll(buffer);
+
+			final int[] firsts = {0, 1, 63, 64, 65, 127, 128, 129, FRAMES - 17, FRAMES - 1};
+			for (final int first : firsts) {
+				for (final int count : new int[] {1, 2, 63, 64, 65, 130}) {
+					if (first + count > FRAMES) { continue; }
+					final float[] range = new float[(count + 1) * channels];
+					buffer.read(first, range, 1, count);
+					for (int i = 0; i < count * channels; i++) {
+						Assert.assertEquals("IMA4 " + channels + " from " + first + " x " + count + " [" + i + "]",
+							whole[first * channels + i], range[channels + i], 0.0f);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return FRAMES frames of two sines, a different one per channel, interleaved.
+	 */
+	static float[] signal(final int channels) {
+		final float[] samples = new float[FRAMES * channels];
+		for (int frame = 0; frame < FRAMES; frame++) {
+			for (int channel = 0; channel < channels; channel++) {
+				samples[frame * channels + channel] = (float) (0.5 * Math.sin(frame * 0.05 * (channel + 1)) + 0.25 * Math.sin(frame * 0.011));
+			}
+		}
+		return samples;
+	}
+
+	static AudioBuffer store(final SampleStorage storage, final float[] samples, final int channels) {
+		final AudioBuffer buffer = new AudioBuffer(1);
+		buffer.channels = channels;
+		buffer.storageRequested = storage;
+		buffer.store(samples);
+		Assert.assertSame(storage, buffer.storage);
+		return buffer;
+	}
+
+	static float[] readAll(final AudioBuffer buffer) {
+		final float[] samples = new float[buffer.frames * buffer.channels];
+		buffer.read(0, samples, 0, buffer.frames);
+		return samples;
+	}
+}
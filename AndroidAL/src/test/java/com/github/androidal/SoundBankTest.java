@@ -0,0 +1,152 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.file.Files;
+
+/**
+ * A written bank parses back to the same buffers, and an index pointing outside the file rejects
+ * the whole bank.
+ */
+public class SoundBankTest {
+	static final float MAPPED_SCALE = 0.5f / Short.MAX_VALUE;
+
+	@Test
+	public void parse_readsWhatWasWritten() throws IOException {
+		final AudioBuffer pcm = pcm16(2, 22050, 1001);
+		final AudioBuffer mapped = mapped(1, 44100, 333);
+		final SoundBank bank = SoundBank.parse(ByteBuffer.wrap(write(pcm, mapped)));
+		Assert.assertNotNull(bank);
+		Assert.assertEquals(2, bank.size());
+
+		assertEntry(bank, 0, pcm, SampleStorage.PCM16_SCALE);
+		assertEntry(bank, 1, mapped, MAPPED_SCALE);
+		Assert.assertEquals(SoundBank.align(SoundBank.HEADER_SIZE + 2 * SoundBank.ENTRY_SIZE), bank.offsets[0]);
+		Assert.assertEquals(SoundBank.align(bank.offsets[0] + 1001 * 2 * Short.BYTES), bank.offsets[1]);
+
+		// Assigned buffers play the samples in place
+		final AudioBuffer buffer = new AudioBuffer(1);
+		bank.assign(0, buffer);
+		Assert.assertSame(SampleStorage.MAPPED, buffer.storage);
+		Assert.assertEquals(22050, buffer.frequency);
+		Assert.assertEquals(2, buffer.channels);
+		Assert.assertEquals(1001, buffer.frames);
+		Assert.assertEquals(SampleStorage.PCM16_SCALE, buffer.mappedScale, 0f);
+		Assert.assertEquals(pcm.pcm[2001], buffer.mapped.get(2001));
+
+		final SoundBank empty = SoundBank.parse(ByteBuffer.wrap(write()));
+		Assert.assertNotNull(empty);
+		Assert.assertEquals(0, empty.size());
+	}
+
+	@Test
+	public void parse_rejectsInvalidBanks() throws IOException {
+		final byte[] file = write(pcm16(2, 22050, 100), mapped(1, 44100, 50));
+		final int entry = SoundBank.HEADER_SIZE + SoundBank.ENTRY_SIZE; // Second entry
+		final int dataOffset = (int) SoundBank.align(SoundBank.HEADER_SIZE + 2 * SoundBank.ENTRY_SIZE);
+		Assert.assertNotNull(SoundBank.parse(ByteBuffer.wrap(file)));
+
+		Assert.assertNull(SoundBank.parse(patch(file, 0, SoundBank.MAGIC + 1)));
+		Assert.assertNull(SoundBank.parse(patch(file, 4, SoundBank.VERSION + 1)));
+		Assert.assertNull(SoundBank.parse(patch(file, 8, -1)));
+		Assert.assertNull(SoundBank.parse(patch(file, 8, 1000))); // Index past the samples
+		Assert.assertNull(SoundBank.parse(patch(file, 12, file.length + 16)));
+
+		Assert.assertNull(SoundBank.parse(patch(file, entry, 3))); // Channels
+		Assert.assertNull(SoundBank.parse(patch(file, entry, 0)));
+		Assert.assertNull(SoundBank.parse(patch(file, entry + 4, 0))); // Frequency
+		Assert.assertNull(SoundBank.parse(patch(file, entry + 8, 1000))); // Frames past the end
+		Assert.assertNull(SoundBank.parse(patch(file, entry + 8, -1)));
+		Assert.assertNull(SoundBank.parse(patch(file, entry + 12, dataOffset - 16))); // Offset into the index
+		Assert.assertNull(SoundBank.parse(patch(file, entry + 12, dataOffset + 1))); // Odd offset
+		Assert.assertNull(SoundBank.parse(patch(file, entry + 12, file.length)));
+		Assert.assertNull(SoundBank.parse(patch(file, entry + 12, -2)));
+		Assert.assertNull(SoundBank.parse(patch(file, entry + 16, Float.floatToIntBits(0f)))); // Scale
+		Assert.assertNull(SoundBank.parse(patch(file, entry + 16, Float.floatToIntBits(Float.NaN))));
+
+		// Truncated
+		for (final int length : new int[] {0, SoundBank.HEADER_SIZE - 1, SoundBank.HEADER_SIZE, dataOffset, file.length - 16}) {
+			Assert.assertNull("Cut at " + length, SoundBank.parse(ByteBuffer.wrap(file, 0, length)));
+		}
+	}
+
+	static void assertEntry(final SoundBank bank, final int entry, final AudioBuffer buffer, final float scale) {
+		Assert.assertEquals(buffer.channels, bank.channels[entry]);
+		Assert.assertEquals(buffer.rate, bank.frequencies[entry]);
+		Assert.assertEquals(buffer.frames, bank.frames[entry]);
+		Assert.assertEquals(0, bank.offsets[entry] % SoundBank.ALIGNMENT);
+		Assert.assertEquals(scale, bank.scales[entry], 0f);
+
+		final ShortBuffer samples = bank.samples(entry);
+		final short[] read = new short[samples.remaining()];
+		samples.get(read);
+		Assert.assertArrayEquals(SoundBank.samples(buffer).array(), read);
+	}
+
+	/**
+	 * @return A copy of a bank with an int of the header or index replaced.
+	 */
+	static ByteBuffer patch(final byte[] file, final int offset, final int value) {
+		final ByteBuffer patched = ByteBuffer.wrap(file.clone()).order(ByteOrder.LITTLE_ENDIAN);
+		patched.putInt(offset, value);
+		return patched;
+	}
+
+	static byte[] write(final AudioBuffer... buffers) throws IOException {
+		final File file = File.createTempFile("soundbank", ".aalb");
+		try {
+			SoundBank.write(file, buffers);
+			return Files.readAllBytes(file.toPath());
+		} finally {
+			file.delete();
+		}
+	}
+
+	static AudioBuffer pcm16(final int channels, final int frequency, final int frames) {
+		final AudioBuffer buffer = new AudioBuffer(1);
+		buffer.channels = channels;
+		buffer.frequency = frequency;
+		buffer.rate = frequency;
+		buffer.storageRequested = SampleStorage.PCM16;
+		final float[] samples = new float[frames * channels];
+		for (int i = 0; i < samples.length; i++) {
+			samples[i] = (float) Math.sin(i * 0.01);
+		}
+		buffer.store(samples);
+		return buffer;
+	}
+
+	static AudioBuffer mapped(final int channels, final int frequency, final int frames) {
+		final AudioBuffer buffer = new AudioBuffer(1);
+		buffer.channels = channels;
+		buffer.frequency = frequency;
+		buffer.rate = frequency;
+		final short[] samples = new short[frames * channels];
+		for (int i = 0; i < samples.length; i++) {
+			samples[i] = (short) (i * 37);
+		}
+		SampleStorage.map(buffer, ShortBuffer.wrap(samples), MAPPED_SCALE);
+		return buffer;
+	}
+}
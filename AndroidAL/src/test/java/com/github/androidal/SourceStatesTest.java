@@ -0,0 +1,122 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Bulk state queries read the snapshot the mixer publishes after each pass, and fall back to the
+ * state set through the API for sources the snapshot is behind on.
+ */
+public class SourceStatesTest {
+	static final int FRAMES = 256;
+
+	@Test
+	public void readSourceStates_followsSnapshotAndApi() {
+		final AndroidAL al = CommandRingTest.open();
+		final AudioMixer mixer = al.audioMixer;
+		final int bufferId = buffer(al);
+		final int[] sourceIds = new int[2];
+		al.alGenSources(sourceIds);
+		for (final int sourceId : sourceIds) {
+			al.alSourcei(sourceId, AL.AL_BUFFER, bufferId);
+		}
+		final int[] states = new int[2];
+		final int[] offsets = new int[2];
+
+		// Nothing published yet: the API's state, no offset.
+		al.alGetSourceStatesAAL(sourceIds, states, offsets);
+		Assert.assertArrayEquals(new int[] {AL.AL_INITIAL.value(), AL.AL_INITIAL.value()}, states);
+		Assert.assertArrayEquals(new int[] {0, 0}, offsets);
+
+		// Published by the pass.
+		al.alSourcePlay(sourceIds[0]);
+		mixer.fillBuffer(al.device.sink, FRAMES);
+		al.alGetSourceStatesAAL(sourceIds, states, offsets);
+		Assert.assertEquals(AL.AL_NO_ERROR, al.alGetError());
+		Assert.assertArrayEquals(new int[] {AL.AL_PLAYING.value(), AL.AL_INITIAL.value()}, states);
+		Assert.assertArrayEquals(new int[] {FRAMES, 0}, offsets);
+
+		// Changed since the snapshot: the API's state, at the offset published.
+		al.alSourcePause(sourceIds[0]);
+		al.alGetSourceStatesAAL(sourceIds, states, null);
+		Assert.assertEquals(AL.AL_PAUSED.value(), states[0]);
+		al.alGetSourceStatesAAL(sourceIds, states, offsets);
+		Assert.assertEquals(FRAMES, offsets[0]);
+
+		// Rewound (and stopped) since the snapshot: the published offset is stale, the source is back at 0.
+		al.alSourceRewind(sourceIds[0]);
+		al.alGetSourceStatesAAL(sourceIds, states, offsets);
+		Assert.assertEquals(AL.AL_STOPPED.value(), states[0]);
+		Assert.assertEquals(0, offsets[0]);
+		mixer.fillBuffer(al.device.sink, FRAMES);
+		al.alGetSourceStatesAAL(sourceIds, states, offsets);
+		Assert.assertEquals(AL.AL_STOPPED.value(), states[0]);
+		Assert.assertEquals(0, offsets[0]);
+
+		final int[] allIds = new int[2];
+		Assert.assertEquals(2, al.alGetAllSourceStatesAAL(allIds, states, offsets));
+		Assert.assertArrayEquals(sourceIds, allIds);
+	}
+
+	@Test
+	public void readSourceStates_rejectsDeletedIdOfReusedSlot() {
+		final AndroidAL al = CommandRingTest.open();
+		final AudioMixer mixer = al.audioMixer;
+		final int bufferId = buffer(al);
+		final int[] deleted = new int[1];
+		al.alGenSources(deleted);
+		al.alSourcei(deleted[0], AL.AL_BUFFER, bufferId);
+		al.alSourcePlay(deleted[0]);
+		mixer.fillBuffer(al.device.sink, FRAMES);
+		mixer.fillBuffer(al.device.sink, FRAMES);
+
+		// The new source takes the slot while the snapshot still holds the deleted one.
+		final int slot = al.context.sources.get(deleted[0]).slot;
+		al.alSourceStop(deleted[0]);
+		al.alDeleteSources(deleted);
+		final int[] reused = new int[1];
+		al.alGenSources(reused);
+		Assert.assertEquals(slot, al.context.sources.get(reused[0]).slot);
+		Assert.assertNotEquals(deleted[0], reused[0]);
+
+		final int[] states = new int[1];
+		final int[] offsets = new int[1];
+		al.alGetSourceStatesAAL(reused, states, offsets);
+		Assert.assertEquals(AL.AL_NO_ERROR, al.alGetError());
+		Assert.assertEquals(AL.AL_INITIAL.value(), states[0]);
+		Assert.assertEquals(0, offsets[0]); // Not the deleted source's
+
+		al.alGetSourceStatesAAL(deleted, states, offsets);
+		Assert.assertEquals(AL.AL_INVALID_NAME, al.alGetError());
+		Assert.assertEquals(-1, al.readSourceStates(new int[] {reused[0], deleted[0]}, 1, states, offsets));
+		Assert.assertEquals(1, al.readSourceStates(new int[] {reused[0], deleted[0]}, 2, states, offsets));
+	}
+
+	/**
+	 * @return A buffer kept at the output rate, long enough to play through the test.
+	 */
+	static int buffer(final AndroidAL al) {
+		final int[] bufferIds = new int[1];
+		al.alGenBuffers(bufferIds);
+		al.alBufferi(bufferIds[0], AL.AL_NATIVE_RATE_AAL, AL.AL_TRUE.value());
+		al.alBufferData(bufferIds[0], AL.AL_FORMAT_MONO_FLOAT32.value(), FloatBuffer.wrap(new float[FRAMES * 8]), al.device.defaultOutputSampleRate);
+		return bufferIds[0];
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * RIFF/WAVE headers are parsed into the alBufferData format, with the samples left in place as a
+ * view of the data chunk.
+ */
+public class WaveFileTest {
+	static final short WAVE_FORMAT_IEEE_FLOAT = 3;
+
+	@Test
+	public void parse_pcmAndFloatFormats() {
+		assertWave(WaveFile.WAVE_FORMAT_PCM, 1, 8, AL.AL_FORMAT_MONO8);
+		assertWave(WaveFile.WAVE_FORMAT_PCM, 2, 8, AL.AL_FORMAT_STEREO8);
+		assertWave(WaveFile.WAVE_FORMAT_PCM, 1, 16, AL.AL_FORMAT_MONO16);
+		assertWave(WaveFile.WAVE_FORMAT_PCM, 2, 16, AL.AL_FORMAT_STEREO16);
+		assertWave(WAVE_FORMAT_IEEE_FLOAT, 1, 32, AL.AL_FORMAT_MONO_FLOAT32);
+		assertWave(WAVE_FORMAT_IEEE_FLOAT, 2, 32, AL.AL_FORMAT_STEREO_FLOAT32);
+
+		// Formats alBufferData has no format for.
+		Assert.assertNull(WaveFile.parse(wave(fmt(WaveFile.WAVE_FORMAT_PCM, 1, 24), data(30))));
+		Assert.assertNull(WaveFile.parse(wave(fmt(WaveFile.WAVE_FORMAT_PCM, 6, 16), data(24))));
+		Assert.assertNull(WaveFile.parse(wave(fmt((short) 2, 1, 4), data(24)))); // MS ADPCM
+	}
+
+	@Test
+	public void parse_extensible() {
+		final ByteBuffer fmt = ByteBuffer.allocate(WaveFile.FMT_EXTENSIBLE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		fmt.put(fmtBody(WaveFile.WAVE_FORMAT_EXTENSIBLE, 2, 16));
+		fmt.putShort((short) 22).putShort((short) 16).putInt(3); // cbSize, valid bits, channel mask
+		fmt.putShort(WaveFile.WAVE_FORMAT_PCM); // Sub format GUID, KSDATAFORMAT_SUBTYPE_PCM
+		final WaveFile wave = WaveFile.parse(wave(chunk("fmt ", fmt.array()), data(40)));
+		Assert.assertNotNull(wave);
+		Assert.assertEquals(AL.AL_FORMAT_STEREO16, wave.format);
+		Assert.assertEquals(40, wave.samples.remaining());
+	}
+
+	@Test
+	public void parse_chunkOrder() {
+		final byte[] fmt = fmt(WaveFile.WAVE_FORMAT_PCM, 1, 16);
+		final byte[] data = data(20);
+
+		// Unknown chunks are skipped, odd sizes padded.
+		final WaveFile listed = WaveFile.parse(wave(chunk("LIST", new byte[5]), fmt, chunk("fact", new byte[4]), data));
+		Assert.assertNotNull(listed);
+		assertSamples(listed, 20);
+
+		// The data chunk may come before the fmt chunk.
+		final WaveFile dataFirst = WaveFile.parse(wave(data, fmt));
+		Assert.assertNotNull(dataFirst);
+		Assert.assertEquals(AL.AL_FORMAT_MONO16, dataFirst.format);
+		assertSamples(dataFirst, 20);
+
+		Assert.assertNull(WaveFile.parse(wave(fmt)));
+		Assert.assertNull(WaveFile.parse(wave(data)));
+	}
+
+	@Test
+	public void parse_truncated() {
+		final byte[] file = wave(fmt(WaveFile.WAVE_FORMAT_PCM, 2, 16), data(400)).array();
+
+		// Cut in the header: nothing to play.
+		for (final int length : new int[] {0, 4, 11, 12, 19, 20 + 15, 20 + 16 + 4}) {
+			Assert.assertNull("Cut at " + length, WaveFile.parse(ByteBuffer.wrap(file, 0, length)));
+		}
+		Assert.assertNull(WaveFile.parse(ByteBuffer.wrap("RIFX".getBytes())));
+
+		// Cut in the samples: the whole frames present are kept.
+		final int header = 12 + 8 + 16 + 8;
+		final WaveFile cut = WaveFile.parse(ByteBuffer.wrap(file, 0, header + 103));
+		Assert.assertNotNull(cut);
+		assertSamples(cut, 100);
+	}
+
+	static void assertWave(final short audioFormat, final int channels, final int bits, final AL format) {
+		final int frameSize = channels * bits / 8;
+		final WaveFile wave = WaveFile.parse(wave(fmt(audioFormat, channels, bits), data(frameSize * 10 + frameSize / 2)));
+		Assert.assertNotNull(format.toString(), wave);
+		Assert.assertEquals(format, wave.format);
+		Assert.assertEquals(22050, wave.frequency);
+		Assert.assertEquals(channels, wave.channels);
+		Assert.assertEquals(bits, wave.bits);
+		assertSamples(wave, frameSize * 10);
+	}
+
+	/**
+	 * The samples are the first bytes of the data chunk, see {@link #data}.
+	 */
+	static void assertSamples(final WaveFile wave, final int bytes) {
+		Assert.assertEquals(0, wave.samples.position());
+		Assert.assertEquals(bytes, wave.samples.remaining());
+		Assert.assertEquals(ByteOrder.LITTLE_ENDIAN, wave.samples.order());
+		for (int i = 0; i < bytes; i++) {
+			Assert.assertEquals((byte) (i * 7), wave.samples.get(i));
+		}
+	}
+
+	static byte[] fmt(final short audioFormat, final int channels, final int bits) {
+		return chunk("fmt ", fmtBody(audioFormat, channels, bits));
+	}
+
+	static byte[] fmtBody(final short audioFormat, final int channels, final int bits) {
+		final ByteBuffer fmt = ByteBuffer.allocate(WaveFile.FMT_MIN_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		fmt.putShort(audioFormat).putShort((short) channels).putInt(22050);
+		fmt.putInt(22050 * channels * bits / 8).putShort((short) (channels * bits / 8)).putShort((short) bits);
+		return fmt.array();
+	}
+
+	static byte[] data(final int bytes) {
+		final byte[] samples = new byte[bytes];
+		for (int i = 0; i < bytes; i++) {
+			samples[i] = (byte) (i * 7);
+		}
+		return chunk("data", samples);
+	}
+
+	static byte[] chunk(final String id, final byte[] body) {
+		final ByteBuffer chunk = ByteBuffer.allocate(8 + body.length + (body.length & 1)).order(ByteOrder.LITTLE_ENDIAN);
+		chunk.put(id.getBytes()).putInt(body.length).put(body);
+		return chunk.array();
+	}
+
+	static ByteBuffer wave(final byte[]... chunks) {
+		int size = 12;
+		for (final byte[] chunk : chunks) {
+			size += chunk.length;
+		}
+		final ByteBuffer file = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+		file.put("RIFF".getBytes()).putInt(size - 8).put("WAVE".getBytes());
+		for (final byte[] chunk : chunks) {
+			file.put(chunk);
+		}
+		file.flip();
+		return file;
+	}
+}
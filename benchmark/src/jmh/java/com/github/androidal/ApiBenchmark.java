@@ -0,0 +1,97 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of decoding OpenAL values, of int typed API calls and of polling the state of every source
+ * one at a time or in bulk, reported in ns per call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ApiBenchmark {
+	static final int[] VALUES = new int[AL.values().length];
+
+	static {
+		for (final AL e : AL.values()) {
+			VALUES[e.ordinal()] = e.value();
+		}
+	}
+
+	static final int SOURCES = 256;
+
+	AndroidAL al;
+	int source;
+	int next = 0;
+	final int[] value = new int[1];
+	final int[] sourceIds = new int[SOURCES];
+	final int[] states = new int[SOURCES];
+	final int[] offsets = new int[SOURCES];
+
+	@Setup
+	public void setup() {
+		al = Scenes.createScene(SOURCES, 42);
+		al.audioMixer.mixActiveSounds(1024); // Publish the first snapshot
+		source = al.context.sources.valueAt(0).id;
+		for (int i = 0; i < SOURCES; i++) {
+			sourceIds[i] = al.context.sources.valueAt(i).id;
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		al.alcDestroyContext(al.context.contextId);
+		al.alcCloseDevice(al.device.id);
+	}
+
+	@Benchmark
+	public AL getEnum() {
+		next = (next + 1 == VALUES.length) ? 0 : next + 1;
+		return AL.getEnum(VALUES[next]);
+	}
+
+	@Benchmark
+	public int alGetSourcei() {
+		al.alGetSourcei(source, AL.AL_SOURCE_STATE.value(), value);
+		return value[0];
+	}
+
+	@Benchmark
+	public int[] pollSourceStates() {
+		for (int i = 0; i < SOURCES; i++) {
+			al.alGetSourcei(sourceIds[i], AL.AL_SOURCE_STATE, value);
+			states[i] = value[0];
+		}
+		return states;
+	}
+
+	@Benchmark
+	public int[] alGetSourceStatesAAL() {
+		al.alGetSourceStatesAAL(sourceIds, states, offsets);
+		return states;
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a level's worth of buffers (one second of 22050Hz 16 bit mono each, converted to 48000Hz
+ * with the 16 point sinc) one alBufferData call at a time versus one alBufferDataBatchAAL waited
+ * on, reported in ms per level.  The batch call itself only blocks the caller to check the buffers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BufferLoadBenchmark {
+	static final int SOURCE_RATE = 22050;
+
+	@Param({"16", "64"})
+	int buffers;
+
+	AndroidAL al;
+	int[] bufferIds;
+	int[] formats;
+	Object[] data;
+	int[] frequencies;
+
+	@Setup
+	public void setup() {
+		al = new AndroidAL();
+		final int deviceId = (int) al.alcOpenDevice(AndroidAL.ALC_DEVICE_NULL);
+		al.alcCreateContext(deviceId, null);
+
+		final Random random = new Random(42);
+		bufferIds = new int[buffers];
+		al.alGenBuffers(bufferIds);
+		formats = new int[buffers];
+		data = new Object[buffers];
+		frequencies = new int[buffers];
+		for (int i = 0; i < buffers; i++) {
+			al.alBufferi(bufferIds[i], AL.AL_BUFFER_RESAMPLER_AAL, Resampler.SINC_MEDIUM.ordinal());
+			formats[i] = AL.AL_FORMAT_MONO16.value();
+			data[i] = Scenes.pcm16(SOURCE_RATE, random);
+			frequencies[i] = SOURCE_RATE;
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		al.alcDestroyContext(al.context.contextId);
+		al.alcCloseDevice(al.device.id);
+	}
+
+	@Benchmark
+	public int sequential() {
+		for (int i = 0; i < buffers; i++) {
+			al.alBufferData(bufferIds[i], formats[i], data[i], frequencies[i]);
+		}
+		return al.alGetError().value();
+	}
+
+	@Benchmark
+	public BufferLoad batchAwait() throws InterruptedException {
+		final BufferLoad load = al.alBufferDataBatchAAL(bufferIds, formats, data, frequencies);
+		load.await();
+		return load;
+	}
+}
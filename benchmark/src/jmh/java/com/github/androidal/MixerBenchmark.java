@@ -0,0 +1,71 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one mixing pass per output frame (stereo sample pair) for a range of playing sources.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MixerBenchmark {
+	static final int FRAMES = 1024; // One ~46Hz pass at 48kHz
+
+	@Param({"1", "32", "256", "1024"})
+	int sources;
+
+	AndroidAL al;
+	AudioMixer mixer;
+
+	@Setup
+	public void setup() {
+		al = Scenes.createScene(sources, 42);
+		mixer = al.audioMixer;
+	}
+
+	@TearDown
+	public void tearDown() {
+		al.alcCloseDevice(al.device.id);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(FRAMES)
+	public float[] mixActiveSounds() {
+		Arrays.fill(mixer.mixingBuffer, 0, FRAMES * 2, 0.0f);
+		mixer.mixActiveSounds(FRAMES);
+		return mixer.mixingBuffer;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(FRAMES)
+	public int fillBuffer() {
+		return mixer.fillBuffer(al.device.sink, FRAMES);
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load time conversion cost per output frame on multi-megabyte buffers, 22050Hz up to 48000Hz.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ResamplerBenchmark {
+	static final int SOURCE_RATE = 22050;
+	static final int OUTPUT_RATE = 48000;
+	static final int SOURCE_BYTES = 4 * 1024 * 1024;
+
+	static final int OUTPUT_FRAMES_8BIT = (int) ((long) SOURCE_BYTES * OUTPUT_RATE / SOURCE_RATE);
+	static final int OUTPUT_FRAMES_16BIT = (int) ((long) (SOURCE_BYTES / 2) * OUTPUT_RATE / SOURCE_RATE);
+	static final int NATIVE_FRAMES_16BIT = SOURCE_BYTES / 2;
+
+	byte[] pcm8;
+	byte[] pcm16;
+	ShortBuffer pcm16Direct;
+	float[] samples;
+
+	@Setup
+	public void setup() {
+		final Random random = new Random(42);
+		pcm8 = Scenes.pcm8(SOURCE_BYTES, random);
+		pcm16 = Scenes.pcm16(SOURCE_BYTES / 2, random);
+		final ByteBuffer direct = ByteBuffer.allocateDirect(SOURCE_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		direct.put(pcm16).flip();
+		pcm16Direct = direct.asShortBuffer();
+		samples = AudioUtilities.resample16bit(pcm16, SOURCE_RATE, OUTPUT_RATE);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(OUTPUT_FRAMES_8BIT)
+	public float[] resample8bit() {
+		return AudioUtilities.resample8bit(pcm8, SOURCE_RATE, OUTPUT_RATE);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(OUTPUT_FRAMES_16BIT)
+	public float[] resample16bit() {
+		return AudioUtilities.resample16bit(pcm16, SOURCE_RATE, OUTPUT_RATE);
+	}
+
+	/**
+	 * The same conversion read in place from a direct ByteBuffer, as alBufferData does for NIO input.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(OUTPUT_FRAMES_16BIT)
+	public float[] resample16bitDirect() {
+		return AudioUtilities.resample16bit(pcm16Direct, SOURCE_RATE, OUTPUT_RATE, 1);
+	}
+
+	/**
+	 * Conversion of a buffer kept at its own rate (AL_NATIVE_RATE_AAL), per frame kept.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(NATIVE_FRAMES_16BIT)
+	public float[] convert16bitNativeRate() {
+		return AudioUtilities.resample16bit(pcm16, SOURCE_RATE, SOURCE_RATE);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(OUTPUT_FRAMES_16BIT)
+	public float[] normalizeAudio() {
+		AudioUtilities.normalizeAudio(samples);
+		return samples;
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost per output frame of each resampler kernel (AL_SOURCE_RESAMPLER_SOFT) mixing one quantum of
+ * a voice, upsampling 22050Hz to 48000Hz and band limited at twice the pitch, and of converting a
+ * buffer to the output rate with it at load (AL_BUFFER_RESAMPLER_AAL).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ResamplerKernelBenchmark {
+	static final int FRAMES = AudioMixer.quantumFrames;
+	static final int SOURCE_RATE = 22050;
+	static final int OUTPUT_RATE = 48000;
+	static final int SOURCE_FRAMES = 1024 * 1024;
+	static final int OUTPUT_FRAMES = (int) ((long) SOURCE_FRAMES * OUTPUT_RATE / SOURCE_RATE);
+
+	@Param({"POINT", "LINEAR", "CUBIC", "SINC_CHEAP", "SINC_MEDIUM", "SINC_BEST"})
+	String resampler;
+
+	Resampler kernel;
+	float[] scratch;
+	float[] mix;
+	float[] samples;
+	long upsampleStep;
+	long doubleStep;
+
+	@Setup
+	public void setup() {
+		kernel = Resampler.valueOf(resampler);
+		kernel.prepare();
+
+		final Random random = new Random(42);
+		scratch = new float[(int) (FRAMES * AudioMixer.maxPitch) + Resampler.MAX_PADDING * 2 + 2];
+		for (int i = 0; i < scratch.length; i++) {
+			scratch[i] = random.nextFloat() * 2.0f - 1.0f;
+		}
+		mix = new float[FRAMES * 2];
+		samples = Arrays.copyOf(scratch, SOURCE_FRAMES);
+		for (int i = scratch.length; i < samples.length; i++) {
+			samples[i] = random.nextFloat() * 2.0f - 1.0f;
+		}
+		upsampleStep = (long) ((double) SOURCE_RATE / OUTPUT_RATE * Resampler.FRACTION_ONE);
+		doubleStep = 2L * Resampler.FRACTION_ONE;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(FRAMES)
+	public float[] mixUpsample() {
+		kernel.mix(scratch, (long) kernel.padding << Resampler.FRACTION_BITS, upsampleStep, 0, mix, 0, FRAMES, 0.5f, 0.5f, 0.0f, 0.0f);
+		return mix;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(FRAMES)
+	public float[] mixDoublePitch() {
+		kernel.mix(scratch, (long) kernel.padding << Resampler.FRACTION_BITS, doubleStep, 0, mix, 0, FRAMES, 0.5f, 0.5f, 0.0f, 0.0f);
+		return mix;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(OUTPUT_FRAMES)
+	public float[] convert() {
+		return AudioUtilities.resample(samples, SOURCE_RATE, OUTPUT_RATE, kernel, 1);
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a level's worth of buffers (one second of 22050Hz 16 bit mono each, converted to 48000Hz
+ * with the 16 point sinc) with alBufferData, converted versus found in a warm alBufferCacheAAL cache,
+ * reported in ms per level.  The cache directory is in the OS page cache, as on a second launch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SampleCacheBenchmark {
+	static final int SOURCE_RATE = 22050;
+
+	@Param({"16", "64"})
+	int buffers;
+
+	@Param({"false", "true"})
+	boolean cached;
+
+	File directory;
+	AndroidAL al;
+	int[] bufferIds;
+	byte[][] data;
+
+	@Setup
+	public void setup() throws IOException {
+		al = new AndroidAL();
+		final int deviceId = (int) al.alcOpenDevice(AndroidAL.ALC_DEVICE_NULL);
+		al.alcCreateContext(deviceId, null);
+
+		final Random random = new Random(42);
+		bufferIds = new int[buffers];
+		al.alGenBuffers(bufferIds);
+		data = new byte[buffers][];
+		for (int i = 0; i < buffers; i++) {
+			al.alBufferi(bufferIds[i], AL.AL_BUFFER_RESAMPLER_AAL, Resampler.SINC_MEDIUM.ordinal());
+			data[i] = Scenes.pcm16(SOURCE_RATE, random);
+		}
+
+		directory = Files.createTempDirectory("androidal-cache").toFile();
+		if (cached) {
+			al.alBufferCacheAAL(directory.getPath());
+			load(); // Fill the cache
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		al.alcDestroyContext(al.context.contextId);
+		al.alcCloseDevice(al.device.id);
+		for (final File entry : directory.listFiles()) {
+			entry.delete();
+		}
+		directory.delete();
+	}
+
+	@Benchmark
+	public int load() {
+		for (int i = 0; i < buffers; i++) {
+			al.alBufferData(bufferIds[i], AL.AL_FORMAT_MONO16.value(), data[i], SOURCE_RATE);
+		}
+		return al.alGetError().value();
+	}
+}
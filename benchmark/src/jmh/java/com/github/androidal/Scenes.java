@@ -0,0 +1,140 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import java.util.Random;
+
+/**
+ * Builds benchmark scenes through the public API on a "Null" device so the mixer can be driven
+ * directly from the benchmark thread without starting the mixing thread.
+ */
+final class Scenes {
+	static final int SAMPLE_RATE = NullSink.DEFAULT_SAMPLE_RATE;
+	static final int BUFFER_COUNT = 8;
+
+	private Scenes() { }
+
+	/**
+	 * Open a Null device and context with the given number of looping, playing sources scattered
+	 * around the listener.
+	 *
+	 * @param sources Number of playing sources.
+	 * @param seed    Random seed so every run builds the same scene.
+	 * @return Driver with its mixer bound to the context.
+	 */
+	static AndroidAL createScene(final int sources, final long seed) {
+		return createScene(sources, seed, null);
+	}
+
+	/**
+	 * Open a Null device and context with the given number of looping, playing sources scattered
+	 * around the listener.
+	 *
+	 * @param sources    Number of playing sources.
+	 * @param seed       Random seed so every run builds the same scene.
+	 * @param attributes Context creation attributes, may be null.
+	 * @return Driver with its mixer bound to the context.
+	 */
+	static AndroidAL createScene(final int sources, final long seed, final int[] attributes) {
+		return createScene(sources, seed, attributes, SampleStorage.DEFAULT);
+	}
+
+	/**
+	 * Open a Null device and context with the given number of looping, playing sources scattered
+	 * around the listener.
+	 *
+	 * @param sources    Number of playing sources.
+	 * @param seed       Random seed so every run builds the same scene.
+	 * @param attributes Context creation attributes, may be null.
+	 * @param storage    How the buffers keep their samples (AL_SAMPLE_STORAGE_AAL).
+	 * @return Driver with its mixer bound to the context.
+	 */
+	static AndroidAL createScene(final int sources, final long seed, final int[] attributes, final SampleStorage storage) {
+		return createScene(sources, seed, attributes, storage, 1, true);
+	}
+
+	/**
+	 * Open a Null device and context with the given number of looping, playing sources scattered
+	 * around the listener.
+	 *
+	 * @param sources    Number of playing sources.
+	 * @param seed       Random seed so every run builds the same scene.
+	 * @param attributes Context creation attributes, may be null.
+	 * @param storage    How the buffers keep their samples (AL_SAMPLE_STORAGE_AAL).
+	 * @param channels   Channels of the buffers, 1 (AL_FORMAT_MONO16) or 2 (AL_FORMAT_STEREO16).
+	 * @param pitched    Play the sources at random pitches, otherwise all at 1.0.
+	 * @return Driver with its mixer bound to the context.
+	 */
+	static AndroidAL createScene(final int sources, final long seed, final int[] attributes, final SampleStorage storage, final int channels, final boolean pitched) {
+		final Random random = new Random(seed);
+
+		final AndroidAL al = new AndroidAL();
+		final int deviceId = (int) al.alcOpenDevice(AndroidAL.ALC_DEVICE_NULL);
+		al.alcCreateContext(deviceId, attributes);
+		al.audioMixer.setContext(al.context);
+
+		final int[] bufferIds = new int[BUFFER_COUNT];
+		al.alGenBuffers(bufferIds);
+		for (int bufferId : bufferIds) {
+			al.alBufferi(bufferId, AL.AL_SAMPLE_STORAGE_AAL, storage.token.value());
+			// Between 0.5 and 1.5 seconds of 22kHz noise so buffers wrap at different points.
+			al.alBufferData(bufferId, (channels == 1) ? AL.AL_FORMAT_MONO16.value() : AL.AL_FORMAT_STEREO16.value(),
+				pcm16((11025 + random.nextInt(22050)) * channels, random), 22050);
+		}
+
+		final int[] sourceIds = new int[sources];
+		al.alGenSources(sourceIds);
+		for (int sourceId : sourceIds) {
+			al.alSourcei(sourceId, AL.AL_BUFFER, bufferIds[random.nextInt(BUFFER_COUNT)]);
+			al.alSourcei(sourceId, AL.AL_LOOPING, AL.AL_TRUE.value());
+			final float pitch = 0.75f + random.nextFloat() * 0.5f;
+			al.alSourcef(sourceId, AL.AL_PITCH, pitched ? pitch : 1.0f);
+			al.alSource3f(sourceId, AL.AL_POSITION,
+				random.nextFloat() * 40 - 20, random.nextFloat() * 4 - 2, random.nextFloat() * 40 - 20);
+			al.alSource3f(sourceId, AL.AL_VELOCITY,
+				random.nextFloat() * 10 - 5, 0, random.nextFloat() * 10 - 5);
+			al.alSourcePlay(sourceId);
+		}
+
+		return al;
+	}
+
+	/**
+	 * @param samples Number of samples.
+	 * @param random  Noise source.
+	 * @return 16 bit little endian noise.
+	 */
+	static byte[] pcm16(final int samples, final Random random) {
+		final byte[] data = new byte[samples * 2];
+		for (int i = 0; i < samples; i++) {
+			final int sample = random.nextInt(65536) - 32768;
+			data[i * 2] = (byte) sample;
+			data[i * 2 + 1] = (byte) (sample >> 8);
+		}
+		return data;
+	}
+
+	/**
+	 * @param samples Number of samples.
+	 * @param random  Noise source.
+	 * @return 8 bit unsigned mono noise.
+	 */
+	static byte[] pcm8(final int samples, final Random random) {
+		final byte[] data = new byte[samples];
+		random.nextBytes(data);
+		return data;
+	}
+}
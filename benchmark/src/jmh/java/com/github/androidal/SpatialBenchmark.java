@@ -0,0 +1,72 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per source cost of the spatial kernels evaluated every pass, run over the mixer's source pool.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SpatialBenchmark {
+	static final int SOURCES = 256;
+
+	AudioContext context;
+	SourcePool pool;
+	int[] slots;
+
+	@Setup
+	public void setup() {
+		final AndroidAL al = Scenes.createScene(SOURCES, 42);
+		final AudioMixer mixer = al.audioMixer;
+		mixer.processCommands();
+		context = mixer.mixContext;
+		pool = mixer.pool;
+		slots = mixer.voices;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SOURCES)
+	public float[] computeLeftRightGains() {
+		AudioUtilities.computeLeftRightGains(context, context.listener, pool, slots, 0, SOURCES);
+		return pool.panningGain;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SOURCES)
+	public float[] computeDistanceRolloff() {
+		AudioUtilities.computeDistanceRolloff(context, context.listener, pool, slots, 0, SOURCES);
+		return pool.distanceGain;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SOURCES)
+	public float[] computeDopplerShift() {
+		AudioUtilities.computeDopplerShift(context, context.listener, pool, slots, 0, SOURCES);
+		return pool.dopplerShift;
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of syncing every source's position, velocity and direction for one game frame, with an
+ * alSource3f call per vector or one alSourceTransformsAAL batch.  Includes the mixer applying the
+ * commands, reported in ns per frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TransformBenchmark {
+	@Param({"512", "2048"})
+	int sources;
+
+	AndroidAL al;
+	AudioMixer mixer;
+	int[] sourceIds;
+	float[] transforms;
+
+	@Setup
+	public void setup() {
+		al = Scenes.createScene(sources, 42);
+		mixer = al.audioMixer;
+		sourceIds = new int[sources];
+		for (int i = 0; i < sources; i++) {
+			sourceIds[i] = al.context.sources.valueAt(i).id;
+		}
+		final Random random = new Random(42);
+		transforms = new float[sources * AndroidAL.TRANSFORM_STRIDE];
+		for (int i = 0; i < transforms.length; i++) {
+			transforms[i] = random.nextFloat() * 40 - 20;
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		al.alcDestroyContext(al.context.contextId);
+		al.alcCloseDevice(al.device.id);
+	}
+
+	@Benchmark
+	public void perCall() {
+		for (int i = 0; i < sources; i++) {
+			final int t = i * AndroidAL.TRANSFORM_STRIDE;
+			al.alSource3f(sourceIds[i], AL.AL_POSITION, transforms[t], transforms[t + 1], transforms[t + 2]);
+			al.alSource3f(sourceIds[i], AL.AL_VELOCITY, transforms[t + 3], transforms[t + 4], transforms[t + 5]);
+			al.alSource3f(sourceIds[i], AL.AL_DIRECTION, transforms[t + 6], transforms[t + 7], transforms[t + 8]);
+		}
+		mixer.processCommands();
+	}
+
+	@Benchmark
+	public void batch() {
+		al.alSourceTransformsAAL(sourceIds, transforms);
+		mixer.processCommands();
+	}
+}
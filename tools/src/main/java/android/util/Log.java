@@ -0,0 +1,44 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.util;
+
+/**
+ * Host JVM stand in for the Android logger so the library's conversion code runs in the build tools.<br>
+ * Debug and verbose output is dropped, warnings and errors go to stderr next to the tool's own output.
+ */
+public final class Log {
+	private Log() { }
+
+	public static int v(final String tag, final String msg) { return 0; }
+
+	public static int d(final String tag, final String msg) { return 0; }
+
+	public static int i(final String tag, final String msg) { return 0; }
+
+	public static int w(final String tag, final String msg) { return println("W", tag, msg); }
+
+	public static int e(final String tag, final String msg) { return println("E", tag, msg); }
+
+	public static int e(final String tag, final String msg, final Throwable tr) {
+		tr.printStackTrace(System.err);
+		return println("E", tag, msg);
+	}
+
+	private static int println(final String level, final String tag, final String msg) {
+		System.err.println(level + "/" + tag + ": " + msg);
+		return 0;
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2024 bmcclint15
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.androidal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ShortBuffer;
+
+/**
+ * Host tool packing RIFF/WAVE files into a sound bank for alLoadSoundBankAAL, run at build time on
+ * the host JVM against the library sources, it is not part of the library:
+ * <pre>
+ * ./gradlew :tools:packSoundBank --args="level1.bank 48000 shot.wav step.wav door.wav"
+ * </pre>
+ * The sounds are converted exactly as alBufferData would, to 16 bit PCM at the given rate with the
+ * 32 point sinc, or at each file's own frequency for a rate of 0.  16 bit files kept at their own
+ * frequency are copied as they are, their peak is found here and stored in the index so they play
+ * normalized like the others.  Mixing folds a buffer's rate into its pitch, so a bank packed at one
+ * rate plays on devices of any other.
+ */
+public final class SoundBankPacker {
+	private SoundBankPacker() { }
+
+	public static void main(final String[] args) throws IOException {
+		if (args.length < 3) {
+			System.err.println("Usage: SoundBankPacker <bank> <rate, 0 to keep each file's> <wave file>...");
+			System.exit(2);
+		}
+		final File bank = new File(args[0]);
+		final int rate = Integer.parseInt(args[1]);
+		final File[] files = new File[args.length - 2];
+		for (int i = 0; i < files.length; i++) {
+			files[i] = new File(args[i + 2]);
+		}
+
+		pack(bank, rate, files);
+		for (int i = 0; i < files.length; i++) {
+			System.out.println(i + ": " + files[i]);
+		}
+		System.out.println("Packed " + files.length + " sounds into " + bank + ", " + bank.length() + " bytes");
+	}
+
+	/**
+	 * Convert WAVE files and write them as a bank, buffer i of the bank is file i.
+	 *
+	 * @param bank  Bank to create or replace
+	 * @param rate  Rate the sounds are converted to, 0 to keep each file's frequency
+	 * @param files RIFF/WAVE files, 8 or 16 bit PCM or 32 bit float, mono or stereo
+	 * @throws IOException if a file can't be read or converted, or the bank written.
+	 */
+	static void pack(final File bank, final int rate, final File[] files) throws IOException {
+		final AudioBuffer[] buffers = new AudioBuffer[files.length];
+		for (int i = 0; i < files.length; i++) {
+			final WaveFile wave = WaveFile.map(files[i]);
+			if (wave == null) {
+				throw new IOException("Not a supported RIFF/WAVE file: " + files[i]);
+			}
+			final AudioBuffer buffer = new AudioBuffer(i + 1);
+			buffer.nativeRate = rate == 0;
+			buffer.resampler = Resampler.SINC_BEST;
+			buffer.storageRequested = SampleStorage.PCM16;
+			final BufferLoad load = new BufferLoad(1);
+			if (!AndroidAL.convertBufferData(load, buffer, wave.format.value(), wave, wave.frequency, rate)) {
+				throw new IOException(files[i] + ": " + load.getErrorDescr());
+			}
+			if (buffer.storage == SampleStorage.MAPPED) {
+				buffer.mappedScale = normalizingScale(buffer.mapped);
+			}
+			buffers[i] = buffer;
+		}
+		SoundBank.write(bank, buffers);
+	}
+
+	/**
+	 * @return Scale bringing the peak of 16 bit samples to 1.0, as alBufferData normalizes.
+	 */
+	static float normalizingScale(final ShortBuffer samples) {
+		int peak = 0;
+		for (int i = 0, n = samples.limit(); i < n; i++) {
+			peak = Math.max(peak, Math.abs(samples.get(i)));
+		}
+		return (peak == 0) ? SampleStorage.PCM16_SCALE : 1.0f / peak;
+	}
+}